@@ -0,0 +1,98 @@
+package com.urbanservices.booking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and fails if any benchmark present in both got slower
+ * than the threshold allows.
+ *
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [threshold percent, default 10]}
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold percent]");
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result before = baseline.get(entry.getKey());
+            Result after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", after.score, "new");
+                continue;
+            }
+
+            // Positive change is always an improvement, whatever the benchmark mode
+            double change = after.higherIsBetter()
+                    ? (after.score - before.score) / before.score * 100
+                    : (before.score - after.score) / before.score * 100;
+            boolean regressed = change < -threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before.score, after.score, change,
+                    regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            throw new IllegalStateException(regressions + " benchmark(s) regressed by more than " + threshold + "%");
+        }
+        System.out.println("No regressions above " + threshold + "%");
+    }
+
+    /**
+     * Primary scores keyed by benchmark name and parameters.
+     */
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+            JsonNode params = run.path("params");
+            if (params.size() > 0) {
+                key.append(' ');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+            }
+            key.append(" (").append(run.path("primaryMetric").path("scoreUnit").asText()).append(')');
+            results.put(key.toString(), new Result(run.path("mode").asText(), run.path("primaryMetric").path("score").asDouble()));
+        }
+        return results;
+    }
+
+    private static final class Result {
+        final String mode;
+        final double score;
+
+        Result(String mode, double score) {
+            this.mode = mode;
+            this.score = score;
+        }
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
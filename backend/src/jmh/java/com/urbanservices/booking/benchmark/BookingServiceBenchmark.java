@@ -0,0 +1,238 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.availability.AvailabilityScheduleCache;
+import com.urbanservices.booking.availability.BookingIntervalIndex;
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.dto.BookingAddonDto;
+import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.exception.ResourceNotFoundException;
+import com.urbanservices.booking.leaderboard.LeaderboardCache;
+import com.urbanservices.booking.mapper.BookingMapperImpl;
+import com.urbanservices.booking.model.Service;
+import com.urbanservices.booking.model.ServiceAddon;
+import com.urbanservices.booking.pricing.PricingEngine;
+import com.urbanservices.booking.repository.AvailabilityRepository;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import com.urbanservices.booking.repository.ServiceCategoryRepository;
+import com.urbanservices.booking.repository.ServiceRepository;
+import com.urbanservices.booking.service.impl.BookingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability and pricing paths of BookingServiceImpl for one professional with a month of
+ * bookings. Repositories answer from memory, so the numbers cover the service logic, the
+ * interval index, the schedule cache and the catalog snapshot, not database round trips.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingServiceBenchmark {
+
+    private static final long PROFESSIONAL_ID = 1L;
+    private static final int DAYS = 30;
+    private static final int CART_SIZE = 20;
+
+    @Param({"4", "12"})
+    public int bookingsPerDay;
+
+    @Param({"3", "10"})
+    public int selectedAddons;
+
+    private BookingServiceImpl bookingService;
+    private LocalDateTime[] candidateStarts;
+    private LocalDateTime[] days;
+    private BookingDto quote;
+    private List<BookingDto> cart;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        Service service = Fixtures.service(10L, 12);
+
+        // Bookings spread over working hours, leaving gaps the slot search has to find
+        List<Object[]> intervals = new ArrayList<>();
+        long bookingId = 1;
+        int spacing = 12 * 60 / bookingsPerDay;
+        for (int day = 0; day < DAYS; day++) {
+            LocalDateTime opening = firstDay.plusDays(day).atTime(8, 0);
+            for (int i = 0; i < bookingsPerDay; i++) {
+                LocalDateTime start = opening.plusMinutes((long) i * spacing);
+                intervals.add(new Object[] {bookingId++, start, start.plusMinutes(Math.min(spacing - 15, 90))});
+            }
+        }
+
+        List<Object[]> scheduleRows = new ArrayList<>();
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek != DayOfWeek.SUNDAY) {
+                scheduleRows.add(new Object[] {PROFESSIONAL_ID, dayOfWeek, LocalTime.of(8, 0), LocalTime.of(20, 0), true, null});
+            }
+        }
+
+        BookingRepository bookingRepository = InMemoryRepositories.of(BookingRepository.class)
+                .answer("findBookingIntervals", args -> intervals)
+                .build();
+        List<Object[]> serviceRows = new ArrayList<>();
+        serviceRows.add(new Object[] {service.getId(), service.getName(), service.getDescription(), 1L,
+                service.getBasePrice(), service.getDurationInMinutes(), service.getImageUrl(), true});
+        List<Object[]> addonRows = new ArrayList<>();
+        for (ServiceAddon addon : service.getAddons()) {
+            addonRows.add(new Object[] {addon.getId(), service.getId(), addon.getName(), addon.getDescription(),
+                    addon.getPrice(), addon.getDurationInMinutes(), true});
+        }
+        List<Object[]> categoryRows = new ArrayList<>();
+        categoryRows.add(new Object[] {1L, "Cleaning", null, null, true});
+
+        ServiceRepository serviceRepository = InMemoryRepositories.of(ServiceRepository.class)
+                .answer("findById", args -> Optional.of(service))
+                .answer("findCatalogRows", args -> serviceRows)
+                .answer("findCatalogAddonRows", args -> addonRows)
+                .build();
+        ServiceCategoryRepository categoryRepository = InMemoryRepositories.of(ServiceCategoryRepository.class)
+                .answer("findCatalogRows", args -> categoryRows)
+                .build();
+        ProfessionalRepository professionalRepository = InMemoryRepositories.of(ProfessionalRepository.class).build();
+        AvailabilityRepository availabilityRepository = InMemoryRepositories.of(AvailabilityRepository.class)
+                .answer("findScheduleRows", args -> scheduleRows)
+                .build();
+
+        BookingIntervalIndex intervalIndex = new BookingIntervalIndex(bookingRepository);
+        ReflectionTestUtils.setField(intervalIndex, "enabled", true);
+        ReflectionTestUtils.setField(intervalIndex, "historyHours", 24);
+        ReflectionTestUtils.setField(intervalIndex, "maxAgeSeconds", 3600);
+        AvailabilityScheduleCache scheduleCache = new AvailabilityScheduleCache(availabilityRepository, "09:00", "17:00",
+                10_000, 3600);
+        LeaderboardCache leaderboardCache = new LeaderboardCache(professionalRepository, serviceRepository,
+                bookingRepository, new SimpleMeterRegistry());
+
+        CatalogCache catalogCache = new CatalogCache(serviceRepository, categoryRepository,
+                new NoOpTransactionManager(), new SimpleMeterRegistry());
+
+        bookingService = new BookingServiceImpl(bookingRepository, professionalRepository,
+                new BookingMapperImpl(), intervalIndex, scheduleCache, leaderboardCache, catalogCache,
+                new PricingEngine(catalogCache), null, null); // no booking is created, so no notifications or reminders
+        ReflectionTestUtils.setField(bookingService, "slotGranularityMinutes", 5);
+        ReflectionTestUtils.setField(bookingService, "searchCandidatePageSize", 200);
+
+        // Every half hour of the month, so lookups hit both free and booked ranges
+        candidateStarts = new LocalDateTime[DAYS * 24];
+        for (int i = 0; i < candidateStarts.length; i++) {
+            candidateStarts[i] = firstDay.atTime(8, 0).plusDays(i / 24).plusMinutes((i % 24) * 30L);
+        }
+        days = new LocalDateTime[DAYS];
+        for (int day = 0; day < DAYS; day++) {
+            days[day] = firstDay.plusDays(day).atStartOfDay();
+        }
+
+        quote = new BookingDto();
+        quote.setServiceId(service.getId());
+        quote.setBookingDate(firstDay.atTime(10, 0));
+        quote.setEndDate(firstDay.atTime(13, 0));
+        Set<BookingAddonDto> addons = new HashSet<>();
+        for (ServiceAddon addon : service.getAddons()) {
+            if (addons.size() == selectedAddons) {
+                break;
+            }
+            BookingAddonDto dto = new BookingAddonDto();
+            dto.setId(addon.getId());
+            dto.setAddonId(addon.getId());
+            dto.setPrice(addon.getPrice());
+            addons.add(dto);
+        }
+        quote.setAddons(addons);
+
+        // The same booking at different start times, as when comparing professionals
+        cart = new ArrayList<>(CART_SIZE);
+        for (int i = 0; i < CART_SIZE; i++) {
+            BookingDto item = new BookingDto();
+            item.setServiceId(service.getId());
+            item.setBookingDate(candidateStarts[i]);
+            item.setEndDate(candidateStarts[i].plusHours(1 + i % 3));
+            item.setAddons(addons);
+            cart.add(item);
+        }
+
+        // Load the timeline and schedule once so the benchmarks measure the steady state
+        bookingService.isTimeSlotAvailable(PROFESSIONAL_ID, candidateStarts[0], candidateStarts[0].plusHours(1), null);
+        bookingService.findAvailableTimeSlots(PROFESSIONAL_ID, days[0], 60);
+    }
+
+    @Benchmark
+    public boolean isTimeSlotAvailable() {
+        LocalDateTime start = candidateStarts[next(candidateStarts.length)];
+        return bookingService.isTimeSlotAvailable(PROFESSIONAL_ID, start, start.plusMinutes(60), null);
+    }
+
+    @Benchmark
+    public List<LocalDateTime> findAvailableTimeSlots() {
+        return bookingService.findAvailableTimeSlots(PROFESSIONAL_ID, days[next(days.length)], 60);
+    }
+
+    @Benchmark
+    public BigDecimal calculateBookingTotal() throws ResourceNotFoundException {
+        return bookingService.calculateBookingTotal(quote);
+    }
+
+    @Benchmark
+    public List<BigDecimal> calculateBookingTotals() throws ResourceNotFoundException {
+        return bookingService.calculateBookingTotals(cart);
+    }
+
+    private int next(int bound) {
+        cursor = (cursor + 1) % bound;
+        return cursor;
+    }
+
+    /**
+     * Runs the catalog load without a database transaction.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
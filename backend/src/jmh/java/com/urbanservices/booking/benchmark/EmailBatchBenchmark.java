@@ -0,0 +1,81 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.service.EmailService;
+import com.urbanservices.booking.service.impl.EmailServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails per second through EmailServiceImpl to a {@link FakeSmtpServer} that answers every
+ * command after {@code latencyMillis}, as a remote server would. {@code messagesPerConnection = 1}
+ * connects once per message like the single-message send methods; 50 is the configured batch.
+ * One operation is a reminder-day burst of {@value #EMAILS} emails.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailBatchBenchmark {
+
+    private static final int EMAILS = 200;
+
+    @Param({"1", "50"})
+    public int messagesPerConnection;
+
+    @Param({"0", "2"})
+    public long latencyMillis;
+
+    private FakeSmtpServer server;
+    private EmailServiceImpl emailService;
+    private List<EmailService.Email> emails;
+
+    @Setup
+    public void setUp() {
+        server = new FakeSmtpServer(latencyMillis);
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(server.getPort());
+        mailSender.getJavaMailProperties().put("mail.smtp.auth", "false");
+        mailSender.getJavaMailProperties().put("mail.smtp.from", "noreply@urbanservices.example.com");
+
+        emailService = new EmailServiceImpl(mailSender, null);
+        ReflectionTestUtils.setField(emailService, "messagesPerConnection", messagesPerConnection);
+
+        emails = new ArrayList<>(EMAILS);
+        for (int i = 0; i < EMAILS; i++) {
+            emails.add(new EmailService.Email("customer" + i + "@example.com", "Reminder: upcoming booking - #" + i,
+                    "This is a reminder of your booking #" + i + " for Deep cleaning on Mon 1 Jun 2026, 10:00.", false));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMAILS)
+    public List<Boolean> sendReminderBurst() {
+        return emailService.sendEmails(emails);
+    }
+}
@@ -0,0 +1,100 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.notification.EmailTemplateRenderer;
+import com.urbanservices.booking.service.impl.EmailServiceImpl.BookingConfirmationModel;
+import com.urbanservices.booking.service.impl.EmailServiceImpl.BookingReminderModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails rendered per second from the templates under templates/emails/. {@code cache = false}
+ * matches the development settings (every email parses its template and renders the header and
+ * footer again); {@code true} matches production. One operation renders {@value #EMAILS} emails,
+ * either one by one or as one {@link EmailTemplateRenderer#renderAll} batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailRenderingBenchmark {
+
+    private static final int EMAILS = 200;
+
+    @Param({"false", "true"})
+    public boolean cache;
+
+    private EmailTemplateRenderer renderer;
+    private List<BookingConfirmationModel> confirmations;
+    private List<BookingReminderModel> reminders;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/emails/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cache);
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        renderer = new EmailTemplateRenderer(templateEngine, cache, Locale.ENGLISH);
+
+        confirmations = new ArrayList<>(EMAILS);
+        reminders = new ArrayList<>(EMAILS);
+        for (int i = 0; i < EMAILS; i++) {
+            confirmations.add(new BookingConfirmationModel("Customer " + i, String.valueOf(1000 + i), "Deep cleaning",
+                    "Professional " + (i % 17), "Mon 1 Jun 2026, 10:00", i + " Main Street, Springfield", 1499.0 + i));
+            reminders.add(new BookingReminderModel("Customer " + i, String.valueOf(1000 + i), "Deep cleaning",
+                    "Mon 1 Jun 2026, 10:00"));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMAILS)
+    public void renderConfirmationsOneByOne(Blackhole blackhole) {
+        for (BookingConfirmationModel model : confirmations) {
+            blackhole.consume(renderer.render("booking-confirmation", model, Locale.ENGLISH));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMAILS)
+    public List<String> renderConfirmationBatch() {
+        return renderer.renderAll("booking-confirmation", confirmations, Locale.ENGLISH);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EMAILS)
+    public List<String> renderReminderBatch() {
+        return renderer.renderAll("booking-reminder", reminders, Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,102 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.model.Address;
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.model.Customer;
+import com.urbanservices.booking.model.Professional;
+import com.urbanservices.booking.model.RatingSummary;
+import com.urbanservices.booking.model.Service;
+import com.urbanservices.booking.model.ServiceAddon;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.model.enums.UserRole;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entity graphs shaped like production rows, shared by the benchmark suites.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Address address(long id) {
+        Address address = new Address();
+        address.setId(id);
+        address.setAddressLine1(id + " MG Road");
+        address.setAddressLine2("Flat " + (id % 40 + 1) + ", Tower B");
+        address.setCity("Bengaluru");
+        address.setState("Karnataka");
+        address.setPostalCode("5600" + (10 + id % 80));
+        address.setCountry("India");
+        address.setLabel("Home");
+        return address;
+    }
+
+    static Customer customer(long id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName("Customer " + id);
+        customer.setEmail("customer" + id + "@example.com");
+        customer.setPhone("98450" + String.format("%05d", id));
+        customer.setRole(UserRole.ROLE_CUSTOMER);
+        return customer;
+    }
+
+    static Service service(long id, int addonCount) {
+        Service service = new Service();
+        service.setId(id);
+        service.setName("Deep cleaning " + id);
+        service.setDescription("Full home deep cleaning including kitchen and bathrooms");
+        service.setBasePrice(new BigDecimal("1499.00"));
+        service.setImageUrl("https://cdn.example.com/services/" + id + ".jpg");
+        service.setDurationInMinutes(120);
+        for (int i = 1; i <= addonCount; i++) {
+            ServiceAddon addon = new ServiceAddon();
+            addon.setId(id * 100 + i);
+            addon.setService(service);
+            addon.setName("Add-on " + i);
+            addon.setPrice(new BigDecimal(99 * i + ".00"));
+            addon.setDurationInMinutes(15);
+            service.getAddons().add(addon);
+        }
+        return service;
+    }
+
+    static Professional professional(long id, int serviceCount) {
+        Professional professional = new Professional();
+        professional.setId(id);
+        professional.setName("Professional " + id);
+        professional.setEmail("pro" + id + "@example.com");
+        professional.setPhone("99000" + String.format("%05d", id));
+        professional.setRole(UserRole.ROLE_PROFESSIONAL);
+        professional.setBio("Certified cleaning professional with a decade of experience");
+        professional.setYearsOfExperience(10);
+        professional.setHourlyRate(450.0);
+        professional.setVerified(true);
+        professional.setAddress(address(id));
+        professional.setRatingSummary(RatingSummary.fromHistogram(new int[] {2, 3, 10, 40, 95}));
+        for (int i = 1; i <= serviceCount; i++) {
+            professional.getServices().add(service(id * 10 + i, 3));
+        }
+        return professional;
+    }
+
+    static Booking booking(long id, Professional professional, Service service, LocalDateTime start) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setCustomer(customer(id));
+        booking.setProfessional(professional);
+        booking.setService(service);
+        booking.setAddress(address(id));
+        booking.setBookingDate(start);
+        booking.setEndDate(start.plusMinutes(service.getDurationInMinutes()));
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setTotalAmount(service.getBasePrice());
+        booking.setSpecialInstructions("Please call on arrival");
+        booking.setCreatedAt(start.minusDays(2));
+        booking.setUpdatedAt(start.minusDays(1));
+        return booking;
+    }
+}
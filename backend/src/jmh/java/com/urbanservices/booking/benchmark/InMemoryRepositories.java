@@ -0,0 +1,58 @@
+package com.urbanservices.booking.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds repository implementations that answer only the queries a benchmark exercises, so the
+ * services can run against in-memory fixtures instead of a database. Any other repository
+ * method throws, which keeps a benchmark from silently measuring an unexpected path.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static <T> Builder<T> of(Class<T> repositoryType) {
+        return new Builder<>(repositoryType);
+    }
+
+    static final class Builder<T> {
+        private final Class<T> repositoryType;
+        private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+        private Builder(Class<T> repositoryType) {
+            this.repositoryType = repositoryType;
+        }
+
+        /**
+         * Answers every call of the named method with the function applied to its arguments.
+         */
+        Builder<T> answer(String methodName, Function<Object[], Object> answer) {
+            answers.put(methodName, answer);
+            return this;
+        }
+
+        T build() {
+            Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] {repositoryType},
+                    (instance, method, args) -> {
+                        if (method.getDeclaringClass() == Object.class) {
+                            switch (method.getName()) {
+                                case "equals": return instance == args[0];
+                                case "hashCode": return System.identityHashCode(instance);
+                                default: return repositoryType.getSimpleName() + " (in memory)";
+                            }
+                        }
+                        Function<Object[], Object> answer = answers.get(method.getName());
+                        if (answer == null) {
+                            throw new UnsupportedOperationException(
+                                    repositoryType.getSimpleName() + "." + method.getName() + " has no in-memory fixture");
+                        }
+                        return answer.apply(args != null ? args : new Object[0]);
+                    });
+            return repositoryType.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.UrbanServicesApplication;
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.model.Customer;
+import com.urbanservices.booking.model.Professional;
+import com.urbanservices.booking.model.Service;
+import com.urbanservices.booking.model.ServiceAddon;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts through Hibernate with the application's mappings on an in-memory H2 database: one
+ * operation is a transaction of {@code bookingsPerTransaction} bookings with three add-ons each.
+ * {@code batchSize = 1} sends every row in its own round trip, as the former identity ids forced;
+ * 50 is the configured JDBC batch size. The context is started once per parameter set with a
+ * small seeded dataset for the customers, professionals and services the bookings refer to.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class InsertBatchingBenchmark {
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    @Param({"100"})
+    public int bookingsPerTransaction;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private long[] customerIds;
+    private long[] professionalIds;
+    private long serviceId;
+    private long[] addonIds;
+    private long cursor;
+
+    @Setup
+    public void setUp() {
+        // Arguments rather than default properties, so they win over application.properties
+        context = new SpringApplicationBuilder(UrbanServicesApplication.class)
+                .profiles("seed")
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:insert-" + batchSize + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--logging.level.root=WARN",
+                        "--app.seed.categories=2",
+                        "--app.seed.services-per-category=2",
+                        "--app.seed.professionals=20",
+                        "--app.seed.customers=200",
+                        "--app.seed.bookings=0",
+                        "--app.seed.exit-when-done=false");
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        customerIds = jdbcTemplate.queryForList("SELECT id FROM customers", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        serviceId = jdbcTemplate.queryForObject(
+                "SELECT MIN(service_id) FROM professional_services", Long.class);
+        professionalIds = jdbcTemplate.queryForList(
+                "SELECT professional_id FROM professional_services WHERE service_id = ?", Long.class, serviceId)
+                .stream().mapToLong(Long::longValue).toArray();
+
+        List<Long> addons = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                ServiceAddon addon = new ServiceAddon();
+                addon.setService(entityManager.getReference(Service.class, serviceId));
+                addon.setName("Add-on " + i);
+                addon.setPrice(BigDecimal.valueOf(5 + i));
+                entityManager.persist(addon);
+                entityManager.flush();
+                addons.add(addon.getId());
+            }
+        });
+        addonIds = addons.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insertBookingsWithAddons() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Service service = entityManager.getReference(Service.class, serviceId);
+            ServiceAddon[] addons = new ServiceAddon[addonIds.length];
+            for (int i = 0; i < addons.length; i++) {
+                addons[i] = entityManager.find(ServiceAddon.class, addonIds[i]);
+            }
+            for (int i = 0; i < bookingsPerTransaction; i++) {
+                long n = cursor++;
+                Booking booking = new Booking();
+                booking.setCustomer(entityManager.getReference(Customer.class, customerIds[(int) (n % customerIds.length)]));
+                booking.setProfessional(entityManager.getReference(Professional.class, professionalIds[(int) (n % professionalIds.length)]));
+                booking.setService(service);
+                booking.setBookingDate(LocalDateTime.of(2030, 1, 1, 8, 0).plusMinutes(30 * n));
+                booking.setStatus(BookingStatus.PENDING);
+                booking.setTotalAmount(BigDecimal.valueOf(100));
+                for (ServiceAddon addon : addons) {
+                    booking.addAddon(addon, 1);
+                }
+                entityManager.persist(booking);
+            }
+        });
+        return bookingsPerTransaction;
+    }
+}
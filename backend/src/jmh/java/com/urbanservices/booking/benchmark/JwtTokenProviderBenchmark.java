@@ -0,0 +1,99 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.security.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification as done by the request filter. {@code verifiedCacheSize = 0} measures the
+ * shared key and parser alone; {@code legacyValidateToken} rebuilds the key and parser on every
+ * call the way the provider used to, as a baseline for both.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark_secret_key_that_is_long_enough_for_hs512_signatures_0123456789";
+
+    @Param({"0", "4096"})
+    public int verifiedCacheSize;
+
+    // Distinct clients sending requests; all fit in the verified-token cache
+    @Param({"64"})
+    public int activeTokens;
+
+    private JwtTokenProvider tokenProvider;
+    private String[] tokens;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86400000);
+        ReflectionTestUtils.setField(tokenProvider, "refreshExpirationDateInMs", 604800000);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", verifiedCacheSize);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheTtlSeconds", 300L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+
+        tokens = new String[activeTokens];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokenProvider.generateToken(Fixtures.customer(i + 1));
+        }
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return tokenProvider.validateToken(nextToken());
+    }
+
+    @Benchmark
+    public String getUsernameFromJWT() {
+        return tokenProvider.getUsernameFromJWT(nextToken());
+    }
+
+    /**
+     * The filter's former sequence: validate, then parse again for the subject.
+     */
+    @Benchmark
+    public String validateThenGetUsername() {
+        String token = nextToken();
+        return tokenProvider.validateToken(token) ? tokenProvider.getUsernameFromJWT(token) : null;
+    }
+
+    @Benchmark
+    public Object parseValidClaims() {
+        return tokenProvider.parseValidClaims(nextToken());
+    }
+
+    @Benchmark
+    public Object legacyValidateToken() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(nextToken());
+    }
+
+    private String nextToken() {
+        cursor = (cursor + 1) % tokens.length;
+        return tokens[cursor];
+    }
+}
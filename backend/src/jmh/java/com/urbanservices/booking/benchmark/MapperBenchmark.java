@@ -0,0 +1,64 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.dto.ProfessionalDto;
+import com.urbanservices.booking.mapper.BookingMapperImpl;
+import com.urbanservices.booking.mapper.ProfessionalMapperImpl;
+import com.urbanservices.booking.model.Address;
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.model.Professional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping done for every booking and professional in a listing response.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapperBenchmark {
+
+    private final BookingMapperImpl bookingMapper = new BookingMapperImpl();
+    private final ProfessionalMapperImpl professionalMapper = new ProfessionalMapperImpl();
+
+    private Booking booking;
+    private Professional professional;
+    private Address address;
+
+    @Setup
+    public void setUp() {
+        professional = Fixtures.professional(1L, 5);
+        booking = Fixtures.booking(1L, professional, Fixtures.service(2L, 3),
+                LocalDate.now().plusDays(1).atTime(10, 0));
+        address = Fixtures.address(7L);
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return bookingMapper.toDto(booking);
+    }
+
+    @Benchmark
+    public ProfessionalDto professionalToDto() {
+        return professionalMapper.toDto(professional);
+    }
+
+    @Benchmark
+    public String addressFullAddress() {
+        return address.getFullAddress();
+    }
+}
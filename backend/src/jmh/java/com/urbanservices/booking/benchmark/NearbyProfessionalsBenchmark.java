@@ -0,0 +1,146 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.location.GeoGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearby-professional searches over professionals spread across a 30 km city, as the seeder
+ * places them, each offering a few of {@value #SERVICES} services. {@code scan} evaluates the
+ * distance to every professional offering the service, which is what the former haversine SQL
+ * did per row; the grid queries only look at the cells around the point.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class NearbyProfessionalsBenchmark {
+
+    private static final int SERVICES = 96;
+    private static final int QUERIES = 1024;
+    private static final double CENTER_LATITUDE = 19.0760;
+    private static final double CENTER_LONGITUDE = 72.8777;
+
+    @Param({"1000", "100000"})
+    public int professionals;
+
+    @Param({"5"})
+    public double radiusKm;
+
+    private GeoGrid grid;
+    private long[][] idsByService;
+    private double[][] latitudesByService;
+    private double[][] longitudesByService;
+    private double[] queryLatitudes;
+    private double[] queryLongitudes;
+    private long[] queryServices;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        GeoGrid.Builder builder = new GeoGrid.Builder(0.05);
+        List<List<double[]>> byService = new ArrayList<>(SERVICES);
+        for (int s = 0; s < SERVICES; s++) {
+            byService.add(new ArrayList<>());
+        }
+        for (int p = 0; p < professionals; p++) {
+            double[] point = randomPoint(random, 30);
+            int offered = 1 + random.nextInt(5);
+            for (int j = 0; j < offered; j++) {
+                int service = random.nextInt(SERVICES);
+                builder.location(p, service, point[0], point[1]);
+                byService.get(service).add(new double[] {p, point[0], point[1]});
+            }
+        }
+        grid = builder.build(1);
+
+        idsByService = new long[SERVICES][];
+        latitudesByService = new double[SERVICES][];
+        longitudesByService = new double[SERVICES][];
+        for (int s = 0; s < SERVICES; s++) {
+            List<double[]> rows = byService.get(s);
+            idsByService[s] = new long[rows.size()];
+            latitudesByService[s] = new double[rows.size()];
+            longitudesByService[s] = new double[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                idsByService[s][i] = (long) rows.get(i)[0];
+                latitudesByService[s][i] = rows.get(i)[1];
+                longitudesByService[s][i] = rows.get(i)[2];
+            }
+        }
+
+        queryLatitudes = new double[QUERIES];
+        queryLongitudes = new double[QUERIES];
+        queryServices = new long[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            double[] point = randomPoint(random, 30);
+            queryLatitudes[q] = point[0];
+            queryLongitudes[q] = point[1];
+            queryServices[q] = random.nextInt(SERVICES);
+        }
+    }
+
+    private static double[] randomPoint(Random random, double radiusKm) {
+        double distanceKm = radiusKm * Math.sqrt(random.nextDouble());
+        double bearing = 2 * Math.PI * random.nextDouble();
+        double latitude = CENTER_LATITUDE + Math.toDegrees(distanceKm * Math.cos(bearing) / 6371.0);
+        double longitude = CENTER_LONGITUDE + Math.toDegrees(distanceKm * Math.sin(bearing) / 6371.0)
+                / Math.cos(Math.toRadians(latitude));
+        return new double[] {latitude, longitude};
+    }
+
+    @Benchmark
+    public List<Long> withinScan() {
+        int q = next++ & (QUERIES - 1);
+        int service = (int) queryServices[q];
+        double lat = queryLatitudes[q];
+        double lon = queryLongitudes[q];
+        long[] ids = idsByService[service];
+        double[] latitudes = latitudesByService[service];
+        double[] longitudes = longitudesByService[service];
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (haversineKm(lat, lon, latitudes[i], longitudes[i]) <= radiusKm) {
+                result.add(ids[i]);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Long> withinGrid() {
+        int q = next++ & (QUERIES - 1);
+        return grid.within(queryServices[q], queryLatitudes[q], queryLongitudes[q], radiusKm);
+    }
+
+    @Benchmark
+    public List<Long> nearestTenGrid() {
+        int q = next++ & (QUERIES - 1);
+        return grid.nearest(queryServices[q], queryLatitudes[q], queryLongitudes[q], 10, 100);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * 6371.0 * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
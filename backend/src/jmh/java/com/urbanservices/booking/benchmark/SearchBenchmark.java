@@ -0,0 +1,90 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.search.TextIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches over professionals with generated names and bios. {@code likeScan} does what the
+ * {@code LOWER(x) LIKE '%q%'} queries do per row, unranked; the index queries rank their
+ * matches, the last one completing a word as it is typed.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Aarav", "Vivaan", "Aditya", "Diya", "Ananya", "Ishaan", "Kabir",
+            "Meera", "Rohan", "Saanvi", "Arjun", "Priya", "Neha", "Rahul", "Kavya", "Vikram"};
+    private static final String[] LAST_NAMES = {"Sharma", "Patel", "Iyer", "Reddy", "Nair", "Gupta", "Khan",
+            "Mehta", "Joshi", "Das", "Rao", "Singh"};
+    private static final String[] SKILLS = {"plumbing", "electrical wiring", "deep cleaning", "pest control",
+            "carpentry", "painting", "appliance repair", "air conditioner servicing", "salon at home", "massage",
+            "water purifier", "kitchen cleaning", "bathroom cleaning", "sofa cleaning", "furniture assembly"};
+    private static final String[] QUERIES = {"plumbing", "deep cleaning", "sharma", "air conditioner", "carpentry",
+            "massage"};
+    private static final String[] TYPED = {"plum", "deep cle", "sharm", "air cond", "carp", "mass"};
+
+    @Param({"1000", "50000"})
+    public int professionals;
+
+    private TextIndex index;
+    private String[] names;
+    private String[] bios;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TextIndex(1);
+        names = new String[professionals];
+        bios = new String[professionals];
+        for (int i = 0; i < professionals; i++) {
+            names[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            bios[i] = (3 + random.nextInt(15)) + " years of experience in " + SKILLS[random.nextInt(SKILLS.length)]
+                    + " and " + SKILLS[random.nextInt(SKILLS.length)] + ", available on weekends";
+            index.put(i, new TextIndex.Fields().add(names[i], 3.0f).add(bios[i], 1.0f));
+        }
+    }
+
+    @Benchmark
+    public List<Long> likeScan() {
+        String query = QUERIES[next++ % QUERIES.length].toLowerCase(Locale.ROOT);
+        List<Long> result = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].toLowerCase(Locale.ROOT).contains(query) || bios[i].toLowerCase(Locale.ROOT).contains(query)) {
+                // The page query stops at 20, but its count query still reads every row
+                result.add((long) i);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public TextIndex.Hits indexSearch() {
+        return index.search(QUERIES[next++ % QUERIES.length], 0, 20);
+    }
+
+    @Benchmark
+    public TextIndex.Hits indexTypeahead() {
+        return index.search(TYPED[next++ % TYPED.length], 0, 20);
+    }
+}
@@ -0,0 +1,153 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.dto.ServiceDto;
+import com.urbanservices.booking.mapper.ServiceMapperImpl;
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.model.Professional;
+import com.urbanservices.booking.model.RatingSummary;
+import com.urbanservices.booking.model.Service;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.ServiceRepository;
+import com.urbanservices.booking.service.impl.ServiceServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of a service listing. {@code entityMapping} is the former per-row mapping, which
+ * initialized each service's bookings and professionals collections to take their sizes;
+ * the collections are hydrated with fresh entities on every call, as a new persistence
+ * context would, which is a lower bound of what Hibernate allocates for them.
+ * {@code groupedCounts} is ServiceServiceImpl's listing path with one grouped count query
+ * each for bookings and professionals. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm}, the bytes allocated per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceListingBenchmark {
+
+    private static final long PROFESSIONAL_ID = 1L;
+    private static final int PAGE_SIZE = 20;
+    private static final int PROFESSIONALS_PER_SERVICE = 25;
+
+    @Param({"50", "500"})
+    public int bookingsPerService;
+
+    private final ServiceMapperImpl serviceMapper = new ServiceMapperImpl();
+
+    private ServiceServiceImpl serviceService;
+    private List<Service> services;
+    private Pageable pageable;
+
+    @Setup
+    public void setUp() {
+        services = new ArrayList<>(PAGE_SIZE);
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            Service service = Fixtures.service(i, 3);
+            service.setRatingSummary(RatingSummary.fromHistogram(new int[] {1, 2, 5, 20, 40}));
+            services.add(service);
+        }
+        pageable = PageRequest.of(0, PAGE_SIZE);
+
+        ServiceRepository serviceRepository = InMemoryRepositories.of(ServiceRepository.class)
+                .answer("findByProfessionalId", args -> new PageImpl<>(services, (Pageable) args[1], services.size()))
+                .answer("countProfessionalsByServiceIds", args -> countRows(args[0], PROFESSIONALS_PER_SERVICE))
+                .build();
+        BookingRepository bookingRepository = InMemoryRepositories.of(BookingRepository.class)
+                .answer("countByServiceIds", args -> countRows(args[0], bookingsPerService))
+                .build();
+
+        // Only the listing path runs, so no catalog, search or cache collaborators
+        serviceService = new ServiceServiceImpl(serviceRepository, null, null, bookingRepository,
+                null, null, null, null, null, serviceMapper);
+    }
+
+    @Benchmark
+    public List<ServiceDto> entityMapping() {
+        List<ServiceDto> dtos = new ArrayList<>(services.size());
+        for (Service service : services) {
+            service.setBookings(loadBookings(service));
+            service.setProfessionals(loadProfessionals(service));
+
+            ServiceDto dto = serviceMapper.toDto(service);
+            dto.setAverageRating(service.getAverageRating());
+            dto.setTotalProfessionals((long) service.getProfessionals().size());
+            dto.setTotalBookings((long) service.getBookings().size());
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<ServiceDto> groupedCounts() {
+        return serviceService.findByProfessionalId(PROFESSIONAL_ID, pageable).getContent();
+    }
+
+    private Set<Booking> loadBookings(Service service) {
+        Set<Booking> bookings = new HashSet<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        for (int i = 0; i < bookingsPerService; i++) {
+            Booking booking = new Booking();
+            booking.setId(service.getId() * 100_000 + i);
+            booking.setService(service);
+            booking.setBookingDate(start.plusHours(i));
+            booking.setEndDate(start.plusHours(i).plusMinutes(service.getDurationInMinutes()));
+            booking.setStatus(BookingStatus.COMPLETED);
+            booking.setTotalAmount(new BigDecimal("1499.00"));
+            booking.setCreatedAt(start.plusHours(i).minusDays(2));
+            booking.setUpdatedAt(start.plusHours(i).minusDays(1));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    private static Set<Professional> loadProfessionals(Service service) {
+        Set<Professional> professionals = new HashSet<>();
+        for (int i = 0; i < PROFESSIONALS_PER_SERVICE; i++) {
+            Professional professional = new Professional();
+            professional.setId(service.getId() * 1_000 + i);
+            professional.setName("Professional " + i);
+            professional.setHourlyRate(450.0);
+            professionals.add(professional);
+        }
+        return professionals;
+    }
+
+    /**
+     * Grouped {@code (service id, count)} rows, built per call as the query result would be.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> countRows(Object serviceIds, long count) {
+        Collection<Long> ids = (Collection<Long>) serviceIds;
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[] {id, count});
+        }
+        return rows;
+    }
+}
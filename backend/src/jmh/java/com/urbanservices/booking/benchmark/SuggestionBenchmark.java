@@ -0,0 +1,93 @@
+package com.urbanservices.booking.benchmark;
+
+import com.urbanservices.booking.search.SuggestionTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completions of keystroke prefixes over generated service and professional names.
+ * {@code scan} checks every name for a word starting with the prefix and sorts the matches,
+ * which is what a per-keystroke query has to do; {@code trie} walks the prefix and copies the
+ * precomputed best list. {@code rebuild} is the cost of rebuilding the suggestions after a
+ * catalog change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SuggestionBenchmark {
+
+    private static final String[] WORDS = {"deep", "cleaning", "bathroom", "kitchen", "sofa", "plumbing", "pipe",
+            "repair", "electrical", "wiring", "painting", "wall", "salon", "spa", "massage", "pest", "control",
+            "carpentry", "ac", "servicing", "aarav", "sharma", "patel", "priya", "rohan", "iyer", "meera", "nair"};
+    private static final String[] PREFIXES = {"c", "cl", "clea", "deep c", "pl", "plumb", "sa", "sal", "sh",
+            "ac s", "pa", "mass"};
+
+    @Param({"500", "5000"})
+    public int names;
+
+    private List<SuggestionTrie.Suggestion> suggestions;
+    private SuggestionTrie trie;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        suggestions = new ArrayList<>(names);
+        for (int i = 0; i < names; i++) {
+            int words = 1 + random.nextInt(3);
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                text.append(w > 0 ? " " : "").append(Character.toUpperCase(word.charAt(0))).append(word.substring(1));
+            }
+            suggestions.add(new SuggestionTrie.Suggestion("SERVICE", i, text.toString(), random.nextInt(1000)));
+        }
+        trie = rebuild();
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> scan() {
+        String prefix = PREFIXES[next++ % PREFIXES.length];
+        List<SuggestionTrie.Suggestion> matches = new ArrayList<>();
+        for (SuggestionTrie.Suggestion suggestion : suggestions) {
+            String text = suggestion.getText().toLowerCase(Locale.ROOT);
+            if (text.startsWith(prefix) || text.contains(" " + prefix)) {
+                matches.add(suggestion);
+            }
+        }
+        matches.sort(SuggestionTrie.BEST_FIRST);
+        return matches.size() > 10 ? matches.subList(0, 10) : matches;
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> trie() {
+        return trie.complete(PREFIXES[next++ % PREFIXES.length], 10);
+    }
+
+    @Benchmark
+    public SuggestionTrie rebuild() {
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(10);
+        for (SuggestionTrie.Suggestion suggestion : suggestions) {
+            builder.add(suggestion);
+        }
+        return builder.build(1);
+    }
+}
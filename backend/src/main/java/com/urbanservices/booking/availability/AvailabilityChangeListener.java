@@ -0,0 +1,32 @@
+package com.urbanservices.booking.availability;
+
+import com.urbanservices.booking.model.Availability;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that evicts the cached schedule of a professional whenever one of their
+ * availabilities is written. The cache is resolved lazily because Hibernate instantiates
+ * listeners while the entity manager factory is still being built.
+ */
+@Component
+public class AvailabilityChangeListener {
+
+    private final ObjectProvider<AvailabilityScheduleCache> scheduleCache;
+
+    public AvailabilityChangeListener(ObjectProvider<AvailabilityScheduleCache> scheduleCache) {
+        this.scheduleCache = scheduleCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onAvailabilityChange(Availability availability) {
+        if (availability.getProfessional() != null) {
+            scheduleCache.getObject().invalidate(availability.getProfessional().getId());
+        }
+    }
+}
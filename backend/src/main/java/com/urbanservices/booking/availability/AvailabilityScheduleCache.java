@@ -0,0 +1,110 @@
+package com.urbanservices.booking.availability;
+
+import com.urbanservices.booking.repository.AvailabilityRepository;
+import com.urbanservices.booking.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of compiled {@link WeeklySchedule}s keyed by professional id.
+ *
+ * Schedules are built from a scalar projection of the availabilities table, so the request path
+ * never touches {@code Professional.availabilities} or triggers lazy loading. Entries are
+ * dropped by {@link AvailabilityChangeListener} whenever an availability is written through this
+ * instance, and expire after the configured max age so writes made elsewhere are picked up as
+ * well. The least recently used entries are evicted past the configured size.
+ */
+@Component
+public class AvailabilityScheduleCache {
+
+    private final AvailabilityRepository availabilityRepository;
+    private final ExpiringLruCache<Long, WeeklySchedule> schedules;
+    private final WeeklySchedule defaultSchedule;
+
+    public AvailabilityScheduleCache(AvailabilityRepository availabilityRepository,
+                                     @Value("${app.booking.default-hours.start:09:00}") String defaultStart,
+                                     @Value("${app.booking.default-hours.end:17:00}") String defaultEnd,
+                                     @Value("${app.booking.schedule-cache.max-size:10000}") int maxSize,
+                                     @Value("${app.booking.schedule-cache.max-age-seconds:300}") long maxAgeSeconds) {
+        this.availabilityRepository = availabilityRepository;
+        this.schedules = new ExpiringLruCache<>(maxSize, maxAgeSeconds * 1000);
+        // Professionals who never configured availabilities keep the historical fixed hours
+        this.defaultSchedule = WeeklySchedule.everyDay(LocalTime.parse(defaultStart), LocalTime.parse(defaultEnd));
+    }
+
+    public WeeklySchedule getSchedule(Long professionalId) {
+        WeeklySchedule schedule = schedules.get(professionalId);
+        if (schedule == null) {
+            schedule = getSchedules(List.of(professionalId)).get(professionalId);
+        }
+        return schedule;
+    }
+
+    /**
+     * Returns the schedule of every given professional, loading all misses with a single query.
+     */
+    public Map<Long, WeeklySchedule> getSchedules(Collection<Long> professionalIds) {
+        Map<Long, WeeklySchedule> result = new HashMap<>(professionalIds.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long professionalId : professionalIds) {
+            WeeklySchedule schedule = schedules.get(professionalId);
+            if (schedule != null) {
+                result.put(professionalId, schedule);
+            } else {
+                missing.add(professionalId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, WeeklySchedule.Builder> builders = new HashMap<>(missing.size() * 2);
+        for (Object[] row : availabilityRepository.findScheduleRows(missing)) {
+            WeeklySchedule.Builder builder = builders.computeIfAbsent((Long) row[0], id -> new WeeklySchedule.Builder());
+            boolean recurring = (Boolean) row[4];
+            if (recurring) {
+                builder.addRecurring((DayOfWeek) row[1], (LocalTime) row[2], (LocalTime) row[3]);
+            } else {
+                builder.addOverride((LocalDate) row[5], (LocalTime) row[2], (LocalTime) row[3]);
+            }
+        }
+
+        for (Long professionalId : missing) {
+            WeeklySchedule.Builder builder = builders.get(professionalId);
+            WeeklySchedule schedule = builder != null ? builder.build() : defaultSchedule;
+            schedules.put(professionalId, schedule);
+            result.put(professionalId, schedule);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the professional's schedule now and again after commit, so a load racing with the
+     * writing transaction cannot keep the old windows.
+     */
+    public void invalidate(Long professionalId) {
+        if (professionalId == null) {
+            return;
+        }
+        schedules.invalidate(professionalId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedules.invalidate(professionalId);
+                }
+            });
+        }
+    }
+}
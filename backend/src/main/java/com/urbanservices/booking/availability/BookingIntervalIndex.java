@@ -0,0 +1,370 @@
+package com.urbanservices.booking.availability;
+
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warm, per-professional index of booked time ranges used to answer slot searches and
+ * availability listings without going through JPA.
+ *
+ * Each professional gets an immutable timeline of epoch-minute ranges sorted by start time,
+ * loaded lazily from the repository on first use and replaced copy-on-write when bookings
+ * change. Only bookings ending after the load horizon are kept; queries reaching before the
+ * horizon fall back to the SQL conflict query.
+ *
+ * The index only sees changes made through this instance, and applies them after commit, so
+ * it may briefly miss bookings; timelines are reloaded once they reach the maximum age.
+ * Bookings are therefore written after {@link #isAvailableInDatabase}, never on the index's
+ * answer alone.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private final BookingRepository bookingRepository;
+    private final ConcurrentMap<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    private final Set<BookingStatus> blockingStatuses = BookingStatus.blockingStatuses();
+
+    @Value("${app.booking.interval-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.booking.interval-index.verify:false}")
+    private boolean verify;
+
+    @Value("${app.booking.interval-index.history-hours:24}")
+    private int historyHours;
+
+    @Value("${app.booking.interval-index.max-age-seconds:60}")
+    private int maxAgeSeconds;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    /**
+     * Returns true if no blocking booking of the professional overlaps [startTime, endTime),
+     * as far as the index knows; for reads only.
+     */
+    public boolean isAvailable(Long professionalId, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+        if (!enabled) {
+            return isAvailableInDatabase(professionalId, startTime, endTime, excludeBookingId);
+        }
+
+        long start = toEpochMinute(startTime);
+        long end = toEpochMinuteCeil(endTime);
+        Timeline timeline = timeline(professionalId);
+
+        if (start < timeline.horizon) {
+            // Older bookings were never loaded, so the index cannot answer this
+            return isAvailableInDatabase(professionalId, startTime, endTime, excludeBookingId);
+        }
+
+        boolean available = timeline.isFree(start, end, excludeBookingId != null ? excludeBookingId : Long.MIN_VALUE);
+
+        if (verify) {
+            boolean expected = isAvailableInDatabase(professionalId, startTime, endTime, excludeBookingId);
+            if (expected != available) {
+                logger.warn("Interval index disagrees with database for professional {} [{} - {}]: index={}, database={}",
+                        professionalId, startTime, endTime, available, expected);
+                timelines.remove(professionalId);
+                return expected;
+            }
+        }
+
+        return available;
+    }
+
+    /**
+     * Passes every blocking booking of the professional that overlaps [from, to) to the consumer,
+     * as minute offsets relative to {@code from}. Offsets may fall outside [0, to - from) for
+     * bookings that straddle the range.
+     */
+    public void forEachBooking(Long professionalId, LocalDateTime from, LocalDateTime to, IntervalConsumer consumer) {
+        long origin = toEpochMinute(from);
+        long end = toEpochMinuteCeil(to);
+
+        if (enabled) {
+            Timeline timeline = timeline(professionalId);
+            if (origin >= timeline.horizon) {
+                for (int i = timeline.countStartingBefore(end) - 1; i >= 0 && timeline.maxEnds[i] > origin; i--) {
+                    if (timeline.ends[i] > origin) {
+                        consumer.accept(timeline.starts[i] - origin, timeline.ends[i] - origin);
+                    }
+                }
+                return;
+            }
+        }
+
+        for (Object[] row : bookingRepository.findBookingIntervalsBetween(professionalId, from, to, blockingStatuses)) {
+            consumer.accept(toEpochMinute((LocalDateTime) row[1]) - origin,
+                    toEpochMinuteCeil((LocalDateTime) row[2]) - origin);
+        }
+    }
+
+    /**
+     * Adds or moves a booking in the professional's timeline once the surrounding transaction commits.
+     */
+    public void recordBooking(Long professionalId, Long bookingId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (professionalId == null || bookingId == null || startTime == null || endTime == null) {
+            invalidate(professionalId);
+            return;
+        }
+        long start = toEpochMinute(startTime);
+        long end = toEpochMinuteCeil(endTime);
+        afterCommit(() -> timelines.computeIfPresent(professionalId,
+                (id, timeline) -> timeline.with(bookingId, start, end)));
+    }
+
+    /**
+     * Removes a booking that no longer blocks its slot once the surrounding transaction commits.
+     */
+    public void removeBooking(Long professionalId, Long bookingId) {
+        if (professionalId == null || bookingId == null) {
+            return;
+        }
+        afterCommit(() -> timelines.computeIfPresent(professionalId,
+                (id, timeline) -> timeline.without(bookingId)));
+    }
+
+    /**
+     * Drops the professional's timeline now and again after commit, so a load racing with the
+     * transaction cannot keep pre-commit state.
+     */
+    public void invalidate(Long professionalId) {
+        if (professionalId != null) {
+            timelines.remove(professionalId);
+            afterCommit(() -> timelines.remove(professionalId));
+        }
+    }
+
+    /**
+     * Authoritative check against the database for the write path: returns true if no committed
+     * blocking booking of the professional overlaps [startTime, endTime). A conflict the index
+     * may not know about also drops the professional's timeline.
+     */
+    public boolean isAvailableInDatabase(Long professionalId, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+        List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(
+                professionalId, startTime, endTime, blockingStatuses);
+
+        if (excludeBookingId != null) {
+            conflictingBookings.removeIf(booking -> booking.getId().equals(excludeBookingId));
+        }
+
+        if (!conflictingBookings.isEmpty()) {
+            timelines.remove(professionalId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Drops every timeline so history past the horizon is released and any drift is repaired
+     * on the next lazy load.
+     */
+    @Scheduled(cron = "${app.booking.interval-index.rebuild-cron:0 30 3 * * ?}")
+    public void invalidateAll() {
+        timelines.clear();
+    }
+
+    private Timeline timeline(Long professionalId) {
+        // The load runs under the map's bin lock, so a commit racing with the load waits and
+        // applies its change on top of the freshly loaded timeline.
+        Timeline timeline = timelines.computeIfAbsent(professionalId, this::load);
+        if (System.nanoTime() - timeline.loadedAt <= TimeUnit.SECONDS.toNanos(maxAgeSeconds)) {
+            return timeline;
+        }
+        // Picks up bookings written by other instances; concurrent callers reload once
+        return timelines.compute(professionalId, (id, current) ->
+                current == null || current.loadedAt == timeline.loadedAt ? load(id) : current);
+    }
+
+    private Timeline load(Long professionalId) {
+        LocalDateTime from = LocalDateTime.now().minusHours(historyHours);
+        List<Object[]> rows = bookingRepository.findBookingIntervals(professionalId, from, blockingStatuses);
+
+        long[] ids = new long[rows.size()];
+        long[] starts = new long[rows.size()];
+        long[] ends = new long[rows.size()];
+        int size = 0;
+        for (Object[] row : rows) {
+            if (row[1] == null || row[2] == null) {
+                continue; // Bookings without an end never conflict in the SQL query either
+            }
+            ids[size] = (Long) row[0];
+            starts[size] = toEpochMinute((LocalDateTime) row[1]);
+            ends[size] = toEpochMinuteCeil((LocalDateTime) row[2]);
+            size++;
+        }
+        return Timeline.sorted(toEpochMinute(from), System.nanoTime(), Arrays.copyOf(ids, size),
+                Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static long toEpochMinuteCeil(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC) + 59, 60);
+    }
+
+    /**
+     * Receives a booked range as [startMinute, endMinute).
+     */
+    @FunctionalInterface
+    public interface IntervalConsumer {
+        void accept(long startMinute, long endMinute);
+    }
+
+    /**
+     * Immutable booking ranges of one professional, sorted by start minute. {@code maxEnds[i]}
+     * holds the largest end among the first i + 1 ranges, which bounds the backwards scan of an
+     * overlap query.
+     */
+    static final class Timeline {
+        final long horizon;
+        final long loadedAt;
+        final long[] ids;
+        final long[] starts;
+        final long[] ends;
+        final long[] maxEnds;
+
+        private Timeline(long horizon, long loadedAt, long[] ids, long[] starts, long[] ends) {
+            this.horizon = horizon;
+            this.loadedAt = loadedAt;
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static Timeline sorted(long horizon, long loadedAt, long[] ids, long[] starts, long[] ends) {
+            for (int i = 1; i < starts.length; i++) {
+                if (starts[i] < starts[i - 1]) {
+                    return sort(horizon, loadedAt, ids, starts, ends);
+                }
+            }
+            return new Timeline(horizon, loadedAt, ids, starts, ends);
+        }
+
+        private static Timeline sort(long horizon, long loadedAt, long[] ids, long[] starts, long[] ends) {
+            Integer[] order = new Integer[starts.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(starts[a], starts[b]));
+            long[] sortedIds = new long[ids.length];
+            long[] sortedStarts = new long[starts.length];
+            long[] sortedEnds = new long[ends.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedIds[i] = ids[order[i]];
+                sortedStarts[i] = starts[order[i]];
+                sortedEnds[i] = ends[order[i]];
+            }
+            return new Timeline(horizon, loadedAt, sortedIds, sortedStarts, sortedEnds);
+        }
+
+        boolean isFree(long start, long end, long excludeId) {
+            for (int i = countStartingBefore(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && ids[i] != excludeId) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Number of ranges whose start lies before the given minute.
+         */
+        int countStartingBefore(long minute) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < minute) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        Timeline with(long id, long start, long end) {
+            Timeline base = without(id);
+            int position = base.countStartingBefore(start);
+            int size = base.ids.length;
+            long[] newIds = new long[size + 1];
+            long[] newStarts = new long[size + 1];
+            long[] newEnds = new long[size + 1];
+
+            System.arraycopy(base.ids, 0, newIds, 0, position);
+            System.arraycopy(base.starts, 0, newStarts, 0, position);
+            System.arraycopy(base.ends, 0, newEnds, 0, position);
+            newIds[position] = id;
+            newStarts[position] = start;
+            newEnds[position] = end;
+            System.arraycopy(base.ids, position, newIds, position + 1, size - position);
+            System.arraycopy(base.starts, position, newStarts, position + 1, size - position);
+            System.arraycopy(base.ends, position, newEnds, position + 1, size - position);
+
+            return new Timeline(horizon, loadedAt, newIds, newStarts, newEnds);
+        }
+
+        Timeline without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int size = ids.length - 1;
+                    long[] newIds = new long[size];
+                    long[] newStarts = new long[size];
+                    long[] newEnds = new long[size];
+
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(ids, i + 1, newIds, i, size - i);
+                    System.arraycopy(starts, i + 1, newStarts, i, size - i);
+                    System.arraycopy(ends, i + 1, newEnds, i, size - i);
+
+                    return new Timeline(horizon, loadedAt, newIds, newStarts, newEnds);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.urbanservices.booking.availability;
+
+import java.util.Arrays;
+
+/**
+ * One professional's day as a bitset of fixed-size minute buckets, where a set bit means the
+ * bucket is inside working hours and not booked.
+ *
+ * Feasible start times for a duration are computed with word-level shift/AND passes over the
+ * bitset (log2 of the bucket count passes), so no objects are created per candidate slot.
+ * Instances are mutable and not thread-safe; batch callers are expected to {@link #reset()} and
+ * reuse one bitmap per professional.
+ */
+public final class DaySlotBitmap {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final int granularityMinutes;
+    private final int bucketCount;
+    private final int wordCount;
+    private final long[] free;
+    private final long[] scratch;
+
+    public DaySlotBitmap(int granularityMinutes) {
+        if (granularityMinutes <= 0 || granularityMinutes > MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("Granularity must be between 1 and " + MINUTES_PER_DAY + " minutes");
+        }
+        this.granularityMinutes = granularityMinutes;
+        this.bucketCount = (MINUTES_PER_DAY + granularityMinutes - 1) / granularityMinutes;
+        this.wordCount = (bucketCount + 63) >>> 6;
+        this.free = new long[wordCount];
+        this.scratch = new long[wordCount];
+    }
+
+    public int getGranularityMinutes() {
+        return granularityMinutes;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Marks the whole day as unavailable.
+     */
+    public void reset() {
+        Arrays.fill(free, 0L);
+    }
+
+    /**
+     * Opens the working window [fromMinute, toMinute) of the day. Only buckets lying entirely
+     * inside the window are opened.
+     */
+    public void open(int fromMinute, int toMinute) {
+        int from = ceilDiv(Math.max(fromMinute, 0), granularityMinutes);
+        int to = Math.min(Math.min(toMinute, MINUTES_PER_DAY) / granularityMinutes, bucketCount);
+        setRange(from, to, true);
+    }
+
+    /**
+     * Blocks [fromMinute, toMinute) of the day, e.g. an existing booking. Every bucket touched by
+     * the range is blocked; minutes outside the day are ignored.
+     */
+    public void block(long fromMinute, long toMinute) {
+        if (toMinute <= 0 || fromMinute >= MINUTES_PER_DAY) {
+            return;
+        }
+        int from = (int) Math.max(fromMinute, 0) / granularityMinutes;
+        int to = Math.min(ceilDiv((int) Math.min(toMinute, MINUTES_PER_DAY), granularityMinutes), bucketCount);
+        setRange(from, to, false);
+    }
+
+    /**
+     * Writes the minute-of-day of every start at which {@code durationMinutes} fit without
+     * touching a blocked bucket into {@code startMinutes}, in ascending order. Starts are aligned
+     * to multiples of {@code stepMinutes} from midnight.
+     *
+     * @param startMinutes output buffer, at least {@link #getBucketCount()} long
+     * @return the number of starts written
+     */
+    public int feasibleStarts(int durationMinutes, int stepMinutes, int[] startMinutes) {
+        if (durationMinutes <= 0 || stepMinutes <= 0) {
+            throw new IllegalArgumentException("Duration and step must be positive");
+        }
+        if (stepMinutes % granularityMinutes != 0) {
+            throw new IllegalArgumentException("Step of " + stepMinutes + " minutes is not a multiple of the "
+                    + granularityMinutes + " minute granularity");
+        }
+
+        int needed = ceilDiv(durationMinutes, granularityMinutes);
+        if (needed > bucketCount) {
+            return 0;
+        }
+
+        // After each pass bit i means buckets i .. i + covered - 1 are all free
+        System.arraycopy(free, 0, scratch, 0, wordCount);
+        int covered = 1;
+        while (covered < needed) {
+            int shift = Math.min(covered, needed - covered);
+            andShifted(scratch, shift);
+            covered += shift;
+        }
+
+        int stride = stepMinutes / granularityMinutes;
+        int count = 0;
+        int bucket = nextSetBit(scratch, 0);
+        while (bucket >= 0) {
+            int remainder = bucket % stride;
+            if (remainder != 0) {
+                bucket = nextSetBit(scratch, bucket + stride - remainder);
+                continue;
+            }
+            startMinutes[count++] = bucket * granularityMinutes;
+            bucket = nextSetBit(scratch, bucket + stride);
+        }
+        return count;
+    }
+
+    private void setRange(int fromBucket, int toBucket, boolean value) {
+        for (int bucket = fromBucket; bucket < toBucket; ) {
+            int word = bucket >>> 6;
+            int end = Math.min(toBucket, (word + 1) << 6);
+            long mask = rangeMask(bucket & 63, end - (word << 6));
+            if (value) {
+                free[word] |= mask;
+            } else {
+                free[word] &= ~mask;
+            }
+            bucket = end;
+        }
+    }
+
+    /**
+     * Mask with bits [from, to) set, where 0 <= from < to <= 64.
+     */
+    private static long rangeMask(int from, int to) {
+        long upper = to == 64 ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+
+    /**
+     * bits[i] &= bits[i + shift] for every bit, treating bits past the end as zero. Each word
+     * only reads words at or after its own index, so the update can run in place.
+     */
+    private void andShifted(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int i = 0; i < wordCount; i++) {
+            int source = i + wordShift;
+            long low = source < wordCount ? bits[source] : 0L;
+            long shifted;
+            if (bitShift == 0) {
+                shifted = low;
+            } else {
+                long high = source + 1 < wordCount ? bits[source + 1] : 0L;
+                shifted = (low >>> bitShift) | (high << (64 - bitShift));
+            }
+            bits[i] &= shifted;
+        }
+    }
+
+    private int nextSetBit(long[] bits, int fromBucket) {
+        if (fromBucket >= bucketCount) {
+            return -1;
+        }
+        int word = fromBucket >>> 6;
+        long current = bits[word] & (-1L << (fromBucket & 63));
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word >= wordCount) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+
+    private static int ceilDiv(int value, int divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+}
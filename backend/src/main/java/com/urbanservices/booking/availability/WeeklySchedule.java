@@ -0,0 +1,132 @@
+package com.urbanservices.booking.availability;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled working hours of one professional.
+ *
+ * Recurring {@code Availability} windows are merged per day of week into sorted,
+ * non-overlapping minute ranges stored as flat {@code [start, end, start, end, ...]} arrays.
+ * One-time entries for a specific date replace the recurring windows of that date; an
+ * override whose start equals its end therefore marks the whole day as off.
+ */
+public final class WeeklySchedule {
+
+    private static final int[] NO_WINDOWS = new int[0];
+
+    private final int[][] recurring;
+    private final Map<LocalDate, int[]> overrides;
+
+    private WeeklySchedule(int[][] recurring, Map<LocalDate, int[]> overrides) {
+        this.recurring = recurring;
+        this.overrides = overrides;
+    }
+
+    /**
+     * The same window on every day of the week, used for professionals without availabilities.
+     */
+    public static WeeklySchedule everyDay(LocalTime start, LocalTime end) {
+        Builder builder = new Builder();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            builder.addRecurring(day, start, end);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Flat {@code [start, end, ...]} minute-of-day ranges the professional works on the date.
+     * The returned array must not be modified.
+     */
+    public int[] windowsFor(LocalDate date) {
+        int[] override = overrides.get(date);
+        return override != null ? override : recurring[date.getDayOfWeek().getValue() - 1];
+    }
+
+    /**
+     * Same semantics as {@code Availability.isAvailable}: both window bounds are inclusive.
+     */
+    public boolean isAvailable(LocalDateTime dateTime) {
+        int[] windows = windowsFor(dateTime.toLocalDate());
+        int minute = dateTime.toLocalTime().toSecondOfDay() / 60;
+        boolean onMinute = dateTime.toLocalTime().toSecondOfDay() % 60 == 0 && dateTime.getNano() == 0;
+        for (int i = 0; i < windows.length; i += 2) {
+            if (minute >= windows[i] && (minute < windows[i + 1] || (minute == windows[i + 1] && onMinute))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static final class Builder {
+
+        private final List<List<int[]>> recurring = new ArrayList<>(7);
+        private final Map<LocalDate, List<int[]>> overrides = new HashMap<>();
+
+        public Builder() {
+            for (int i = 0; i < 7; i++) {
+                recurring.add(new ArrayList<>());
+            }
+        }
+
+        public Builder addRecurring(DayOfWeek day, LocalTime start, LocalTime end) {
+            if (day != null && start != null && end != null) {
+                recurring.get(day.getValue() - 1).add(toRange(start, end));
+            }
+            return this;
+        }
+
+        public Builder addOverride(LocalDate date, LocalTime start, LocalTime end) {
+            if (date != null && start != null && end != null) {
+                overrides.computeIfAbsent(date, d -> new ArrayList<>()).add(toRange(start, end));
+            }
+            return this;
+        }
+
+        public WeeklySchedule build() {
+            int[][] compiledRecurring = new int[7][];
+            for (int i = 0; i < 7; i++) {
+                compiledRecurring[i] = merge(recurring.get(i));
+            }
+            Map<LocalDate, int[]> compiledOverrides = new HashMap<>(overrides.size() * 2);
+            overrides.forEach((date, ranges) -> compiledOverrides.put(date, merge(ranges)));
+            return new WeeklySchedule(compiledRecurring, Collections.unmodifiableMap(compiledOverrides));
+        }
+
+        private static int[] toRange(LocalTime start, LocalTime end) {
+            int from = start.toSecondOfDay() / 60;
+            int to = (end.toSecondOfDay() + 59) / 60;
+            // A window ending at or before its start runs to midnight
+            return new int[] {from, to > from || start.equals(end) ? to : DaySlotBitmap.MINUTES_PER_DAY};
+        }
+
+        private static int[] merge(List<int[]> ranges) {
+            if (ranges.isEmpty()) {
+                return NO_WINDOWS;
+            }
+            ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+            int[] merged = new int[ranges.size() * 2];
+            int size = 0;
+            for (int[] range : ranges) {
+                if (range[1] <= range[0]) {
+                    continue; // Empty window, only meaningful as a day-off override
+                }
+                if (size > 0 && range[0] <= merged[size - 1]) {
+                    merged[size - 1] = Math.max(merged[size - 1], range[1]);
+                } else {
+                    merged[size++] = range[0];
+                    merged[size++] = range[1];
+                }
+            }
+            return size == 0 ? NO_WINDOWS : Arrays.copyOf(merged, size);
+        }
+    }
+}
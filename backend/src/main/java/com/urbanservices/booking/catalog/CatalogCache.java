@@ -0,0 +1,176 @@
+package com.urbanservices.booking.catalog;
+
+import com.urbanservices.booking.repository.ServiceCategoryRepository;
+import com.urbanservices.booking.repository.ServiceRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CatalogSnapshot}, so catalog listings and booking pricing read
+ * services, categories and add-ons from memory instead of loading entities.
+ *
+ * The snapshot is loaded on first use and replaced as a whole: after commit when the catalog is
+ * changed through the services, and every refresh interval to pick up changes made outside the
+ * application. Readers always see one complete snapshot; a replacement only becomes visible once
+ * it is fully built.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final ServiceRepository serviceRepository;
+    private final ServiceCategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final Timer refreshTimer;
+    private long lastVersion;
+
+    @Value("${app.catalog.miss-refresh-interval-ms:10000}")
+    private long missRefreshIntervalMs;
+
+    public CatalogCache(ServiceRepository serviceRepository,
+                        ServiceCategoryRepository categoryRepository,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
+        this.serviceRepository = serviceRepository;
+        this.categoryRepository = categoryRepository;
+        // A consistent read of all three tables, also when refreshing after another commit
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTimer = Timer.builder("catalog.refresh")
+                .description("Time spent loading the catalog snapshot from the database")
+                .register(meterRegistry);
+        Gauge.builder("catalog.version", current, reference -> reference.get() != null ? reference.get().getVersion() : 0)
+                .description("Version of the catalog snapshot being served")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The current snapshot, loading it on first use.
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : refresh();
+    }
+
+    /**
+     * The service with the given id, or null if there is none. A miss reloads a snapshot older
+     * than the miss refresh interval, so services created through another instance can be booked
+     * before the next periodic refresh.
+     */
+    public CatalogSnapshot.ServiceEntry service(Long id) {
+        if (id == null) {
+            return null;
+        }
+        CatalogSnapshot snapshot = snapshot();
+        CatalogSnapshot.ServiceEntry service = snapshot.service(id);
+        if (service == null && isOlderThan(snapshot, missRefreshIntervalMs)) {
+            service = refreshIfOlderThan(missRefreshIntervalMs).service(id);
+        }
+        return service;
+    }
+
+    /**
+     * The add-on with the given id, or null if there is none; a miss reloads old snapshots as
+     * {@link #service(Long)} does.
+     */
+    public CatalogSnapshot.Addon addon(Long id) {
+        if (id == null) {
+            return null;
+        }
+        CatalogSnapshot snapshot = snapshot();
+        CatalogSnapshot.Addon addon = snapshot.addon(id);
+        if (addon == null && isOlderThan(snapshot, missRefreshIntervalMs)) {
+            addon = refreshIfOlderThan(missRefreshIntervalMs).addon(id);
+        }
+        return addon;
+    }
+
+    /**
+     * Replaces the snapshot once the current transaction commits, or right away outside one.
+     */
+    public void catalogChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshQuietly();
+                }
+            });
+        } else {
+            refreshQuietly();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval-ms:300000}",
+            initialDelayString = "${app.catalog.refresh-interval-ms:300000}")
+    public void refreshPeriodically() {
+        if (current.get() != null) {
+            refreshQuietly();
+        }
+    }
+
+    /**
+     * Loads a new snapshot and publishes it. Refreshes are serialized, so a snapshot built from
+     * older data never replaces a newer one.
+     */
+    public synchronized CatalogSnapshot refresh() {
+        long version = lastVersion + 1;
+        CatalogSnapshot snapshot = refreshTimer.record(() -> transactionTemplate.execute(status -> load(version)));
+        lastVersion = version;
+        current.set(snapshot);
+        logger.debug("Loaded catalog snapshot version {} with {} services", version, snapshot.serviceCount());
+        return snapshot;
+    }
+
+    private synchronized CatalogSnapshot refreshIfOlderThan(long millis) {
+        // Threads that missed together reload once
+        CatalogSnapshot snapshot = current.get();
+        return snapshot != null && !isOlderThan(snapshot, millis) ? snapshot : refresh();
+    }
+
+    private static boolean isOlderThan(CatalogSnapshot snapshot, long millis) {
+        return System.currentTimeMillis() - snapshot.getLoadedAtMillis() > millis;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // The previous snapshot stays in place until the next refresh succeeds
+            logger.error("Failed to refresh the catalog snapshot", e);
+        }
+    }
+
+    private CatalogSnapshot load(long version) {
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+        for (Object[] row : categoryRepository.findCatalogRows()) {
+            builder.category((Long) row[0], (String) row[1], (String) row[2], (String) row[3], (Boolean) row[4]);
+        }
+        for (Object[] row : serviceRepository.findCatalogRows()) {
+            builder.service((Long) row[0], (String) row[1], (String) row[2], (Long) row[3], (BigDecimal) row[4],
+                    (Integer) row[5], (String) row[6], (Boolean) row[7]);
+        }
+        for (Object[] row : serviceRepository.findCatalogAddonRows()) {
+            builder.addon((Long) row[0], (Long) row[1], (String) row[2], (String) row[3], (BigDecimal) row[4],
+                    (Integer) row[5], (Boolean) row[6]);
+        }
+        return builder.build(version);
+    }
+}
@@ -0,0 +1,384 @@
+package com.urbanservices.booking.catalog;
+
+import com.urbanservices.booking.model.ServiceAddon;
+import com.urbanservices.booking.util.LongHashMap;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable copy of the service catalog: categories, services and their add-ons with prices and
+ * durations, keyed by primitive id. A snapshot is built completely before it is published and
+ * never changes afterwards, so it can be read by any number of threads without locking; changes
+ * produce a new snapshot with a higher version.
+ */
+public final class CatalogSnapshot {
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final long version;
+    private final long loadedAtMillis;
+    private final LongHashMap<Category> categories;
+    private final LongHashMap<ServiceEntry> services;
+    private final LongHashMap<Addon> addons;
+    private final long[] activeServiceIds;
+    private final LongHashMap<long[]> activeServiceIdsByCategory;
+
+    private CatalogSnapshot(long version, long loadedAtMillis, LongHashMap<Category> categories,
+                            LongHashMap<ServiceEntry> services, LongHashMap<Addon> addons,
+                            long[] activeServiceIds, LongHashMap<long[]> activeServiceIdsByCategory) {
+        this.version = version;
+        this.loadedAtMillis = loadedAtMillis;
+        this.categories = categories;
+        this.services = services;
+        this.addons = addons;
+        this.activeServiceIds = activeServiceIds;
+        this.activeServiceIdsByCategory = activeServiceIdsByCategory;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    public int serviceCount() {
+        return services.size();
+    }
+
+    public Category category(long id) {
+        return categories.get(id);
+    }
+
+    public ServiceEntry service(long id) {
+        return services.get(id);
+    }
+
+    public Addon addon(long id) {
+        return addons.get(id);
+    }
+
+    /**
+     * Visits every category, active or not, in no particular order.
+     */
+    public void forEachCategory(Consumer<Category> action) {
+        categories.forEach((id, category) -> action.accept(category));
+    }
+
+    /**
+     * Visits every service, active or not, in no particular order.
+     */
+    public void forEachService(Consumer<ServiceEntry> action) {
+        services.forEach((id, service) -> action.accept(service));
+    }
+
+    /**
+     * Visits every add-on, active or not, in no particular order.
+     */
+    public void forEachAddon(Consumer<Addon> action) {
+        addons.forEach((id, addon) -> action.accept(addon));
+    }
+
+    /**
+     * Active services in id order, from {@code offset}; at most {@code limit} entries.
+     */
+    public List<ServiceEntry> activeServices(int offset, int limit) {
+        return slice(activeServiceIds, offset, limit);
+    }
+
+    public int activeServiceCount() {
+        return activeServiceIds.length;
+    }
+
+    /**
+     * Active services of one category in id order, from {@code offset}; at most {@code limit} entries.
+     */
+    public List<ServiceEntry> activeServicesInCategory(long categoryId, int offset, int limit) {
+        return slice(activeServiceIdsInCategory(categoryId), offset, limit);
+    }
+
+    public int activeServiceCountInCategory(long categoryId) {
+        return activeServiceIdsInCategory(categoryId).length;
+    }
+
+    private long[] activeServiceIdsInCategory(long categoryId) {
+        long[] ids = activeServiceIdsByCategory.get(categoryId);
+        return ids != null ? ids : NO_IDS;
+    }
+
+    private List<ServiceEntry> slice(long[] ids, int offset, int limit) {
+        if (offset >= ids.length || limit <= 0) {
+            return Collections.emptyList();
+        }
+        int end = (int) Math.min(ids.length, (long) offset + limit);
+        List<ServiceEntry> result = new ArrayList<>(end - offset);
+        for (int i = offset; i < end; i++) {
+            result.add(services.get(ids[i]));
+        }
+        return result;
+    }
+
+    public static final class Category {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final String imageUrl;
+        private final boolean active;
+
+        Category(long id, String name, String description, String imageUrl, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.imageUrl = imageUrl;
+            this.active = active;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+    }
+
+    public static final class ServiceEntry {
+        private final long id;
+        private final String name;
+        private final String description;
+        private final long categoryId;
+        private final String categoryName;
+        private final BigDecimal basePrice;
+        private final int durationInMinutes;
+        private final String imageUrl;
+        private final boolean active;
+        private final long[] addonIds;
+
+        ServiceEntry(long id, String name, String description, long categoryId, String categoryName,
+                     BigDecimal basePrice, int durationInMinutes, String imageUrl, boolean active, long[] addonIds) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.basePrice = basePrice;
+            this.durationInMinutes = durationInMinutes;
+            this.imageUrl = imageUrl;
+            this.active = active;
+            this.addonIds = addonIds;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getCategoryId() {
+            return categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public BigDecimal getBasePrice() {
+            return basePrice;
+        }
+
+        public int getDurationInMinutes() {
+            return durationInMinutes;
+        }
+
+        public String getImageUrl() {
+            return imageUrl;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Whether the add-on belongs to this service.
+         */
+        public boolean offersAddon(long addonId) {
+            return Arrays.binarySearch(addonIds, addonId) >= 0;
+        }
+    }
+
+    public static final class Addon {
+        private final long id;
+        private final long serviceId;
+        private final String name;
+        private final String description;
+        private final BigDecimal price;
+        private final int durationInMinutes;
+        private final boolean active;
+
+        Addon(long id, long serviceId, String name, String description, BigDecimal price,
+              int durationInMinutes, boolean active) {
+            this.id = id;
+            this.serviceId = serviceId;
+            this.name = name;
+            this.description = description;
+            this.price = price;
+            this.durationInMinutes = durationInMinutes;
+            this.active = active;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getServiceId() {
+            return serviceId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public int getDurationInMinutes() {
+            return durationInMinutes;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        /**
+         * Detached add-on carrying this entry's id and catalog values, for referencing the add-on
+         * from a new booking without loading it.
+         */
+        public ServiceAddon toReference() {
+            ServiceAddon addon = new ServiceAddon();
+            addon.setId(id);
+            addon.setName(name);
+            addon.setDescription(description);
+            addon.setPrice(price);
+            addon.setDurationInMinutes(durationInMinutes);
+            addon.setActive(active);
+            return addon;
+        }
+    }
+
+    /**
+     * Collects catalog rows and builds the snapshot; rows may arrive in any order.
+     */
+    static final class Builder {
+        private final List<Category> categories = new ArrayList<>();
+        private final List<Object[]> serviceRows = new ArrayList<>();
+        private final List<Addon> addons = new ArrayList<>();
+
+        Builder category(long id, String name, String description, String imageUrl, boolean active) {
+            categories.add(new Category(id, name, description, imageUrl, active));
+            return this;
+        }
+
+        Builder service(long id, String name, String description, long categoryId, BigDecimal basePrice,
+                        Integer durationInMinutes, String imageUrl, boolean active) {
+            serviceRows.add(new Object[]{id, name, description, categoryId, basePrice,
+                    durationInMinutes != null ? durationInMinutes : 60, imageUrl, active});
+            return this;
+        }
+
+        Builder addon(long id, long serviceId, String name, String description, BigDecimal price,
+                      Integer durationInMinutes, boolean active) {
+            addons.add(new Addon(id, serviceId, name, description, price,
+                    durationInMinutes != null ? durationInMinutes : 0, active));
+            return this;
+        }
+
+        CatalogSnapshot build(long version) {
+            LongHashMap<Category> categoriesById = new LongHashMap<>(categories.size());
+            for (Category category : categories) {
+                categoriesById.put(category.id, category);
+            }
+
+            LongHashMap<Addon> addonsById = new LongHashMap<>(addons.size());
+            LongHashMap<List<Long>> addonIdsByService = new LongHashMap<>(serviceRows.size());
+            for (Addon addon : addons) {
+                addonsById.put(addon.id, addon);
+                group(addonIdsByService, addon.serviceId).add(addon.id);
+            }
+
+            // Id order keeps paging stable between snapshots
+            serviceRows.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+            LongHashMap<ServiceEntry> servicesById = new LongHashMap<>(serviceRows.size());
+            List<Long> active = new ArrayList<>(serviceRows.size());
+            LongHashMap<List<Long>> activeByCategory = new LongHashMap<>(categories.size());
+            for (Object[] row : serviceRows) {
+                long id = (Long) row[0];
+                long categoryId = (Long) row[3];
+                long[] addonIds = toSortedArray(addonIdsByService.get(id));
+                Category category = categoriesById.get(categoryId);
+                ServiceEntry service = new ServiceEntry(id, (String) row[1], (String) row[2], categoryId,
+                        category != null ? category.name : null, (BigDecimal) row[4], (Integer) row[5],
+                        (String) row[6], (Boolean) row[7], addonIds);
+                servicesById.put(id, service);
+                if (service.active) {
+                    active.add(id);
+                    group(activeByCategory, categoryId).add(id);
+                }
+            }
+
+            LongHashMap<long[]> activeIdsByCategory = new LongHashMap<>(activeByCategory.size());
+            activeByCategory.forEach((categoryId, ids) -> activeIdsByCategory.put(categoryId, toSortedArray(ids)));
+            return new CatalogSnapshot(version, System.currentTimeMillis(), categoriesById, servicesById,
+                    addonsById, toSortedArray(active), activeIdsByCategory);
+        }
+
+        private static List<Long> group(LongHashMap<List<Long>> groups, long key) {
+            List<Long> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(key, group);
+            }
+            return group;
+        }
+
+        private static long[] toSortedArray(List<Long> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return NO_IDS;
+            }
+            long[] array = new long[ids.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = ids.get(i);
+            }
+            Arrays.sort(array);
+            return array;
+        }
+    }
+}
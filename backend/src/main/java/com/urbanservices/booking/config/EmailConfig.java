@@ -1,32 +1,92 @@
 package com.urbanservices.booking.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Properties;
 
 @Configuration
+@EnableConfigurationProperties(MailProperties.class)
 public class EmailConfig {
 
+    /**
+     * Mail sender configured from the spring.mail.* properties. Protocol tracing (mail.debug)
+     * writes every SMTP exchange, message bodies included, to stdout, so it is off unless
+     * app.mail.debug is set.
+     */
     @Bean
-    public JavaMailSender javaMailSender() {
+    public JavaMailSender javaMailSender(MailProperties mailProperties,
+                                         @Value("${app.mail.debug:false}") boolean debug) {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
-        mailSender.setUsername("your-email@gmail.com");
-        mailSender.setPassword("your-app-specific-password");
+        mailSender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            mailSender.setPort(mailProperties.getPort());
+        }
+        mailSender.setUsername(mailProperties.getUsername());
+        mailSender.setPassword(mailProperties.getPassword());
+        mailSender.setProtocol(mailProperties.getProtocol());
+        if (mailProperties.getDefaultEncoding() != null) {
+            mailSender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+        }
 
         Properties props = mailSender.getJavaMailProperties();
-        props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
-        props.put("mail.smtp.connectiontimeout", 5000);
-        props.put("mail.smtp.timeout", 3000);
-        props.put("mail.smtp.writetimeout", 5000);
+        props.put("mail.transport.protocol", mailProperties.getProtocol());
+        props.put("mail.smtp.connectiontimeout", "5000");
+        props.put("mail.smtp.timeout", "3000");
+        props.put("mail.smtp.writetimeout", "5000");
+        props.putAll(mailProperties.getProperties());
+        props.put("mail.debug", String.valueOf(debug));
 
         return mailSender;
     }
+
+    /**
+     * Bounded pool for sending mail: the outbox dispatcher runs one SMTP connection per task, and
+     * the {@code @Async("mailExecutor")} helpers of EmailServiceImpl run here too. When the queue
+     * is full the submitting thread sends the mail itself, which slows the producer down instead
+     * of dropping mail; every such rejection is counted.
+     */
+    @Bean(name = "mailExecutor")
+    public ThreadPoolTaskExecutor mailExecutor(MeterRegistry meterRegistry,
+                                               @Value("${app.mail.executor.core-size:2}") int coreSize,
+                                               @Value("${app.mail.executor.max-size:4}") int maxSize,
+                                               @Value("${app.mail.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mail-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        Counter rejected = Counter.builder("mail.executor.rejected")
+                .description("Mail tasks run on the submitting thread because the mail executor queue was full")
+                .register(meterRegistry);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            if (!pool.isShutdown()) {
+                task.run();
+            }
+        });
+
+        // Read at scrape time, after the pool has been initialized
+        Gauge.builder("mail.executor.queued", executor, pool -> pool.getThreadPoolExecutor().getQueue().size())
+                .description("Mail tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("mail.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Mail tasks being run")
+                .register(meterRegistry);
+        Gauge.builder("mail.executor.queue.capacity", executor, pool -> queueCapacity)
+                .register(meterRegistry);
+        return executor;
+    }
 }
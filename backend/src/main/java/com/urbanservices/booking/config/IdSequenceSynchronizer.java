@@ -0,0 +1,153 @@
+package com.urbanservices.booking.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the pooled id sequences of the entities ahead of the ids already stored in their tables.
+ *
+ * Rows written with explicit ids (by the seeder, by imports, or before the switch away from
+ * identity columns) are invisible to the sequences, so the next pooled block could hand out
+ * an id that is already taken. On startup every sequence is moved past its table's highest id,
+ * and bulk writers reserve a range with {@link #reserveIds} before inserting it themselves.
+ * Dialects without sequences use Hibernate's single-row sequence tables, which are updated in
+ * place; real sequences are restarted.
+ */
+@Component
+public class IdSequenceSynchronizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceSynchronizer.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private volatile Map<String, IdSequence> sequencesByTable;
+
+    @Value("${app.ids.sync-on-startup:true}")
+    private boolean syncOnStartup;
+
+    public IdSequenceSynchronizer(EntityManagerFactory entityManagerFactory,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void synchronizeOnStartup() {
+        if (syncOnStartup) {
+            synchronize();
+        }
+    }
+
+    /**
+     * Moves every entity sequence past the highest id stored in its table.
+     */
+    public void synchronize() {
+        for (String table : sequences().keySet()) {
+            reserveIds(table, 0);
+        }
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids for the entity stored in {@code table} and returns
+     * the first one. The range starts above both the sequence and the table's highest id, and the
+     * sequence is moved past its end, so the caller can insert those ids directly.
+     */
+    public long reserveIds(String table, long count) {
+        IdSequence sequence = sequences().get(table);
+        if (sequence == null) {
+            throw new IllegalArgumentException("No pooled id sequence is mapped for table " + table);
+        }
+        Long reserved = transactionTemplate.execute(status -> {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT MAX(" + sequence.idColumn + ") FROM " + table, Long.class);
+            long aboveTable = maxId != null ? maxId + 1 : 1;
+
+            if (!sequence.physical) {
+                Long next = jdbcTemplate.queryForObject(
+                        "SELECT next_val FROM " + sequence.name + " FOR UPDATE", Long.class);
+                long first = Math.max(next != null ? next : 1, aboveTable);
+                if (next == null || first + count != next) {
+                    jdbcTemplate.update("UPDATE " + sequence.name + " SET next_val = ?", first + count);
+                }
+                return first;
+            }
+
+            // Reading the sequence uses up one pooled block, which only leaves a gap
+            Long next = jdbcTemplate.queryForObject(sequence.nextValueSql, Long.class);
+            long first = Math.max(next != null ? next : 1, aboveTable);
+            if (count > 0 || first != next) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence.name + " RESTART WITH " + (first + count));
+            }
+            return first;
+        });
+        return reserved != null ? reserved : 0;
+    }
+
+    private Map<String, IdSequence> sequences() {
+        Map<String, IdSequence> sequences = sequencesByTable;
+        if (sequences == null) {
+            sequences = loadSequences();
+            sequencesByTable = sequences;
+        }
+        return sequences;
+    }
+
+    private Map<String, IdSequence> loadSequences() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        JdbcEnvironment jdbcEnvironment = sessionFactory.getJdbcServices().getJdbcEnvironment();
+
+        Map<String, IdSequence> sequences = new HashMap<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            // Subclasses of a joined hierarchy share the root's sequence and table
+            if (!persister.getEntityName().equals(persister.getRootEntityName())
+                    || !(persister.getGenerator() instanceof SequenceStyleGenerator generator)
+                    || !(persister instanceof AbstractEntityPersister entityPersister)) {
+                return;
+            }
+            DatabaseStructure structure = generator.getDatabaseStructure();
+            String name = jdbcEnvironment.getQualifiedObjectNameFormatter().format(structure.getPhysicalName(), dialect);
+            String nextValueSql = structure.isPhysicalSequence()
+                    ? dialect.getSequenceSupport().getSequenceNextValString(name)
+                    : null;
+            sequences.put(entityPersister.getTableName(), new IdSequence(name, structure.isPhysicalSequence(),
+                    entityPersister.getIdentifierColumnNames()[0], nextValueSql));
+        });
+        logger.debug("Pooled id sequences: {}", sequences.keySet());
+        return sequences;
+    }
+
+    private static final class IdSequence {
+        final String name;
+        final boolean physical;
+        final String idColumn;
+        final String nextValueSql;
+
+        IdSequence(String name, boolean physical, String idColumn, String nextValueSql) {
+            this.name = name;
+            this.physical = physical;
+            this.idColumn = idColumn;
+            this.nextValueSql = nextValueSql;
+        }
+    }
+}
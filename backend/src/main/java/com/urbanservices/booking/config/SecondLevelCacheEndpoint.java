@@ -0,0 +1,108 @@
+package com.urbanservices.booking.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint ({@code /actuator/l2cache}) listing the second-level cache regions with
+ * their configured TTL and size bound, current entry count and hit ratio, plus the hit ratio
+ * of Hibernate's query plan cache. Counters are cumulative since startup.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class SecondLevelCacheEndpoint {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @ReadOperation
+    public Map<String, Object> caches() {
+        Statistics statistics = statistics();
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regions.put(region, region(region));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("queryPlanCache", ratio(statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount()));
+        result.put("regions", regions);
+        return result;
+    }
+
+    /**
+     * One region; returns null (404) for unknown names.
+     */
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        Statistics statistics = statistics();
+        if (!Arrays.asList(statistics.getSecondLevelCacheRegionNames()).contains(region)) {
+            return null;
+        }
+        CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        Cache<?, ?> cache = cache(region);
+        if (cache != null) {
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<?, ?> configuration = cache.getConfiguration(CaffeineConfiguration.class);
+            result.put("ttlSeconds", seconds(configuration.getExpireAfterWrite()));
+            result.put("maxEntries", valueOf(configuration.getMaximumSize()));
+            result.put("entries", cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize());
+        }
+        result.put("puts", regionStatistics.getPutCount());
+        result.putAll(ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+        return result;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+    }
+
+    private Cache<?, ?> cache(String region) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory jcache)) {
+            return null;
+        }
+        CacheManager cacheManager = jcache.getCacheManager();
+        return cacheManager.getCache(region);
+    }
+
+    private static Map<String, Object> ratio(long hits, long misses) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("hits", hits);
+        result.put("misses", misses);
+        result.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return result;
+    }
+
+    private static Long seconds(OptionalLong nanos) {
+        return nanos.isPresent() ? TimeUnit.NANOSECONDS.toSeconds(nanos.getAsLong()) : null;
+    }
+
+    private static Long valueOf(OptionalLong value) {
+        return value.isPresent() ? value.getAsLong() : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.urbanservices.booking.dto;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
@@ -33,6 +35,14 @@ public class AddressDto extends BaseDto {
     @Size(max = 100, message = "Country cannot exceed 100 characters")
     private String country;
     
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     private boolean isDefault = false;
     
     @Size(max = 50, message = "Label cannot exceed 50 characters")
@@ -0,0 +1,40 @@
+package com.urbanservices.booking.dto;
+
+import com.urbanservices.booking.util.SeekCursor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of an infinite-scroll listing: the rows, whether there are more, and the opaque
+ * cursor that reads the next page (null on the last page). No total is computed.
+ */
+public class CursorSlice<T> extends SliceImpl<T> {
+
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, Slice<?> slice, String nextCursor) {
+        super(content, slice.getPageable(), slice.hasNext());
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Maps a slice of entities, taking the next cursor from its last row.
+     */
+    public static <E, T> CursorSlice<T> of(Slice<E> slice, Function<E, T> mapper, Function<E, SeekCursor> cursorOf) {
+        List<E> rows = slice.getContent();
+        List<T> content = new ArrayList<>(rows.size());
+        for (E row : rows) {
+            content.add(mapper.apply(row));
+        }
+        String nextCursor = slice.hasNext() && !rows.isEmpty() ? cursorOf.apply(rows.get(rows.size() - 1)).encode() : null;
+        return new CursorSlice<>(content, slice, nextCursor);
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
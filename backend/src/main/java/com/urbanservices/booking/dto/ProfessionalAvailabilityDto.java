@@ -0,0 +1,19 @@
+package com.urbanservices.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfessionalAvailabilityDto {
+    private Long professionalId;
+    private String professionalName;
+    
+    // Earliest feasible start times within the searched window, ascending
+    private List<LocalDateTime> availableSlots;
+}
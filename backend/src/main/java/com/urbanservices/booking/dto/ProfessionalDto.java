@@ -53,6 +53,14 @@ public class ProfessionalDto extends BaseDto {
     private String postalCode;
     private String country;
     
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     // Helper method to update from entity
     public void updateFromEntity(com.urbanservices.booking.model.Professional professional) {
         this.id = professional.getId();
@@ -0,0 +1,15 @@
+package com.urbanservices.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDto {
+    // SERVICE, CATEGORY or PROFESSIONAL
+    private String type;
+    private Long id;
+    private String text;
+}
@@ -0,0 +1,157 @@
+package com.urbanservices.booking.leaderboard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable, bounded ranking of entity ids by descending score, ties broken by descending
+ * weight and then ascending id.
+ *
+ * A full board loaded from the database holds the top {@code capacity} entries and every
+ * entity outside it scores no higher than its last entry. Incremental updates keep that
+ * invariant: an outsider only enters when it beats the last entry, and a member that falls
+ * below the last entry is dropped, which leaves a shorter but still correct prefix. A board
+ * is {@code exhaustive} when the load returned fewer rows than the capacity, i.e. it holds
+ * every ranked entity and can accept any update.
+ */
+final class Leaderboard {
+
+    private final long[] ids;
+    private final double[] scores;
+    private final long[] weights;
+    private final int capacity;
+    private final boolean exhaustive;
+    private final long loadedAtMillis;
+
+    private Leaderboard(long[] ids, double[] scores, long[] weights, int capacity, boolean exhaustive, long loadedAtMillis) {
+        this.ids = ids;
+        this.scores = scores;
+        this.weights = weights;
+        this.capacity = capacity;
+        this.exhaustive = exhaustive;
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    /**
+     * Board from rows already ordered best first, as returned by the recompute queries.
+     */
+    static Leaderboard loaded(long[] ids, double[] scores, long[] weights, int capacity, long loadedAtMillis) {
+        return new Leaderboard(ids, scores, weights, capacity, ids.length < capacity, loadedAtMillis);
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    /**
+     * True if the first {@code limit} entries of the board are the true top entries.
+     */
+    boolean canServe(int limit) {
+        return limit <= ids.length || exhaustive;
+    }
+
+    List<Long> top(int limit) {
+        int count = Math.min(limit, ids.length);
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the board with the entity's new score applied; {@code ranked = false} removes it.
+     */
+    Leaderboard updated(long id, boolean ranked, double score, long weight) {
+        int current = indexOf(id);
+        Leaderboard base = current >= 0 ? without(current) : this;
+        if (!ranked) {
+            return base;
+        }
+
+        if (!base.exhaustive) {
+            // Outsiders rank no higher than the last entry, so only entries beating it are safe to add
+            int last = base.ids.length - 1;
+            if (last < 0 || compare(score, weight, id, base.scores[last], base.weights[last], base.ids[last]) > 0) {
+                return base;
+            }
+        }
+
+        int position = base.insertionPoint(id, score, weight);
+        if (position >= capacity) {
+            // Ranks below a full board; it is now an outsider
+            return new Leaderboard(base.ids, base.scores, base.weights, capacity, false, loadedAtMillis);
+        }
+
+        int size = Math.min(base.ids.length + 1, capacity);
+        long[] newIds = new long[size];
+        double[] newScores = new double[size];
+        long[] newWeights = new long[size];
+        System.arraycopy(base.ids, 0, newIds, 0, position);
+        System.arraycopy(base.scores, 0, newScores, 0, position);
+        System.arraycopy(base.weights, 0, newWeights, 0, position);
+        newIds[position] = id;
+        newScores[position] = score;
+        newWeights[position] = weight;
+        int tail = size - position - 1;
+        System.arraycopy(base.ids, position, newIds, position + 1, tail);
+        System.arraycopy(base.scores, position, newScores, position + 1, tail);
+        System.arraycopy(base.weights, position, newWeights, position + 1, tail);
+
+        // An evicted last entry becomes an outsider ranking no higher than the new last entry
+        boolean stillExhaustive = base.exhaustive && base.ids.length < capacity;
+        return new Leaderboard(newIds, newScores, newWeights, capacity, stillExhaustive, loadedAtMillis);
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int insertionPoint(long id, double score, long weight) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(scores[mid], weights[mid], ids[mid], score, weight, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Leaderboard without(int index) {
+        int size = ids.length - 1;
+        long[] newIds = new long[size];
+        double[] newScores = new double[size];
+        long[] newWeights = new long[size];
+        System.arraycopy(ids, 0, newIds, 0, index);
+        System.arraycopy(scores, 0, newScores, 0, index);
+        System.arraycopy(weights, 0, newWeights, 0, index);
+        System.arraycopy(ids, index + 1, newIds, index, size - index);
+        System.arraycopy(scores, index + 1, newScores, index, size - index);
+        System.arraycopy(weights, index + 1, newWeights, index, size - index);
+        return new Leaderboard(newIds, newScores, newWeights, capacity, exhaustive, loadedAtMillis);
+    }
+
+    /**
+     * Negative if entry a ranks before entry b.
+     */
+    private static int compare(double scoreA, long weightA, long idA, double scoreB, long weightB, long idB) {
+        int result = Double.compare(scoreB, scoreA);
+        if (result == 0) {
+            result = Long.compare(weightB, weightA);
+        }
+        return result != 0 ? result : Long.compare(idA, idB);
+    }
+}
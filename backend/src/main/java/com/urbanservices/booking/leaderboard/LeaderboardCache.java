@@ -0,0 +1,316 @@
+package com.urbanservices.booking.leaderboard;
+
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import com.urbanservices.booking.repository.ServiceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process top-N rankings of professionals and services, so the homepage lists do not group
+ * the whole reviews and bookings tables on every request.
+ *
+ * Each metric keeps a bounded {@link Leaderboard} that is loaded on first use, patched after
+ * commit when a review, booking or service changes, and fully recomputed every refresh
+ * interval. A board older than the staleness bound is recomputed before it is served.
+ * Requests for more entries than the board capacity bypass the cache.
+ */
+@Component
+public class LeaderboardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardCache.class);
+
+    private final ProfessionalRepository professionalRepository;
+    private final ServiceRepository serviceRepository;
+    private final BookingRepository bookingRepository;
+    private final Map<LeaderboardMetric, AtomicReference<Leaderboard>> boards = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Timer> refreshTimers = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Counter> hits = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Counter> misses = new EnumMap<>(LeaderboardMetric.class);
+    private final Map<LeaderboardMetric, Counter> bypasses = new EnumMap<>(LeaderboardMetric.class);
+
+    @Value("${app.leaderboard.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.leaderboard.capacity:50}")
+    private int capacity;
+
+    @Value("${app.leaderboard.max-staleness-seconds:900}")
+    private long maxStalenessSeconds;
+
+    public LeaderboardCache(ProfessionalRepository professionalRepository,
+                            ServiceRepository serviceRepository,
+                            BookingRepository bookingRepository,
+                            MeterRegistry meterRegistry) {
+        this.professionalRepository = professionalRepository;
+        this.serviceRepository = serviceRepository;
+        this.bookingRepository = bookingRepository;
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            boards.put(metric, new AtomicReference<>());
+            refreshTimers.put(metric, Timer.builder("leaderboard.refresh")
+                    .description("Time spent recomputing a leaderboard from the database")
+                    .tag("metric", metric.getTag())
+                    .register(meterRegistry));
+            hits.put(metric, requestCounter(meterRegistry, metric, "hit"));
+            misses.put(metric, requestCounter(meterRegistry, metric, "miss"));
+            bypasses.put(metric, requestCounter(meterRegistry, metric, "bypass"));
+        }
+    }
+
+    /**
+     * Ids of the best {@code limit} entities of the metric, best first.
+     */
+    public List<Long> top(LeaderboardMetric metric, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        if (!enabled || limit > capacity) {
+            bypasses.get(metric).increment();
+            return ids(load(metric, limit));
+        }
+
+        AtomicReference<Leaderboard> reference = boards.get(metric);
+        Leaderboard board = reference.get();
+        if (board == null || !board.canServe(limit) || isStale(board)) {
+            misses.get(metric).increment();
+            board = refresh(metric);
+        } else {
+            hits.get(metric).increment();
+        }
+        return board.top(limit);
+    }
+
+    /**
+     * Re-scores the professional and service of a review whose rating changed.
+     */
+    public void ratingChanged(Long professionalId, Long serviceId) {
+        afterCommit(() -> {
+            if (professionalId != null) {
+                rescore(LeaderboardMetric.TOP_RATED_PROFESSIONALS, professionalId);
+            }
+            if (serviceId != null) {
+                rescore(LeaderboardMetric.TOP_RATED_SERVICES, serviceId);
+            }
+        });
+    }
+
+    /**
+     * Re-scores the professional and service of a booking that was created or deleted.
+     */
+    public void bookingsChanged(Long professionalId, Long serviceId) {
+        afterCommit(() -> {
+            if (professionalId != null) {
+                rescore(LeaderboardMetric.TOP_BOOKED_PROFESSIONALS, professionalId);
+            }
+            if (serviceId != null) {
+                rescore(LeaderboardMetric.TOP_BOOKED_SERVICES, serviceId);
+            }
+        });
+    }
+
+    /**
+     * Re-scores a service whose active flag may have changed.
+     */
+    public void serviceChanged(Long serviceId) {
+        if (serviceId != null) {
+            afterCommit(() -> {
+                rescore(LeaderboardMetric.TOP_RATED_SERVICES, serviceId);
+                rescore(LeaderboardMetric.TOP_BOOKED_SERVICES, serviceId);
+            });
+        }
+    }
+
+    /**
+     * Recomputes every board that has been loaded, bounding the drift left by missed or racing
+     * incremental updates to one refresh interval.
+     */
+    @Scheduled(fixedDelayString = "${app.leaderboard.refresh-interval-ms:300000}",
+            initialDelayString = "${app.leaderboard.refresh-interval-ms:300000}")
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+            if (boards.get(metric).get() != null) {
+                try {
+                    refresh(metric);
+                } catch (RuntimeException e) {
+                    logger.error("Failed to refresh leaderboard {}", metric, e);
+                }
+            }
+        }
+    }
+
+    private Leaderboard refresh(LeaderboardMetric metric) {
+        Leaderboard board = refreshTimers.get(metric).record(() -> toBoard(load(metric, capacity)));
+        boards.get(metric).set(board);
+        return board;
+    }
+
+    private boolean isStale(Leaderboard board) {
+        return System.currentTimeMillis() - board.getLoadedAtMillis() > maxStalenessSeconds * 1000;
+    }
+
+    private void rescore(LeaderboardMetric metric, long id) {
+        AtomicReference<Leaderboard> reference = boards.get(metric);
+        if (reference.get() == null) {
+            return; // Not loaded yet, the first request reads fresh data anyway
+        }
+        Score score = score(metric, id);
+        reference.updateAndGet(board -> board != null ? board.updated(id, score.ranked, score.value, score.weight) : null);
+    }
+
+    /**
+     * Top rows of the metric as {@code (id, score, weight)}, best first.
+     */
+    private List<Score> load(LeaderboardMetric metric, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Score> scores = new ArrayList<>(limit);
+        switch (metric) {
+            case TOP_RATED_PROFESSIONALS:
+                for (Object[] row : professionalRepository.findTopRatedScores(page)) {
+                    scores.add(Score.rating((Long) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).intValue()));
+                }
+                break;
+            case TOP_RATED_SERVICES:
+                for (Object[] row : serviceRepository.findTopRatedScores(page)) {
+                    scores.add(Score.rating((Long) row[0], ((Number) row[1]).longValue(), ((Number) row[2]).intValue()));
+                }
+                break;
+            case TOP_BOOKED_PROFESSIONALS:
+                for (Object[] row : bookingRepository.findTopBookedProfessionalCounts(page)) {
+                    scores.add(Score.bookings((Long) row[0], ((Number) row[1]).longValue()));
+                }
+                break;
+            case TOP_BOOKED_SERVICES:
+                for (Object[] row : bookingRepository.findTopBookedServiceCounts(page)) {
+                    scores.add(Score.bookings((Long) row[0], ((Number) row[1]).longValue()));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported leaderboard metric: " + metric);
+        }
+        return scores;
+    }
+
+    /**
+     * Current score of one entity, read with a primary-key or indexed count query.
+     */
+    private Score score(LeaderboardMetric metric, long id) {
+        List<Object[]> rows;
+        switch (metric) {
+            case TOP_RATED_PROFESSIONALS:
+                rows = professionalRepository.findRatingScore(id);
+                return rows.isEmpty() ? Score.unranked(id)
+                        : Score.rating(id, ((Number) rows.get(0)[0]).longValue(), ((Number) rows.get(0)[1]).intValue());
+            case TOP_RATED_SERVICES:
+                rows = serviceRepository.findRatingScore(id);
+                return rows.isEmpty() || !Boolean.TRUE.equals(rows.get(0)[0]) ? Score.unranked(id)
+                        : Score.rating(id, ((Number) rows.get(0)[1]).longValue(), ((Number) rows.get(0)[2]).intValue());
+            case TOP_BOOKED_PROFESSIONALS:
+                rows = bookingRepository.countByProfessionalIds(Collections.singletonList(id));
+                return rows.isEmpty() ? Score.unranked(id) : Score.bookings(id, ((Number) rows.get(0)[1]).longValue());
+            case TOP_BOOKED_SERVICES:
+                rows = serviceRepository.findRatingScore(id);
+                if (rows.isEmpty() || !Boolean.TRUE.equals(rows.get(0)[0])) {
+                    return Score.unranked(id);
+                }
+                rows = bookingRepository.countByServiceIds(Collections.singletonList(id));
+                return rows.isEmpty() ? Score.unranked(id) : Score.bookings(id, ((Number) rows.get(0)[1]).longValue());
+            default:
+                throw new IllegalArgumentException("Unsupported leaderboard metric: " + metric);
+        }
+    }
+
+    private Leaderboard toBoard(List<Score> scores) {
+        long[] ids = new long[scores.size()];
+        double[] values = new double[scores.size()];
+        long[] weights = new long[scores.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Score score = scores.get(i);
+            ids[i] = score.id;
+            values[i] = score.value;
+            weights[i] = score.weight;
+        }
+        return Leaderboard.loaded(ids, values, weights, capacity, System.currentTimeMillis());
+    }
+
+    private static List<Long> ids(List<Score> scores) {
+        List<Long> ids = new ArrayList<>(scores.size());
+        for (Score score : scores) {
+            ids.add(score.id);
+        }
+        return ids;
+    }
+
+    private static Counter requestCounter(MeterRegistry registry, LeaderboardMetric metric, String result) {
+        return Counter.builder("leaderboard.requests")
+                .description("Leaderboard lookups by outcome")
+                .tag("metric", metric.getTag())
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static void afterCommit(Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                // The periodic refresh repairs the board; never fail the committed request
+                logger.warn("Failed to apply leaderboard update", e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private static final class Score {
+        final long id;
+        final boolean ranked;
+        final double value;
+        final long weight;
+
+        private Score(long id, boolean ranked, double value, long weight) {
+            this.id = id;
+            this.ranked = ranked;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        static Score rating(long id, long ratingSum, int ratingCount) {
+            return ratingCount > 0 ? new Score(id, true, (double) ratingSum / ratingCount, ratingCount) : unranked(id);
+        }
+
+        static Score bookings(long id, long bookingCount) {
+            return bookingCount > 0 ? new Score(id, true, bookingCount, 0L) : unranked(id);
+        }
+
+        static Score unranked(long id) {
+            return new Score(id, false, 0.0, 0L);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.urbanservices.booking.leaderboard;
+
+/**
+ * Rankings served from memory by {@link LeaderboardCache}.
+ */
+public enum LeaderboardMetric {
+    TOP_RATED_PROFESSIONALS("top-rated-professionals"),
+    TOP_BOOKED_PROFESSIONALS("top-booked-professionals"),
+    TOP_RATED_SERVICES("top-rated-services"),
+    TOP_BOOKED_SERVICES("top-booked-services");
+
+    private final String tag;
+
+    LeaderboardMetric(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Value of the {@code metric} tag on the leaderboard meters.
+     */
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,503 @@
+package com.urbanservices.booking.loadtest;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.config.IdSequenceSynchronizer;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.service.ReviewService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Fills the database with a synthetic, production-shaped dataset when the application starts
+ * with the {@code seed} profile: categories, services, customers, professionals with their
+ * services and weekly availability, bookings and reviews.
+ *
+ * Rows go through batched JDBC inserts with explicit ids reserved from the entity sequences, so
+ * seeding also works on a database that already has data and next to a running instance. Popularity is skewed (a few professionals and
+ * services take most bookings), booking times follow business hours with busier Saturdays, and
+ * ratings lean towards four and five stars. Slot conflicts are not checked, so hot professionals
+ * end up with overlapping bookings. Stored rating summaries are rebuilt once at the end.
+ */
+@Component
+@Profile("seed")
+public class DataSeeder implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSeeder.class);
+
+    // Relative booking volume per hour from 08:00 to 19:00
+    private static final int[] HOUR_WEIGHTS = {2, 5, 9, 10, 8, 5, 4, 6, 8, 9, 7, 4};
+    // Relative frequency of 1 to 5 star ratings
+    private static final int[] RATING_WEIGHTS = {3, 5, 12, 30, 50};
+    private static final int[] DURATIONS = {30, 45, 60, 90, 120, 180};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ReviewService reviewService;
+    private final IdSequenceSynchronizer idSequences;
+    private final CatalogCache catalogCache;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.seed.categories:12}")
+    private int categoryCount;
+
+    @Value("${app.seed.services-per-category:8}")
+    private int servicesPerCategory;
+
+    @Value("${app.seed.professionals:1000}")
+    private int professionalCount;
+
+    @Value("${app.seed.customers:10000}")
+    private int customerCount;
+
+    @Value("${app.seed.bookings:100000}")
+    private long bookingCount;
+
+    @Value("${app.seed.max-services-per-professional:5}")
+    private int maxServicesPerProfessional;
+
+    // Share of completed bookings that get a review
+    @Value("${app.seed.review-ratio:0.35}")
+    private double reviewRatio;
+
+    @Value("${app.seed.professional-skew:1.07}")
+    private double professionalSkew;
+
+    @Value("${app.seed.service-skew:0.9}")
+    private double serviceSkew;
+
+    @Value("${app.seed.customer-skew:0.3}")
+    private double customerSkew;
+
+    // Professionals are spread uniformly over a disc around this point
+    @Value("${app.seed.center-latitude:19.0760}")
+    private double centerLatitude;
+
+    @Value("${app.seed.center-longitude:72.8777}")
+    private double centerLongitude;
+
+    @Value("${app.seed.radius-km:30}")
+    private double radiusKm;
+
+    @Value("${app.seed.days-back:180}")
+    private int daysBack;
+
+    @Value("${app.seed.days-ahead:30}")
+    private int daysAhead;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    @Autowired
+    public DataSeeder(JdbcTemplate jdbcTemplate,
+                      PasswordEncoder passwordEncoder,
+                      ReviewService reviewService,
+                      IdSequenceSynchronizer idSequences,
+                      CatalogCache catalogCache,
+                      ConfigurableApplicationContext context) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.reviewService = reviewService;
+        this.idSequences = idSequences;
+        this.catalogCache = catalogCache;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        long started = System.nanoTime();
+        Random random = new Random(randomSeed);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+
+        int serviceCount = categoryCount * servicesPerCategory;
+        long firstCategoryId = idSequences.reserveIds("service_categories", categoryCount);
+        long firstServiceId = idSequences.reserveIds("services", serviceCount);
+        long firstUserId = idSequences.reserveIds("users", (long) customerCount + professionalCount);
+        long firstCustomerId = firstUserId;
+        long firstProfessionalId = firstUserId + customerCount;
+
+        logger.info("Seeding {} categories, {} services, {} customers, {} professionals and {} bookings",
+                categoryCount, serviceCount, customerCount, professionalCount, bookingCount);
+
+        seedCategories(firstCategoryId, now);
+        int[] serviceDurations = new int[serviceCount];
+        long[] servicePrices = new long[serviceCount];
+        seedServices(firstServiceId, firstCategoryId, serviceDurations, servicePrices, random, now);
+        // Inserted through JDBC, so the catalog snapshot does not see them on its own
+        catalogCache.refresh();
+        seedUsers(firstCustomerId, customerCount, UserRole.ROLE_CUSTOMER, "customer", now);
+        insertBatched("INSERT INTO customers (id) VALUES (?)", customerCount,
+                (ps, i) -> ps.setLong(1, firstCustomerId + i));
+        seedUsers(firstProfessionalId, professionalCount, UserRole.ROLE_PROFESSIONAL, "professional", now);
+        seedProfessionals(firstProfessionalId, random);
+        int[][] offeredServices = seedProfessionalServices(firstProfessionalId, firstServiceId, serviceCount, random);
+        seedAvailabilities(firstProfessionalId, now);
+        long reviews = seedBookingsAndReviews(firstCustomerId, firstProfessionalId, firstServiceId,
+                offeredServices, serviceDurations, servicePrices, random, now);
+
+        int reconciled = reviewService.reconcileRatingSummaries();
+        logger.info("Seeded {} bookings and {} reviews in {} s; rebuilt {} rating summaries",
+                bookingCount, reviews, (System.nanoTime() - started) / 1_000_000_000L, reconciled);
+
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+
+    private void seedCategories(long firstId, LocalDateTime now) {
+        insertBatched("INSERT INTO service_categories (id, created_at, updated_at, name, description, active) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", categoryCount, (ps, i) -> {
+            long id = firstId + i;
+            ps.setLong(1, id);
+            setTimestamp(ps, 2, now);
+            setTimestamp(ps, 3, now);
+            ps.setString(4, "Category " + id);
+            ps.setString(5, "Synthetic category " + id);
+            ps.setBoolean(6, true);
+        });
+    }
+
+    /**
+     * Fills in the duration (minutes) and base price (minor units) of every seeded service,
+     * indexed by offset from the first id.
+     */
+    private void seedServices(long firstId, long firstCategoryId, int[] durations, long[] prices, Random random,
+                              LocalDateTime now) {
+        int count = durations.length;
+        for (int i = 0; i < count; i++) {
+            durations[i] = DURATIONS[random.nextInt(DURATIONS.length)];
+            prices[i] = (199 + random.nextInt(40) * 100L) * 100;
+        }
+        insertBatched("INSERT INTO services (id, created_at, updated_at, name, description, category_id, base_price, " +
+                "duration_in_minutes, is_active, rating_sum, rating_count, rating_one_star, rating_two_star, " +
+                "rating_three_star, rating_four_star, rating_five_star) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0)", count, (ps, i) -> {
+            long id = firstId + i;
+            ps.setLong(1, id);
+            setTimestamp(ps, 2, now);
+            setTimestamp(ps, 3, now);
+            ps.setString(4, "Service " + id);
+            ps.setString(5, "Synthetic service " + id);
+            ps.setLong(6, firstCategoryId + (int) (i / servicesPerCategory));
+            ps.setBigDecimal(7, BigDecimal.valueOf(prices[(int) i], 2));
+            ps.setInt(8, durations[(int) i]);
+            ps.setBoolean(9, true);
+        });
+    }
+
+    private void seedUsers(long firstId, int count, UserRole role, String prefix, LocalDateTime now) {
+        // Every seeded account shares one hash; encoding per row would dominate the run
+        String password = passwordEncoder.encode("password");
+        insertBatched("INSERT INTO users (id, created_at, updated_at, name, email, password, phone, role, enabled, " +
+                "email_verified, active) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", count, (ps, i) -> {
+            long id = firstId + i;
+            ps.setLong(1, id);
+            setTimestamp(ps, 2, now);
+            setTimestamp(ps, 3, now);
+            ps.setString(4, Character.toUpperCase(prefix.charAt(0)) + prefix.substring(1) + " " + id);
+            ps.setString(5, prefix + id + "@seed.example.com");
+            ps.setString(6, password);
+            ps.setString(7, "+91" + String.format("%010d", id));
+            ps.setString(8, role.name());
+            ps.setBoolean(9, true);
+            ps.setBoolean(10, true);
+            ps.setBoolean(11, true);
+        });
+    }
+
+    private void seedProfessionals(long firstId, Random random) {
+        long[] seeds = new long[professionalCount];
+        for (int i = 0; i < professionalCount; i++) {
+            seeds[i] = random.nextLong();
+        }
+        insertBatched("INSERT INTO professionals (id, bio, years_of_experience, hourly_rate, is_verified, is_available, " +
+                "rating_sum, rating_count, rating_one_star, rating_two_star, rating_three_star, rating_four_star, " +
+                "rating_five_star, latitude, longitude) VALUES (?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, ?, ?)",
+                professionalCount, (ps, i) -> {
+            Random row = new Random(seeds[(int) i]);
+            ps.setLong(1, firstId + i);
+            ps.setString(2, "Synthetic professional " + (firstId + i));
+            ps.setInt(3, row.nextInt(25));
+            ps.setDouble(4, 200 + row.nextInt(80) * 10);
+            ps.setBoolean(5, row.nextInt(10) < 8);
+            ps.setBoolean(6, row.nextInt(10) < 9);
+            double distanceKm = radiusKm * Math.sqrt(row.nextDouble());
+            double bearing = 2 * Math.PI * row.nextDouble();
+            double latitude = centerLatitude + Math.toDegrees(distanceKm * Math.cos(bearing) / 6371.0);
+            ps.setDouble(7, latitude);
+            ps.setDouble(8, centerLongitude + Math.toDegrees(distanceKm * Math.sin(bearing) / 6371.0)
+                    / Math.cos(Math.toRadians(latitude)));
+        });
+    }
+
+    /**
+     * Links every professional to 1 to max services, popular services more often, and returns the
+     * service offsets per professional offset.
+     */
+    private int[][] seedProfessionalServices(long firstProfessionalId, long firstServiceId, int serviceCount, Random random) {
+        SkewedSampler services = new SkewedSampler(serviceCount, serviceSkew, random);
+        int[][] offered = new int[professionalCount][];
+        long links = 0;
+        for (int p = 0; p < professionalCount; p++) {
+            int wanted = 1 + random.nextInt(Math.min(maxServicesPerProfessional, serviceCount));
+            int[] picked = new int[wanted];
+            int size = 0;
+            for (int attempt = 0; attempt < wanted * 4 && size < wanted; attempt++) {
+                int candidate = services.next(random);
+                boolean duplicate = false;
+                for (int k = 0; k < size; k++) {
+                    duplicate |= picked[k] == candidate;
+                }
+                if (!duplicate) {
+                    picked[size++] = candidate;
+                }
+            }
+            offered[p] = Arrays.copyOf(picked, size);
+            links += size;
+        }
+
+        long[] professionalOffsets = new long[(int) links];
+        long[] serviceOffsets = new long[(int) links];
+        int link = 0;
+        for (int p = 0; p < professionalCount; p++) {
+            for (int s : offered[p]) {
+                professionalOffsets[link] = p;
+                serviceOffsets[link] = s;
+                link++;
+            }
+        }
+        insertBatched("INSERT INTO professional_services (professional_id, service_id) VALUES (?, ?)", links, (ps, i) -> {
+            ps.setLong(1, firstProfessionalId + professionalOffsets[(int) i]);
+            ps.setLong(2, firstServiceId + serviceOffsets[(int) i]);
+        });
+        return offered;
+    }
+
+    private void seedAvailabilities(long firstProfessionalId, LocalDateTime now) {
+        // Monday to Saturday, 08:00 to 20:00
+        long firstId = idSequences.reserveIds("availabilities", professionalCount * 6L);
+        insertBatched("INSERT INTO availabilities (id, created_at, updated_at, professional_id, day_of_week, start_time, " +
+                "end_time, is_recurring) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", professionalCount * 6L, (ps, i) -> {
+            ps.setLong(1, firstId + i);
+            setTimestamp(ps, 2, now);
+            setTimestamp(ps, 3, now);
+            ps.setLong(4, firstProfessionalId + i / 6);
+            ps.setString(5, DayOfWeek.of((int) (i % 6) + 1).name());
+            ps.setObject(6, LocalTime.of(8, 0));
+            ps.setObject(7, LocalTime.of(20, 0));
+            ps.setBoolean(8, true);
+        });
+    }
+
+    /**
+     * Inserts bookings chunk by chunk, each followed by the reviews of its completed bookings,
+     * and returns the number of reviews written.
+     */
+    private long seedBookingsAndReviews(long firstCustomerId, long firstProfessionalId, long firstServiceId,
+                                        int[][] offeredServices, int[] serviceDurations, long[] servicePrices,
+                                        Random random, LocalDateTime now) {
+        SkewedSampler professionals = new SkewedSampler(professionalCount, professionalSkew, random);
+        SkewedSampler customers = new SkewedSampler(customerCount, customerSkew, random);
+        int hourTotal = sum(HOUR_WEIGHTS);
+        int ratingTotal = sum(RATING_WEIGHTS);
+
+        long firstBookingId = idSequences.reserveIds("bookings", bookingCount);
+        long reviews = 0;
+
+        int chunk = batchSize;
+        long[] customerIds = new long[chunk];
+        long[] professionalIds = new long[chunk];
+        long[] serviceIds = new long[chunk];
+        long[] amounts = new long[chunk];
+        LocalDateTime[] starts = new LocalDateTime[chunk];
+        int[] durations = new int[chunk];
+        BookingStatus[] statuses = new BookingStatus[chunk];
+        long[] reviewBookingOffsets = new long[chunk];
+        int[] ratings = new int[chunk];
+
+        for (long offset = 0; offset < bookingCount; offset += chunk) {
+            int size = (int) Math.min(chunk, bookingCount - offset);
+            int reviewCount = 0;
+            for (int i = 0; i < size; i++) {
+                int professional = professionals.next(random);
+                int[] offered = offeredServices[professional];
+                int service = offered[random.nextInt(offered.length)];
+                customerIds[i] = firstCustomerId + customers.next(random);
+                professionalIds[i] = firstProfessionalId + professional;
+                serviceIds[i] = firstServiceId + service;
+                starts[i] = bookingStart(now, random, hourTotal);
+                durations[i] = serviceDurations[service];
+                amounts[i] = servicePrices[service];
+                statuses[i] = bookingStatus(starts[i].isBefore(now), random);
+                if (statuses[i] == BookingStatus.COMPLETED && random.nextDouble() < reviewRatio) {
+                    reviewBookingOffsets[reviewCount] = i;
+                    ratings[reviewCount] = 1 + weightedIndex(RATING_WEIGHTS, ratingTotal, random);
+                    reviewCount++;
+                }
+            }
+
+            long chunkFirstId = firstBookingId + offset;
+            jdbcTemplate.batchUpdate("INSERT INTO bookings (id, created_at, updated_at, customer_id, professional_id, " +
+                    "service_id, booking_date, end_date, status, total_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            LocalDateTime createdAt = starts[i].minusDays(1 + (i % 14));
+                            ps.setLong(1, chunkFirstId + i);
+                            setTimestamp(ps, 2, createdAt.isAfter(now) ? now : createdAt);
+                            setTimestamp(ps, 3, createdAt.isAfter(now) ? now : createdAt);
+                            ps.setLong(4, customerIds[i]);
+                            ps.setLong(5, professionalIds[i]);
+                            ps.setLong(6, serviceIds[i]);
+                            setTimestamp(ps, 7, starts[i]);
+                            setTimestamp(ps, 8, starts[i].plusMinutes(durations[i]));
+                            ps.setString(9, statuses[i].name());
+                            ps.setBigDecimal(10, BigDecimal.valueOf(amounts[i], 2));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    });
+
+            int chunkReviews = reviewCount;
+            if (chunkReviews > 0) {
+                long chunkFirstReviewId = idSequences.reserveIds("reviews", chunkReviews);
+                jdbcTemplate.batchUpdate("INSERT INTO reviews (id, created_at, updated_at, booking_id, customer_id, " +
+                        "professional_id, service_id, rating, comment, is_anonymous, admin_reviewed) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int r) throws SQLException {
+                        int i = (int) reviewBookingOffsets[r];
+                        LocalDateTime reviewedAt = starts[i].plusMinutes(durations[i] + 60L * (1 + r % 48));
+                        ps.setLong(1, chunkFirstReviewId + r);
+                        setTimestamp(ps, 2, reviewedAt.isAfter(now) ? now : reviewedAt);
+                        setTimestamp(ps, 3, reviewedAt.isAfter(now) ? now : reviewedAt);
+                        ps.setLong(4, chunkFirstId + i);
+                        ps.setLong(5, customerIds[i]);
+                        ps.setLong(6, professionalIds[i]);
+                        ps.setLong(7, serviceIds[i]);
+                        ps.setInt(8, ratings[r]);
+                        ps.setString(9, ratings[r] >= 4 ? "Great service, would book again" : "Could have been better");
+                        ps.setBoolean(10, r % 10 == 0);
+                        ps.setBoolean(11, false);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunkReviews;
+                    }
+                });
+                reviews += chunkReviews;
+            }
+
+            if ((offset / chunk) % 100 == 99) {
+                logger.info("Seeded {} of {} bookings", offset + size, bookingCount);
+            }
+        }
+        return reviews;
+    }
+
+    private LocalDateTime bookingStart(LocalDateTime now, Random random, int hourTotal) {
+        // Saturdays carry about 40% more bookings than weekdays; Sundays are closed
+        LocalDate day;
+        do {
+            day = now.toLocalDate().plusDays(random.nextInt(daysBack + daysAhead) - daysBack);
+        } while (day.getDayOfWeek() == DayOfWeek.SUNDAY
+                || (day.getDayOfWeek() != DayOfWeek.SATURDAY && random.nextInt(14) >= 10));
+        int hour = 8 + weightedIndex(HOUR_WEIGHTS, hourTotal, random);
+        return day.atTime(hour, random.nextBoolean() ? 0 : 30);
+    }
+
+    private static BookingStatus bookingStatus(boolean past, Random random) {
+        int roll = random.nextInt(100);
+        if (past) {
+            return roll < 82 ? BookingStatus.COMPLETED
+                    : roll < 94 ? BookingStatus.CANCELLED
+                    : roll < 97 ? BookingStatus.REJECTED
+                    : BookingStatus.EXPIRED;
+        }
+        return roll < 65 ? BookingStatus.CONFIRMED
+                : roll < 90 ? BookingStatus.PENDING
+                : BookingStatus.CANCELLED;
+    }
+
+    private static int weightedIndex(int[] weights, int total, Random random) {
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private void insertBatched(String sql, long rows, RowBinder binder) {
+        for (long offset = 0; offset < rows; offset += batchSize) {
+            long first = offset;
+            int size = (int) Math.min(batchSize, rows - offset);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    binder.bind(ps, first + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement ps, long row) throws SQLException;
+    }
+}
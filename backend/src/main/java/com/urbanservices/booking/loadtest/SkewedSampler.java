@@ -0,0 +1,56 @@
+package com.urbanservices.booking.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws indexes in [0, size) with Zipf-distributed popularity: the item of rank k is picked with
+ * probability proportional to 1 / k^exponent. An exponent of 0 is uniform; around 1 a few hot
+ * items take a large share, as with professionals and services in production.
+ *
+ * Ranks are assigned to indexes in a shuffled order, so hot items are spread over the id range
+ * instead of being the oldest rows.
+ */
+final class SkewedSampler {
+
+    private final double[] cumulative;
+    private final int[] indexOfRank;
+
+    SkewedSampler(int size, double exponent, Random random) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Sampler size must be positive");
+        }
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= total;
+        }
+
+        indexOfRank = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexOfRank[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexOfRank[i];
+            indexOfRank[i] = indexOfRank[j];
+            indexOfRank[j] = swap;
+        }
+    }
+
+    int next(Random random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return indexOfRank[Math.min(rank, indexOfRank.length - 1)];
+    }
+
+    int size() {
+        return indexOfRank.length;
+    }
+}
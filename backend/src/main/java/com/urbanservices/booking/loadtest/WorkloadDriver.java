@@ -0,0 +1,278 @@
+package com.urbanservices.booking.loadtest;
+
+import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.dto.ReviewDto;
+import com.urbanservices.booking.exception.BookingConflictException;
+import com.urbanservices.booking.service.BookingService;
+import com.urbanservices.booking.service.ProfessionalService;
+import com.urbanservices.booking.service.ReviewService;
+import com.urbanservices.booking.service.ServiceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays a weighted mix of booking creation, slot searches, listings and review writes against
+ * the service layer when the application starts with the {@code workload} profile, then logs a
+ * latency histogram per operation. Meant to run against a database filled by {@link DataSeeder}:
+ * professionals are picked with the same popularity skew, so hot rows see most of the traffic.
+ */
+@Component
+@Profile("workload")
+public class WorkloadDriver implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadDriver.class);
+
+    enum Operation {
+        CREATE_BOOKING, SLOT_SEARCH, LISTING, REVIEW
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookingService bookingService;
+    private final ProfessionalService professionalService;
+    private final ServiceService serviceService;
+    private final ReviewService reviewService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${app.workload.threads:8}")
+    private int threads;
+
+    @Value("${app.workload.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${app.workload.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${app.workload.mix.create-booking:10}")
+    private int createBookingWeight;
+
+    @Value("${app.workload.mix.slot-search:35}")
+    private int slotSearchWeight;
+
+    @Value("${app.workload.mix.listing:45}")
+    private int listingWeight;
+
+    @Value("${app.workload.mix.review:10}")
+    private int reviewWeight;
+
+    @Value("${app.workload.professional-skew:1.07}")
+    private double professionalSkew;
+
+    @Value("${app.workload.random-seed:7}")
+    private long randomSeed;
+
+    @Value("${app.workload.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    private long[] linkProfessionalIds;
+    private long[] linkServiceIds;
+    private long[] customerIds;
+    private SkewedSampler links;
+    private final Queue<Long> reviewableBookings = new ConcurrentLinkedQueue<>();
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+    @Autowired
+    public WorkloadDriver(JdbcTemplate jdbcTemplate,
+                          BookingService bookingService,
+                          ProfessionalService professionalService,
+                          ServiceService serviceService,
+                          ReviewService reviewService,
+                          ConfigurableApplicationContext context) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookingService = bookingService;
+        this.professionalService = professionalService;
+        this.serviceService = serviceService;
+        this.reviewService = reviewService;
+        this.context = context;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void run(String... args) throws InterruptedException {
+        loadTargets();
+        if (linkProfessionalIds.length == 0 || customerIds.length == 0) {
+            logger.warn("No professionals or customers found; run the seed profile first");
+            exit();
+            return;
+        }
+
+        logger.info("Running workload with {} threads: {} s warmup, {} s measured", threads, warmupSeconds, durationSeconds);
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long deadline = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicLong failuresLogged = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(randomSeed + t);
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation operation = pick(random);
+                    long started = System.nanoTime();
+                    try {
+                        if (!execute(operation, random)) {
+                            continue;
+                        }
+                        if (started >= measureFrom) {
+                            histograms.get(operation).record(System.nanoTime() - started);
+                        }
+                    } catch (RuntimeException e) {
+                        if (started >= measureFrom) {
+                            histograms.get(operation).recordError();
+                        }
+                        if (failuresLogged.incrementAndGet() <= 10) {
+                            logger.warn("{} failed", operation, e);
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(warmupSeconds + durationSeconds + 60L, TimeUnit.SECONDS);
+
+        report();
+        exit();
+    }
+
+    /**
+     * Runs one operation; returns false if there was nothing to do (no reviewable booking left).
+     */
+    private boolean execute(Operation operation, Random random) {
+        int link = links.next(random);
+        Long professionalId = linkProfessionalIds[link];
+        Long serviceId = linkServiceIds[link];
+        LocalDate day = LocalDate.now().plusDays(1 + random.nextInt(14));
+
+        switch (operation) {
+            case CREATE_BOOKING:
+                BookingDto booking = new BookingDto();
+                booking.setCustomerId(customerIds[random.nextInt(customerIds.length)]);
+                booking.setProfessionalId(professionalId);
+                booking.setServiceId(serviceId);
+                booking.setBookingDate(day.atTime(8 + random.nextInt(11), random.nextBoolean() ? 0 : 30));
+                try {
+                    bookingService.createBooking(booking);
+                } catch (BookingConflictException e) {
+                    // A taken slot is a normal outcome for hot professionals
+                }
+                return true;
+            case SLOT_SEARCH:
+                if (random.nextInt(4) == 0) {
+                    LocalDateTime from = day.atStartOfDay();
+                    bookingService.searchAvailableProfessionals(serviceId, from, from.plusDays(2), 60, 5);
+                } else {
+                    bookingService.findAvailableTimeSlots(professionalId, day.atStartOfDay(), 60);
+                }
+                return true;
+            case LISTING:
+                switch (random.nextInt(3)) {
+                    case 0:
+                        professionalService.findAvailableByServiceId(serviceId, PageRequest.of(random.nextInt(3), 20));
+                        break;
+                    case 1:
+                        professionalService.findTopRatedProfessionals(10);
+                        break;
+                    default:
+                        serviceService.findActiveServices(PageRequest.of(random.nextInt(3), 20));
+                        break;
+                }
+                return true;
+            case REVIEW:
+                Long bookingId = reviewableBookings.poll();
+                if (bookingId == null) {
+                    return false;
+                }
+                ReviewDto review = new ReviewDto();
+                review.setBookingId(bookingId);
+                review.setRating(3 + random.nextInt(3));
+                review.setComment("Workload review");
+                reviewService.create(review);
+                return true;
+            default:
+                throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+    }
+
+    private Operation pick(Random random) {
+        int roll = random.nextInt(createBookingWeight + slotSearchWeight + listingWeight + reviewWeight);
+        if ((roll -= createBookingWeight) < 0) {
+            return Operation.CREATE_BOOKING;
+        }
+        if ((roll -= slotSearchWeight) < 0) {
+            return Operation.SLOT_SEARCH;
+        }
+        if ((roll -= listingWeight) < 0) {
+            return Operation.LISTING;
+        }
+        return Operation.REVIEW;
+    }
+
+    private void loadTargets() {
+        List<Long> professionals = new ArrayList<>();
+        List<Long> services = new ArrayList<>();
+        jdbcTemplate.query("SELECT ps.professional_id, ps.service_id FROM professional_services ps", row -> {
+            professionals.add(row.getLong(1));
+            services.add(row.getLong(2));
+        });
+        linkProfessionalIds = professionals.stream().mapToLong(Long::longValue).toArray();
+        linkServiceIds = services.stream().mapToLong(Long::longValue).toArray();
+        customerIds = jdbcTemplate.queryForList("SELECT id FROM customers", Long.class).stream()
+                .mapToLong(Long::longValue).toArray();
+        if (linkProfessionalIds.length > 0) {
+            links = new SkewedSampler(linkProfessionalIds.length, professionalSkew, new Random(randomSeed));
+        }
+
+        // Enough unreviewed completed bookings for the whole run
+        long reviewBudget = (long) threads * (warmupSeconds + durationSeconds) * 200;
+        reviewableBookings.addAll(jdbcTemplate.queryForList("SELECT b.id FROM bookings b " +
+                "LEFT JOIN reviews r ON r.booking_id = b.id WHERE b.status = 'COMPLETED' AND r.id IS NULL " +
+                "LIMIT " + reviewBudget, Long.class));
+    }
+
+    private void report() {
+        StringBuilder table = new StringBuilder(String.format("%n%-15s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ops/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Operation, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            table.append(String.format("%-15s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.count(), histogram.errors(),
+                    (double) histogram.count() / Math.max(1, durationSeconds),
+                    histogram.meanMicros() / 1000.0,
+                    histogram.percentileMicros(50) / 1000.0,
+                    histogram.percentileMicros(90) / 1000.0,
+                    histogram.percentileMicros(99) / 1000.0,
+                    histogram.percentileMicros(99.9) / 1000.0,
+                    histogram.maxMicros() / 1000.0));
+        }
+        logger.info("Workload results over {} s:{}", durationSeconds, table);
+    }
+
+    private void exit() {
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context, () -> 0));
+        }
+    }
+}
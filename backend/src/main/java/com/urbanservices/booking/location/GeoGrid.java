@@ -0,0 +1,338 @@
+package com.urbanservices.booking.location;
+
+import com.urbanservices.booking.util.LongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable spatial index of professional locations per service: every location falls into a
+ * cell of a fixed latitude/longitude grid, and each service keeps only its non-empty cells.
+ *
+ * A radius query visits the cells overlapping the circle's bounding box and computes exact
+ * great-circle distances only for the points in them, so its cost depends on how many
+ * professionals are near the point rather than on how many there are. The box is widened in
+ * longitude towards the poles and wraps around the antimeridian.
+ */
+public final class GeoGrid {
+
+    static final double EARTH_RADIUS_KM = 6371.0;
+    static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final LongHashMap<ServiceCells> services;
+    private final int locationCount;
+    private final long version;
+    private final long loadedAtMillis;
+
+    private GeoGrid(double cellDegrees, LongHashMap<ServiceCells> services, int locationCount, long version,
+                    long loadedAtMillis) {
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.ceil(180.0 / cellDegrees);
+        this.lonCells = (int) Math.ceil(360.0 / cellDegrees);
+        this.services = services;
+        this.locationCount = locationCount;
+        this.version = version;
+        this.loadedAtMillis = loadedAtMillis;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    /**
+     * Number of (professional, service) locations in the index.
+     */
+    public int size() {
+        return locationCount;
+    }
+
+    /**
+     * Ids of the professionals offering the service within {@code radiusKm} of the point,
+     * nearest first.
+     */
+    public List<Long> within(long serviceId, double latitude, double longitude, double radiusKm) {
+        ServiceCells cells = services.get(serviceId);
+        if (cells == null || radiusKm < 0) {
+            return new ArrayList<>();
+        }
+        Matches matches = new Matches();
+        collect(cells, latitude, longitude, radiusKm, matches);
+        return matches.sortedIds(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ids of the (at most) {@code limit} professionals offering the service nearest to the point
+     * and within {@code maxRadiusKm}, nearest first. The search radius starts at one cell and
+     * doubles until it holds enough professionals; those are then the nearest ones.
+     */
+    public List<Long> nearest(long serviceId, double latitude, double longitude, int limit, double maxRadiusKm) {
+        ServiceCells cells = services.get(serviceId);
+        if (cells == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        double radiusKm = Math.min(cellDegrees * KM_PER_DEGREE, maxRadiusKm);
+        while (true) {
+            Matches matches = new Matches();
+            collect(cells, latitude, longitude, radiusKm, matches);
+            if (matches.size >= limit || radiusKm >= maxRadiusKm) {
+                return matches.sortedIds(limit);
+            }
+            radiusKm = Math.min(radiusKm * 2, maxRadiusKm);
+        }
+    }
+
+    private void collect(ServiceCells cells, double latitude, double longitude, double radiusKm, Matches matches) {
+        double[] box = boundingBox(latitude, longitude, radiusKm);
+        int fromLat = latIndex(box[0]);
+        int toLat = latIndex(box[1]);
+        boolean allLongitudes = box[2] == -180.0 && box[3] == 180.0;
+        int fromLon = allLongitudes ? 0 : lonIndex(box[2]);
+        int lonSpan = allLongitudes ? lonCells : Math.floorMod(lonIndex(box[3]) - fromLon, lonCells) + 1;
+
+        if ((long) (toLat - fromLat + 1) * lonSpan >= cells.byKey.size()) {
+            // The box covers more grid cells than the service has points in, so scan its cells
+            cells.byKey.forEach((key, cell) -> cell.collect(latitude, longitude, radiusKm, matches));
+            return;
+        }
+        for (int lat = fromLat; lat <= toLat; lat++) {
+            for (int i = 0; i < lonSpan; i++) {
+                Cell cell = cells.byKey.get(key(lat, (fromLon + i) % lonCells));
+                if (cell != null) {
+                    cell.collect(latitude, longitude, radiusKm, matches);
+                }
+            }
+        }
+    }
+
+    /**
+     * {minLat, maxLat, minLon, maxLon} of the circle; minLon is greater than maxLon when the box
+     * crosses the antimeridian, and the box spans all longitudes when it reaches a pole.
+     */
+    static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double minLat = latitude - Math.toDegrees(angular);
+        double maxLat = latitude + Math.toDegrees(angular);
+        double sin = Math.sin(angular);
+        double cos = Math.cos(Math.toRadians(latitude));
+        if (minLat <= -90.0 || maxLat >= 90.0 || angular >= Math.PI / 2 || sin >= cos) {
+            return new double[] {Math.max(minLat, -90.0), Math.min(maxLat, 90.0), -180.0, 180.0};
+        }
+        double deltaLon = Math.toDegrees(Math.asin(sin / cos));
+        return new double[] {minLat, maxLat, normalizeLongitude(longitude - deltaLon), normalizeLongitude(longitude + deltaLon)};
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        double normalized = ((longitude + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+        return normalized == -180.0 && longitude > 0 ? 180.0 : normalized;
+    }
+
+    private int latIndex(double latitude) {
+        return Math.min(latCells - 1, Math.max(0, (int) Math.floor((latitude + 90.0) / cellDegrees)));
+    }
+
+    private int lonIndex(double longitude) {
+        return Math.min(lonCells - 1, Math.max(0, (int) Math.floor((longitude + 180.0) / cellDegrees)));
+    }
+
+    private long key(int latIndex, int lonIndex) {
+        return (long) latIndex * lonCells + lonIndex;
+    }
+
+    private static final class ServiceCells {
+        private final LongHashMap<Cell> byKey = new LongHashMap<>();
+        private int size;
+
+        private boolean containsAny(LongHashMap<Boolean> professionalIds) {
+            boolean[] found = new boolean[1];
+            byKey.forEach((key, cell) -> {
+                for (int i = 0; i < cell.size && !found[0]; i++) {
+                    found[0] = professionalIds.containsKey(cell.ids[i]);
+                }
+            });
+            return found[0];
+        }
+    }
+
+    private static final class Cell {
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        private void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        private void collect(double latitude, double longitude, double radiusKm, Matches matches) {
+            for (int i = 0; i < size; i++) {
+                double distance = distanceKm(latitude, longitude, latitudes[i], longitudes[i]);
+                if (distance <= radiusKm) {
+                    matches.add(ids[i], distance);
+                }
+            }
+        }
+    }
+
+    private static final class Matches {
+        private long[] ids = new long[16];
+        private double[] distances = new double[16];
+        private int size;
+
+        private void add(long id, double distance) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            ids[size] = id;
+            distances[size] = distance;
+            size++;
+        }
+
+        private List<Long> sortedIds(int limit) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> {
+                int byDistance = Double.compare(distances[a], distances[b]);
+                return byDistance != 0 ? byDistance : Long.compare(ids[a], ids[b]);
+            });
+            int count = Math.min(limit, size);
+            List<Long> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(ids[order[i]]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Collects locations and builds the grid; not thread-safe.
+     *
+     * A builder started from an existing grid begins with that grid's locations minus those of
+     * the given professionals. Only the services it changes are copied; the built grid shares
+     * the others with the existing one, which stays unchanged.
+     */
+    public static final class Builder {
+        private final double cellDegrees;
+        private final GeoGrid layout;
+        private final LongHashMap<ServiceCells> services = new LongHashMap<>();
+        private final GeoGrid base;
+        private final LongHashMap<Boolean> removed;
+        private int locationCount;
+
+        public Builder(double cellDegrees) {
+            if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+                throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees: " + cellDegrees);
+            }
+            this.cellDegrees = cellDegrees;
+            this.layout = new GeoGrid(cellDegrees, null, 0, 0, 0);
+            this.base = null;
+            this.removed = new LongHashMap<>();
+        }
+
+        public Builder(GeoGrid base, Collection<Long> removedProfessionalIds) {
+            this.cellDegrees = base.cellDegrees;
+            this.layout = new GeoGrid(cellDegrees, null, 0, 0, 0);
+            this.base = base;
+            this.removed = new LongHashMap<>(removedProfessionalIds.size());
+            for (Long id : removedProfessionalIds) {
+                removed.put(id, Boolean.TRUE);
+            }
+            base.services.forEach((serviceId, cells) -> {
+                if (cells.containsAny(removed)) {
+                    copyFromBase(serviceId, cells);
+                }
+            });
+        }
+
+        /**
+         * Adds the location of a professional offering a service; points outside valid
+         * coordinates are skipped.
+         */
+        public Builder location(long professionalId, long serviceId, double latitude, double longitude) {
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180
+                    || Double.isNaN(latitude) || Double.isNaN(longitude)) {
+                return this;
+            }
+            ServiceCells cells = services.get(serviceId);
+            if (cells == null) {
+                ServiceCells baseCells = base != null ? base.services.get(serviceId) : null;
+                cells = baseCells != null ? copyFromBase(serviceId, baseCells) : new ServiceCells();
+                services.put(serviceId, cells);
+            }
+            long key = layout.key(layout.latIndex(latitude), layout.lonIndex(longitude));
+            Cell cell = cells.byKey.get(key);
+            if (cell == null) {
+                cell = new Cell();
+                cells.byKey.put(key, cell);
+            }
+            cell.add(professionalId, latitude, longitude);
+            cells.size++;
+            locationCount++;
+            return this;
+        }
+
+        public GeoGrid build(long version) {
+            if (base == null) {
+                return new GeoGrid(cellDegrees, services, locationCount, version, System.currentTimeMillis());
+            }
+            LongHashMap<ServiceCells> merged = new LongHashMap<>(base.services.size() + services.size());
+            int[] count = {locationCount};
+            base.services.forEach((serviceId, cells) -> {
+                if (!services.containsKey(serviceId)) {
+                    merged.put(serviceId, cells);
+                    count[0] += cells.size;
+                }
+            });
+            services.forEach((serviceId, cells) -> {
+                if (cells.size > 0) {
+                    merged.put(serviceId, cells);
+                }
+            });
+            return new GeoGrid(cellDegrees, merged, count[0], version, System.currentTimeMillis());
+        }
+
+        /**
+         * Copies the base grid's locations of a service, except the removed professionals', into
+         * this builder.
+         */
+        private ServiceCells copyFromBase(long serviceId, ServiceCells baseCells) {
+            ServiceCells cells = new ServiceCells();
+            services.put(serviceId, cells);
+            baseCells.byKey.forEach((key, baseCell) -> {
+                for (int i = 0; i < baseCell.size; i++) {
+                    if (!removed.containsKey(baseCell.ids[i])) {
+                        location(baseCell.ids[i], serviceId, baseCell.latitudes[i], baseCell.longitudes[i]);
+                    }
+                }
+            });
+            return cells;
+        }
+    }
+}
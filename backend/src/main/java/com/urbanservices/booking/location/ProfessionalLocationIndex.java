@@ -0,0 +1,241 @@
+package com.urbanservices.booking.location;
+
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Answers "which professionals offering this service are near this point" from an in-memory
+ * {@link GeoGrid} of professional locations, so nearby searches only look at nearby professionals.
+ *
+ * The grid is loaded on first use. Professionals changed through the services are re-read after
+ * commit and swapped into a copy of the grid that shares every service they are not listed under;
+ * the whole grid is reloaded every refresh interval to pick up changes made elsewhere. Changes
+ * that commit while a reload is running are applied again once it is published.
+ * With the index disabled, or while no grid could be loaded, queries fall back to a bounding-box
+ * query on the indexed location columns followed by the same exact distance check.
+ */
+@Component
+public class ProfessionalLocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProfessionalLocationIndex.class);
+
+    private final ProfessionalRepository professionalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<GeoGrid> current = new AtomicReference<>();
+    private final Set<Long> changedDuringRefresh = ConcurrentHashMap.newKeySet();
+    private final Timer refreshTimer;
+    private volatile boolean refreshing;
+    private long lastVersion;
+
+    @Value("${app.geo.index-enabled:true}")
+    private boolean indexEnabled;
+
+    // 0.05 degrees is about 5.5 km north-south
+    @Value("${app.geo.cell-degrees:0.05}")
+    private double cellDegrees;
+
+    @Value("${app.geo.max-nearest-radius-km:100}")
+    private double maxNearestRadiusKm;
+
+    public ProfessionalLocationIndex(ProfessionalRepository professionalRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.professionalRepository = professionalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTimer = Timer.builder("geo.index.refresh")
+                .description("Time spent loading the professional location index from the database")
+                .register(meterRegistry);
+        Gauge.builder("geo.index.locations", current, reference -> reference.get() != null ? reference.get().size() : 0)
+                .description("Professional service locations in the location index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ids of the professionals offering the service within {@code radiusKm} of the point,
+     * nearest first.
+     */
+    public List<Long> within(long serviceId, double latitude, double longitude, double radiusKm) {
+        GeoGrid grid = grid();
+        if (grid != null) {
+            return grid.within(serviceId, latitude, longitude, radiusKm);
+        }
+        return fallback(serviceId, latitude, longitude, radiusKm).within(serviceId, latitude, longitude, radiusKm);
+    }
+
+    /**
+     * Ids of the {@code limit} professionals offering the service nearest to the point, up to
+     * the configured maximum distance, nearest first.
+     */
+    public List<Long> nearest(long serviceId, double latitude, double longitude, int limit) {
+        GeoGrid grid = grid();
+        if (grid != null) {
+            return grid.nearest(serviceId, latitude, longitude, limit, maxNearestRadiusKm);
+        }
+        return fallback(serviceId, latitude, longitude, maxNearestRadiusKm)
+                .nearest(serviceId, latitude, longitude, limit, maxNearestRadiusKm);
+    }
+
+    /**
+     * Re-reads the professionals' locations once the current transaction commits, or right away
+     * outside one.
+     */
+    public void professionalsChanged(Collection<Long> ids) {
+        if (!indexEnabled || ids.isEmpty()) {
+            return;
+        }
+        List<Long> changed = new ArrayList<>(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateQuietly(changed);
+                }
+            });
+        } else {
+            updateQuietly(changed);
+        }
+    }
+
+    public void professionalChanged(Long id) {
+        if (id != null) {
+            professionalsChanged(List.of(id));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.geo.refresh-interval-ms:60000}",
+            initialDelayString = "${app.geo.refresh-interval-ms:60000}")
+    public void refreshPeriodically() {
+        if (indexEnabled && current.get() != null) {
+            refreshQuietly();
+        }
+    }
+
+    /**
+     * Loads a new grid and publishes it. Refreshes are serialized, so a grid built from older
+     * data never replaces a newer one.
+     */
+    public synchronized GeoGrid refresh() {
+        long version = lastVersion + 1;
+        changedDuringRefresh.clear();
+        refreshing = true;
+        GeoGrid grid;
+        try {
+            grid = refreshTimer.record(() -> transactionTemplate.execute(status -> {
+                GeoGrid.Builder builder = new GeoGrid.Builder(cellDegrees);
+                for (Object[] row : professionalRepository.findServiceLocations()) {
+                    builder.location((Long) row[0], (Long) row[1], (Double) row[2], (Double) row[3]);
+                }
+                return builder.build(version);
+            }));
+            lastVersion = version;
+            current.set(grid);
+        } finally {
+            refreshing = false;
+        }
+        if (!changedDuringRefresh.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringRefresh);
+            changedDuringRefresh.clear();
+            grid = update(changed);
+        }
+        logger.debug("Loaded location index version {} with {} locations", version, grid.size());
+        return grid;
+    }
+
+    /**
+     * Replaces the professionals' locations in the published grid. The rows are read after their
+     * change committed, so they may be applied to whichever grid is current when the swap happens.
+     */
+    private GeoGrid update(List<Long> ids) {
+        List<Object[]> rows = transactionTemplate.execute(status ->
+                professionalRepository.findServiceLocationsByProfessionalIds(ids));
+        while (true) {
+            GeoGrid grid = current.get();
+            GeoGrid.Builder builder = new GeoGrid.Builder(grid, ids);
+            for (Object[] row : rows) {
+                builder.location((Long) row[0], (Long) row[1], (Double) row[2], (Double) row[3]);
+            }
+            GeoGrid updated = builder.build(grid.getVersion());
+            if (current.compareAndSet(grid, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    private GeoGrid grid() {
+        if (!indexEnabled) {
+            return null;
+        }
+        GeoGrid grid = current.get();
+        if (grid == null) {
+            refreshQuietly();
+            grid = current.get();
+        }
+        return grid;
+    }
+
+    private void updateQuietly(List<Long> ids) {
+        if (refreshing) {
+            changedDuringRefresh.addAll(ids);
+        }
+        if (current.get() == null) {
+            // Loaded with the change on first use
+            return;
+        }
+        try {
+            update(ids);
+        } catch (RuntimeException e) {
+            // Picked up by the next refresh
+            logger.error("Failed to update the location index for {}", ids, e);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Queries use the previous grid, or the database while there is none
+            logger.error("Failed to refresh the location index", e);
+        }
+    }
+
+    /**
+     * A grid of only the candidates inside the search circle's bounding box, read from the
+     * database (two ranges when the box crosses the antimeridian).
+     */
+    private GeoGrid fallback(long serviceId, double latitude, double longitude, double radiusKm) {
+        double[] box = GeoGrid.boundingBox(latitude, longitude, radiusKm);
+        List<Object[]> rows = new ArrayList<>();
+        if (box[2] <= box[3]) {
+            rows.addAll(professionalRepository.findServiceLocationsInBox(serviceId, box[0], box[1], box[2], box[3]));
+        } else {
+            rows.addAll(professionalRepository.findServiceLocationsInBox(serviceId, box[0], box[1], box[2], 180.0));
+            rows.addAll(professionalRepository.findServiceLocationsInBox(serviceId, box[0], box[1], -180.0, box[3]));
+        }
+        GeoGrid.Builder builder = new GeoGrid.Builder(cellDegrees);
+        for (Object[] row : rows) {
+            builder.location((Long) row[0], serviceId, (Double) row[1], (Double) row[2]);
+        }
+        return builder.build(0);
+    }
+}
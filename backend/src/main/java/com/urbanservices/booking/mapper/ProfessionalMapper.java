@@ -28,7 +28,11 @@ public interface ProfessionalMapper extends BaseMapper<ProfessionalDto, Professi
     @Mapping(target = "country", source = "address.country")
     @Mapping(target = "postalCode", source = "address.postalCode")
     @Mapping(target = "state", source = "address.state")
-    @Mapping(target = "totalBookings", expression = "java(entity.getBookings() != null ? (long) entity.getBookings().size() : 0L)")
+    @Mapping(target = "latitude", source = "latitude")
+    @Mapping(target = "longitude", source = "longitude")
+    @Mapping(target = "averageRating", source = "averageRating")
+    @Mapping(target = "totalReviews", source = "totalReviews")
+    @Mapping(target = "totalBookings", ignore = true) // Loaded with a grouped count, not the bookings collection
     // Only include fields that exist in ProfessionalDto
     @Mapping(target = "createdAt", source = "createdAt")
     @Mapping(target = "updatedAt", source = "updatedAt")
@@ -73,6 +77,8 @@ public interface ProfessionalMapper extends BaseMapper<ProfessionalDto, Professi
         address.setState(dto.getState());
         address.setPostalCode(dto.getPostalCode());
         address.setCountry(dto.getCountry());
+        address.setLatitude(dto.getLatitude());
+        address.setLongitude(dto.getLongitude());
         address.setDefault(false);
         address.setLabel("Professional Address");
         
@@ -113,6 +119,10 @@ public interface ProfessionalMapper extends BaseMapper<ProfessionalDto, Professi
         existingAddress.setState(dto.getState());
         existingAddress.setPostalCode(dto.getPostalCode());
         existingAddress.setCountry(dto.getCountry());
+        if (dto.getLatitude() != null && dto.getLongitude() != null) {
+            existingAddress.setLatitude(dto.getLatitude());
+            existingAddress.setLongitude(dto.getLongitude());
+        }
         
         return existingAddress;
     }
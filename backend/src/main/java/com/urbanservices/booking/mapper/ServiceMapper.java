@@ -16,7 +16,8 @@ public interface ServiceMapper extends BaseMapper<ServiceDto, Service> {
     @Mapping(target = "categoryId", source = "category.id")
     @Mapping(target = "categoryName", source = "category.name")
     @Mapping(target = "active", source = "active")
-    @Mapping(target = "totalBookings", expression = "java(service.getBookings() != null ? (long) service.getBookings().size() : 0L)")
+    @Mapping(target = "totalBookings", ignore = true) // Counted per page with a grouped query
+    @Mapping(target = "totalProfessionals", ignore = true)
     ServiceDto toDto(Service service);
     
     @Override
@@ -24,6 +25,7 @@ public interface ServiceMapper extends BaseMapper<ServiceDto, Service> {
     @Mapping(target = "professionals", ignore = true)
     @Mapping(target = "addons", ignore = true)
     @Mapping(target = "bookings", ignore = true)
+    @Mapping(target = "ratingSummary", ignore = true) // Written only by the review path and reconciliation
     @Mapping(target = "active", source = "active")
     Service toEntity(ServiceDto serviceDto);
     
@@ -33,6 +35,7 @@ public interface ServiceMapper extends BaseMapper<ServiceDto, Service> {
     @Mapping(target = "professionals", ignore = true)
     @Mapping(target = "addons", ignore = true)
     @Mapping(target = "bookings", ignore = true)
+    @Mapping(target = "ratingSummary", ignore = true) // Written only by the review path and reconciliation
     @Mapping(target = "active", source = "active")
     void updateEntityFromDto(ServiceDto dto, @MappingTarget Service entity);
 }
@@ -32,6 +32,10 @@ public class Address extends BaseEntity {
     @Column(nullable = false)
     private String country;
     
+    private Double latitude;
+    
+    private Double longitude;
+    
     @Column(name = "is_default")
     private boolean isDefault = false;
     
@@ -1,5 +1,6 @@
 package com.urbanservices.booking.model;
 
+import com.urbanservices.booking.availability.AvailabilityChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,6 +11,7 @@ import java.time.LocalTime;
 
 @Entity
 @Table(name = "availabilities")
+@EntityListeners(AvailabilityChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
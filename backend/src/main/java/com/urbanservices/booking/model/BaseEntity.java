@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 @Setter
 @EntityListeners(AuditingEntityListener.class)
 public abstract class BaseEntity {
+    // One pooled sequence per entity hierarchy (a sequence table where the database has no
+    // sequences); unlike identity columns this lets Hibernate batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @CreatedDate
@@ -8,8 +8,16 @@ import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
+// Indexes match the repository queries (see V3__booking_query_indexes.sql). InnoDB appends the
+// primary key to secondary indexes, so (booking_date, id) keyset pages are read in index order;
+// conflict checks and busy intervals are bounded by end_date > start on the end_date index.
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_professional_date", columnList = "professional_id, booking_date"),
+        @Index(name = "idx_bookings_professional_end", columnList = "professional_id, end_date"),
+        @Index(name = "idx_bookings_customer_date", columnList = "customer_id, booking_date"),
+        @Index(name = "idx_bookings_status_date", columnList = "status, booking_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
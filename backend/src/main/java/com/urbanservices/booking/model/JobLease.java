@@ -0,0 +1,45 @@
+package com.urbanservices.booking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease and progress of one unit of a scheduled job (e.g. one shard of one day's reminder run).
+ * A node works on the unit only while it holds the lease, renewing it at every checkpoint; the
+ * checkpoint is the last processed id, so a node that takes over an expired lease continues
+ * where the previous one stopped. A completed unit is never run again.
+ */
+@Entity
+@Table(name = "job_leases",
+       uniqueConstraints = @UniqueConstraint(name = "uk_job_leases_job_key", columnNames = "job_key"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class JobLease extends BaseEntity {
+
+    @Column(name = "job_key", nullable = false, length = 191)
+    private String jobKey;
+
+    @Column(length = 100)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private long lastProcessedId = 0;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount = 0;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public JobLease(String jobKey) {
+        this.jobKey = jobKey;
+    }
+}
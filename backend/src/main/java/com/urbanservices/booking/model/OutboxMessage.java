@@ -0,0 +1,66 @@
+package com.urbanservices.booking.model;
+
+import com.urbanservices.booking.model.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email written in the same transaction as the change it reports and delivered later by
+ * OutboxDispatcher. The idempotency key identifies the event, so enqueueing it twice keeps one
+ * message and a message that was sent is never claimed again.
+ */
+@Entity
+@Table(name = "outbox_messages",
+       uniqueConstraints = @UniqueConstraint(name = "uk_outbox_idempotency_key", columnNames = "idempotency_key"),
+       indexes = @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OutboxMessage extends BaseEntity {
+
+    @Column(name = "idempotency_key", nullable = false, length = 191)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false)
+    private boolean html = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // Also pushed forward while a dispatcher holds the message, so a crashed one releases it
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public OutboxMessage(String idempotencyKey, String recipient, String subject, String content, boolean html,
+                         LocalDateTime nextAttemptAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+        this.html = html;
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
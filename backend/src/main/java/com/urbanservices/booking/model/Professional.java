@@ -3,11 +3,17 @@ package com.urbanservices.booking.model;
 import com.urbanservices.booking.model.enums.UserRole;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "professionals")
+@Table(name = "professionals",
+       indexes = @Index(name = "idx_professionals_location", columnList = "latitude, longitude"))
+@DynamicUpdate // Rating columns are only written by delta updates, never from a stale entity
 @Getter
 @Setter
 @NoArgsConstructor
@@ -32,12 +38,18 @@ public class Professional extends User {
     @Column(name = "is_available")
     private boolean isAvailable = true;
     
+    // Where the professional works from, copied from the address; indexed for nearby searches
+    private Double latitude;
+    
+    private Double longitude;
+    
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "professional_services",
         joinColumns = @JoinColumn(name = "professional_id"),
         inverseJoinColumns = @JoinColumn(name = "service_id")
     )
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "professional-services")
     private Set<Service> services = new HashSet<>();
     
     @OneToMany(mappedBy = "professional", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -52,13 +64,18 @@ public class Professional extends User {
     @OneToMany(mappedBy = "professional", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Review> reviews = new HashSet<>();
     
-    @Transient
-    private Double averageRating;
-    
-    @Transient
-    private Integer totalReviews;
+    @Embedded
+    private RatingSummary ratingSummary = new RatingSummary();
     
     public Professional(String name, String email, String password, String phone) {
         super(name, email, password, phone, UserRole.ROLE_PROFESSIONAL, true);
     }
+    
+    public Double getAverageRating() {
+        return ratingSummary != null ? ratingSummary.getAverage() : 0.0;
+    }
+    
+    public Integer getTotalReviews() {
+        return ratingSummary != null ? ratingSummary.getRatingCount() : 0;
+    }
 }
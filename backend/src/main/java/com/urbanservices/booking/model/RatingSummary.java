@@ -0,0 +1,99 @@
+package com.urbanservices.booking.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Persisted review aggregates of a professional or service: the rating sum, the review count
+ * and a histogram of star ratings. The review write path keeps the columns up to date with
+ * single-row delta updates; ReviewServiceImpl's reconciliation job repairs any drift.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+public class RatingSummary {
+
+    @Column(name = "rating_sum", nullable = false)
+    private long ratingSum = 0;
+
+    @Column(name = "rating_count", nullable = false)
+    private int ratingCount = 0;
+
+    @Column(name = "rating_one_star", nullable = false)
+    private int oneStar = 0;
+
+    @Column(name = "rating_two_star", nullable = false)
+    private int twoStar = 0;
+
+    @Column(name = "rating_three_star", nullable = false)
+    private int threeStar = 0;
+
+    @Column(name = "rating_four_star", nullable = false)
+    private int fourStar = 0;
+
+    @Column(name = "rating_five_star", nullable = false)
+    private int fiveStar = 0;
+
+    /**
+     * Builds a summary from star counts indexed by rating - 1.
+     */
+    public static RatingSummary fromHistogram(int[] histogram) {
+        RatingSummary summary = new RatingSummary();
+        summary.oneStar = histogram[0];
+        summary.twoStar = histogram[1];
+        summary.threeStar = histogram[2];
+        summary.fourStar = histogram[3];
+        summary.fiveStar = histogram[4];
+        for (int i = 0; i < 5; i++) {
+            summary.ratingSum += (long) (i + 1) * histogram[i];
+            summary.ratingCount += histogram[i];
+        }
+        return summary;
+    }
+
+    /**
+     * Builds the summary of one professional or service from grouped
+     * {@code (owner id, rating, count)} rows; ratings outside 1-5 are ignored.
+     */
+    public static RatingSummary fromRatingCounts(List<Object[]> rows) {
+        int[] histogram = new int[5];
+        for (Object[] row : rows) {
+            int rating = ((Number) row[1]).intValue();
+            if (rating >= 1 && rating <= 5) {
+                histogram[rating - 1] += ((Number) row[2]).intValue();
+            }
+        }
+        return fromHistogram(histogram);
+    }
+
+    public double getAverage() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0.0;
+    }
+
+    /**
+     * Number of reviews with the given star rating, or 0 for ratings outside 1-5.
+     */
+    public int getStarCount(int stars) {
+        switch (stars) {
+            case 1: return oneStar;
+            case 2: return twoStar;
+            case 3: return threeStar;
+            case 4: return fourStar;
+            case 5: return fiveStar;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Star counts indexed by rating - 1.
+     */
+    public int[] getHistogram() {
+        return new int[] {oneStar, twoStar, threeStar, fourStar, fiveStar};
+    }
+}
@@ -2,8 +2,12 @@ package com.urbanservices.booking.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+// Latest and keyset listings per professional and per service read (created_at, id) in index order
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "idx_reviews_professional_created", columnList = "professional_id, created_at"),
+        @Index(name = "idx_reviews_service_created", columnList = "service_id, created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -2,6 +2,9 @@ package com.urbanservices.booking.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -9,6 +12,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "services")
+@DynamicUpdate // Saves only write dirty columns and leave the rating counters alone
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "service")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -39,13 +45,14 @@ public class Service extends BaseEntity {
     private Set<Professional> professionals = new HashSet<>();
     
     @OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "service-addons")
     private Set<ServiceAddon> addons = new HashSet<>();
     
     @OneToMany(mappedBy = "service", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Booking> bookings = new HashSet<>();
     
-    @Transient
-    private Double averageRating;
+    @Embedded
+    private RatingSummary ratingSummary = new RatingSummary();
     
     @Transient
     private Integer totalProfessionals;
@@ -57,8 +64,12 @@ public class Service extends BaseEntity {
         this.basePrice = basePrice;
     }
     
-    public void setAverageRating(Double averageRating) {
-        this.averageRating = averageRating;
+    public Double getAverageRating() {
+        return ratingSummary != null ? ratingSummary.getAverage() : 0.0;
+    }
+    
+    public Integer getTotalReviews() {
+        return ratingSummary != null ? ratingSummary.getRatingCount() : 0;
     }
     
     public void setActive(boolean isActive) {
@@ -2,10 +2,15 @@ package com.urbanservices.booking.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.math.BigDecimal;
 
 @Entity
 @Table(name = "service_addons")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "service-addon")
 @Getter
 @Setter
 @NoArgsConstructor
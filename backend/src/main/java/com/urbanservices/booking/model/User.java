@@ -72,6 +72,10 @@ public class User extends BaseEntity implements UserDetails {
     @Column(name = "reset_token_expiry")
     private LocalDateTime resetTokenExpiry;
     
+    // Access tokens issued before this instant are rejected
+    @Column(name = "password_changed_at")
+    private LocalDateTime passwordChangedAt;
+    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
@@ -1,5 +1,8 @@
 package com.urbanservices.booking.model.enums;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum BookingStatus {
     PENDING,            // Booking created but not yet confirmed
     CONFIRMED,          // Booking confirmed by the professional
@@ -8,5 +11,18 @@ public enum BookingStatus {
     CANCELLED,          // Booking was cancelled
     REJECTED,           // Professional rejected the booking
     EXPIRED,            // Booking expired before confirmation
-    RESCHEDULED         // Booking was rescheduled
+    RESCHEDULED;        // Booking was rescheduled
+    
+    private static final Set<BookingStatus> BLOCKING = EnumSet.of(PENDING, CONFIRMED, IN_PROGRESS, RESCHEDULED);
+    
+    /**
+     * Whether a booking in this status still occupies the professional's time slot.
+     */
+    public boolean isBlocking() {
+        return BLOCKING.contains(this);
+    }
+    
+    public static Set<BookingStatus> blockingStatuses() {
+        return EnumSet.copyOf(BLOCKING);
+    }
 }
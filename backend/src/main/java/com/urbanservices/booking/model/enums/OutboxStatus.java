@@ -0,0 +1,7 @@
+package com.urbanservices.booking.model.enums;
+
+public enum OutboxStatus {
+    PENDING,            // Waiting for the dispatcher, possibly after failed attempts
+    SENT,               // Handed to the mail server
+    FAILED              // Gave up after the maximum number of attempts
+}
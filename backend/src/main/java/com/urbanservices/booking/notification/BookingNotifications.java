@@ -0,0 +1,168 @@
+package com.urbanservices.booking.notification;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.repository.UserRepository;
+import com.urbanservices.booking.service.impl.EmailServiceImpl.BookingConfirmationModel;
+import com.urbanservices.booking.service.impl.EmailServiceImpl.BookingReminderModel;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the customer emails for booking lifecycle events to the outbox. Each event has its own
+ * idempotency key (the booking id, plus the booking date where a booking can see the event more
+ * than once), so retried requests and re-run jobs do not email the customer twice. Confirmations
+ * and reminders are rendered from the HTML templates; reminders are rendered as one batch.
+ */
+@Component
+public class BookingNotifications {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("EEE d MMM yyyy, HH:mm");
+
+    private final NotificationOutbox outbox;
+    private final UserRepository userRepository;
+    private final CatalogCache catalogCache;
+    private final EmailTemplateRenderer templateRenderer;
+
+    public BookingNotifications(NotificationOutbox outbox, UserRepository userRepository, CatalogCache catalogCache,
+                                EmailTemplateRenderer templateRenderer) {
+        this.outbox = outbox;
+        this.userRepository = userRepository;
+        this.catalogCache = catalogCache;
+        this.templateRenderer = templateRenderer;
+    }
+
+    public void bookingCreated(Booking booking) {
+        Long customerId = booking.getCustomer().getId();
+        String[] contact = contacts(Collections.singleton(customerId)).get(customerId);
+        if (contact == null) {
+            return;
+        }
+        BigDecimal total = booking.getTotalAmount() != null ? booking.getTotalAmount() : BigDecimal.ZERO;
+        BookingConfirmationModel model = new BookingConfirmationModel(contact[1], String.valueOf(booking.getId()),
+                serviceName(booking), null, booking.getBookingDate().format(DATE_TIME), null, total.doubleValue());
+        String html = templateRenderer.render("booking-confirmation", model, templateRenderer.getDefaultLocale());
+        outbox.enqueueHtml("booking-created:" + booking.getId(), contact[0],
+                "Booking received - #" + booking.getId(), html);
+    }
+
+    public void bookingRescheduled(Booking booking) {
+        enqueue("booking-rescheduled:" + booking.getId() + ":" + booking.getBookingDate(), booking,
+                "Booking rescheduled - #" + booking.getId(),
+                "Your booking #%d for %s has been moved to %s.");
+    }
+
+    public void bookingCancelled(Booking booking) {
+        enqueue("booking-cancelled:" + booking.getId(), booking,
+                "Booking cancelled - #" + booking.getId(),
+                "Your booking #%d for %s on %s has been cancelled.");
+    }
+
+    public void bookingCompleted(Booking booking) {
+        enqueue("booking-completed:" + booking.getId(), booking,
+                "Booking completed - #" + booking.getId(),
+                "Your booking #%d for %s on %s is complete. Thank you! You can now leave a review.");
+    }
+
+    public void bookingReminder(Booking booking) {
+        bookingReminders(Collections.singletonList(Reminder.of(booking)));
+    }
+
+    /**
+     * Queues the reminders for a batch of bookings, looking up all customers in one query and
+     * rendering all emails in one pass.
+     */
+    public void bookingReminders(List<Reminder> reminders) {
+        if (reminders.isEmpty()) {
+            return;
+        }
+        Set<Long> customerIds = new HashSet<>(reminders.size() * 2);
+        for (Reminder reminder : reminders) {
+            customerIds.add(reminder.customerId);
+        }
+        Map<Long, String[]> contacts = contacts(customerIds);
+
+        List<Reminder> recipients = new ArrayList<>(reminders.size());
+        List<BookingReminderModel> models = new ArrayList<>(reminders.size());
+        for (Reminder reminder : reminders) {
+            String[] contact = contacts.get(reminder.customerId);
+            if (contact != null) {
+                recipients.add(reminder);
+                models.add(new BookingReminderModel(contact[1], String.valueOf(reminder.bookingId),
+                        serviceName(reminder.serviceId), reminder.bookingDate.format(DATE_TIME)));
+            }
+        }
+        List<String> html = templateRenderer.renderAll("booking-reminder", models, templateRenderer.getDefaultLocale());
+
+        for (int i = 0; i < recipients.size(); i++) {
+            Reminder reminder = recipients.get(i);
+            outbox.enqueueHtml("booking-reminder:" + reminder.bookingId + ":" + reminder.bookingDate,
+                    contacts.get(reminder.customerId)[0],
+                    "Reminder: upcoming booking - #" + reminder.bookingId, html.get(i));
+        }
+    }
+
+    private void enqueue(String idempotencyKey, Booking booking, String subject, String template) {
+        // The customer on a new booking is only an id reference, so the address is looked up
+        String to = userRepository.findEmailById(booking.getCustomer().getId()).orElse(null);
+        String content = String.format(template, booking.getId(), serviceName(booking),
+                booking.getBookingDate().format(DATE_TIME));
+        outbox.enqueue(idempotencyKey, to, subject, content);
+    }
+
+    /**
+     * Email and name by user id, as {email, name}; users without an email are left out.
+     */
+    private Map<Long, String[]> contacts(Set<Long> userIds) {
+        Map<Long, String[]> contacts = new HashMap<>(userIds.size() * 2);
+        for (Object[] row : userRepository.findContactsByIds(userIds)) {
+            if (row[1] != null) {
+                contacts.put((Long) row[0], new String[] {(String) row[1], (String) row[2]});
+            }
+        }
+        return contacts;
+    }
+
+    private String serviceName(Booking booking) {
+        return serviceName(booking.getService().getId());
+    }
+
+    private String serviceName(Long serviceId) {
+        CatalogSnapshot.ServiceEntry service = catalogCache.service(serviceId);
+        return service != null ? service.getName() : "your service";
+    }
+
+    /**
+     * The booking fields a reminder needs, so reminder jobs can page through bookings without
+     * loading the entities.
+     */
+    public static final class Reminder {
+        private final Long bookingId;
+        private final Long customerId;
+        private final Long serviceId;
+        private final LocalDateTime bookingDate;
+
+        public Reminder(Long bookingId, Long customerId, Long serviceId, LocalDateTime bookingDate) {
+            this.bookingId = bookingId;
+            this.customerId = customerId;
+            this.serviceId = serviceId;
+            this.bookingDate = bookingDate;
+        }
+
+        public static Reminder of(Booking booking) {
+            return new Reminder(booking.getId(), booking.getCustomer().getId(), booking.getService().getId(),
+                    booking.getBookingDate());
+        }
+    }
+}
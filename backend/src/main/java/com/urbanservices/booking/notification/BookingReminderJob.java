@@ -0,0 +1,240 @@
+package com.urbanservices.booking.notification;
+
+import com.urbanservices.booking.model.JobLease;
+import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.JobLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues the reminder emails for the next day's PENDING and CONFIRMED bookings.
+ *
+ * The day's bookings are split into shards by id; each shard is a unit of work with its own row
+ * in job_leases. A node only works on a shard while it holds the shard's lease, so with several
+ * instances each shard is processed by one node, and shards are spread over the nodes that ask.
+ * A shard is read in keyset pages of booking ids (only the columns a reminder needs), and each
+ * page is queued, checkpointed and the lease renewed in one transaction, so memory stays bounded
+ * and a node that dies mid-shard is taken over from the last checkpoint once its lease expires.
+ * The job runs several times a day; finished shards are skipped, so later runs only pick up work
+ * left by a failed node. Shards owned by this node are processed in parallel.
+ */
+@Component
+public class BookingReminderJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingReminderJob.class);
+    private static final String JOB_NAME = "booking-reminders";
+    private static final List<BookingStatus> REMINDED_STATUSES = List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final BookingNotifications bookingNotifications;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter queuedCounter;
+    private final String owner;
+
+    @Value("${app.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reminders.shards:4}")
+    private int shards;
+
+    @Value("${app.reminders.page-size:200}")
+    private int pageSize;
+
+    @Value("${app.reminders.parallelism:2}")
+    private int parallelism;
+
+    @Value("${app.reminders.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.reminders.retention-days:30}")
+    private int retentionDays;
+
+    public BookingReminderJob(BookingRepository bookingRepository,
+                              JobLeaseRepository jobLeaseRepository,
+                              BookingNotifications bookingNotifications,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.bookingNotifications = bookingNotifications;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queuedCounter = Counter.builder("booking.reminders.queued")
+                .description("Booking reminders handed to the outbox")
+                .register(meterRegistry);
+        this.owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    @Scheduled(cron = "${app.reminders.cron:0 */15 9-20 * * ?}")
+    public void runPeriodically() {
+        if (enabled) {
+            try {
+                run(LocalDate.now().plusDays(1));
+            } catch (RuntimeException e) {
+                // Shards that were not finished are picked up by the next run
+                logger.error("Booking reminder run failed", e);
+            }
+        }
+    }
+
+    /**
+     * Processes every shard of {@code day} this node can lease; returns the number of bookings
+     * processed by this node.
+     */
+    public int run(LocalDate day) {
+        transactionTemplate.executeWithoutResult(status -> jobLeaseRepository.deleteCompletedBefore(
+                LocalDateTime.now().minusDays(retentionDays)));
+
+        int shardCount = Math.max(1, shards);
+        int threads = Math.max(1, Math.min(parallelism, shardCount));
+        if (threads == 1) {
+            int processed = 0;
+            for (int shard = 0; shard < shardCount; shard++) {
+                processed += runShard(day, shard, shardCount);
+            }
+            return processed;
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "booking-reminders-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Integer>> results = new ArrayList<>(shardCount);
+            for (int shard = 0; shard < shardCount; shard++) {
+                int current = shard;
+                results.add(executor.submit(() -> runShard(day, current, shardCount)));
+            }
+            int processed = 0;
+            for (Future<Integer> result : results) {
+                try {
+                    processed += result.get();
+                } catch (ExecutionException e) {
+                    logger.error("Booking reminder shard failed; it resumes from its checkpoint", e.getCause());
+                }
+            }
+            return processed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int runShard(LocalDate day, int shard, int shardCount) {
+        String jobKey = JOB_NAME + ":" + day + ":" + shard + "/" + shardCount;
+        JobLease lease = acquire(jobKey);
+        if (lease == null) {
+            // Finished, or another node holds the lease
+            return 0;
+        }
+
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        long afterId = lease.getLastProcessedId();
+        int processed = 0;
+        while (true) {
+            long cursor = afterId;
+            long[] page = transactionTemplate.execute(status -> processPage(status, jobKey, from, to, cursor, shard, shardCount));
+            if (page == null) {
+                logger.warn("Lost the lease on {} after {} bookings; another node continues it", jobKey, processed);
+                return processed;
+            }
+            processed += (int) page[1];
+            if (page[1] < pageSize) {
+                logger.info("Finished {}: {} bookings processed by {}", jobKey, processed, owner);
+                return processed;
+            }
+            afterId = page[0];
+        }
+    }
+
+    /**
+     * Queues the reminders of the next page and records it; returns the last id and the number of
+     * bookings on the page, or null (after rolling back) if the lease was lost.
+     */
+    private long[] processPage(TransactionStatus status, String jobKey, LocalDateTime from, LocalDateTime to,
+                               long afterId, int shard, int shardCount) {
+        List<Object[]> rows = bookingRepository.findReminderPage(from, to, REMINDED_STATUSES, afterId,
+                shardCount, shard, PageRequest.of(0, pageSize));
+        List<BookingNotifications.Reminder> reminders = new ArrayList<>(rows.size());
+        long lastId = afterId;
+        for (Object[] row : rows) {
+            reminders.add(new BookingNotifications.Reminder((Long) row[0], (Long) row[1], (Long) row[2],
+                    (LocalDateTime) row[3]));
+            lastId = (Long) row[0];
+        }
+        bookingNotifications.bookingReminders(reminders);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (jobLeaseRepository.checkpoint(jobKey, owner, lastId, rows.size(), now, leaseUntil(now)) == 0) {
+            status.setRollbackOnly();
+            return null;
+        }
+        if (rows.size() < pageSize) {
+            jobLeaseRepository.complete(jobKey, owner, now);
+        }
+        queuedCounter.increment(rows.size());
+        return new long[] {lastId, rows.size()};
+    }
+
+    /**
+     * Creates the shard's row on first use and takes its lease; returns null if the shard is
+     * finished or leased by another node.
+     */
+    private JobLease acquire(String jobKey) {
+        if (jobLeaseRepository.findByJobKey(jobKey).isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobLeaseRepository.saveAndFlush(new JobLease(jobKey)));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created it first
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (jobLeaseRepository.acquire(jobKey, owner, now, leaseUntil(now)) == 0) {
+                return null;
+            }
+            return jobLeaseRepository.findByJobKey(jobKey).orElse(null);
+        });
+    }
+
+    private LocalDateTime leaseUntil(LocalDateTime now) {
+        return now.plusNanos(leaseMs * 1_000_000L);
+    }
+}
@@ -0,0 +1,105 @@
+package com.urbanservices.booking.notification;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders the HTML email templates under templates/emails/.
+ *
+ * Parsed templates are kept by the template engine's cache (spring.thymeleaf.cache, on in
+ * production). The header and footer fragments only depend on the locale, so they are rendered
+ * once per locale and handed to every template as the {@code header} and {@code footer}
+ * variables instead of being re-evaluated in each email. {@link #renderAll} renders a whole batch
+ * with one evaluation context. With the cache off (development) fragments are rendered on every
+ * call, so template edits show up straight away.
+ */
+@Component
+public class EmailTemplateRenderer {
+
+    static final String HEADER_FRAGMENT = "fragments/header";
+    static final String FOOTER_FRAGMENT = "fragments/footer";
+
+    private final ITemplateEngine templateEngine;
+    private final boolean cacheFragments;
+    private final Locale defaultLocale;
+    private final Map<Locale, Fragments> fragments = new ConcurrentHashMap<>();
+
+    public EmailTemplateRenderer(ITemplateEngine templateEngine,
+                                 @Value("${spring.thymeleaf.cache:true}") boolean cacheFragments,
+                                 @Value("${app.mail.default-locale:en}") Locale defaultLocale) {
+        this.templateEngine = templateEngine;
+        this.cacheFragments = cacheFragments;
+        this.defaultLocale = defaultLocale;
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Renders one email; the template sees the model as {@code model}.
+     */
+    public String render(String templateName, Object model, Locale locale) {
+        Context context = newContext(locale);
+        context.setVariable("model", model);
+        return templateEngine.process(templateName, context);
+    }
+
+    /**
+     * Renders the template once per model, in order.
+     */
+    public List<String> renderAll(String templateName, List<?> models, Locale locale) {
+        List<String> rendered = new ArrayList<>(models.size());
+        if (models.isEmpty()) {
+            return rendered;
+        }
+        Context context = newContext(locale);
+        for (Object model : models) {
+            context.setVariable("model", model);
+            rendered.add(templateEngine.process(templateName, context));
+        }
+        return rendered;
+    }
+
+    /**
+     * Drops the pre-rendered fragments, e.g. after the message bundles changed.
+     */
+    public void clearFragments() {
+        fragments.clear();
+    }
+
+    private Context newContext(Locale locale) {
+        Locale resolved = locale != null ? locale : defaultLocale;
+        Fragments localized = cacheFragments
+                ? fragments.computeIfAbsent(resolved, this::renderFragments)
+                : renderFragments(resolved);
+        Context context = new Context(resolved);
+        context.setVariable("header", localized.header);
+        context.setVariable("footer", localized.footer);
+        return context;
+    }
+
+    private Fragments renderFragments(Locale locale) {
+        Context context = new Context(locale);
+        return new Fragments(templateEngine.process(HEADER_FRAGMENT, context),
+                templateEngine.process(FOOTER_FRAGMENT, context));
+    }
+
+    private static final class Fragments {
+        private final String header;
+        private final String footer;
+
+        private Fragments(String header, String footer) {
+            this.header = header;
+            this.footer = footer;
+        }
+    }
+}
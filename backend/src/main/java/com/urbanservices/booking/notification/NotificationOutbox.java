@@ -0,0 +1,54 @@
+package com.urbanservices.booking.notification;
+
+import com.urbanservices.booking.model.OutboxMessage;
+import com.urbanservices.booking.repository.OutboxMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Queues emails in the outbox table as part of the caller's transaction, so a notification is
+ * stored if and only if the change it reports commits. {@link OutboxDispatcher} delivers them
+ * in the background; callers never wait for the mail server.
+ */
+@Component
+public class NotificationOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    public NotificationOutbox(OutboxMessageRepository outboxMessageRepository) {
+        this.outboxMessageRepository = outboxMessageRepository;
+    }
+
+    /**
+     * Queues a plain-text email. Returns false if a message with the same idempotency key was
+     * already queued, or if there is no recipient.
+     */
+    @Transactional
+    public boolean enqueue(String idempotencyKey, String to, String subject, String content) {
+        return enqueue(idempotencyKey, to, subject, content, false);
+    }
+
+    @Transactional
+    public boolean enqueueHtml(String idempotencyKey, String to, String subject, String htmlContent) {
+        return enqueue(idempotencyKey, to, subject, htmlContent, true);
+    }
+
+    private boolean enqueue(String idempotencyKey, String to, String subject, String content, boolean html) {
+        if (to == null || to.isBlank()) {
+            logger.warn("Not queueing email {}: no recipient", idempotencyKey);
+            return false;
+        }
+        if (outboxMessageRepository.existsByIdempotencyKey(idempotencyKey)) {
+            logger.debug("Email {} is already queued", idempotencyKey);
+            return false;
+        }
+        outboxMessageRepository.save(new OutboxMessage(idempotencyKey, to, subject, content, html, LocalDateTime.now()));
+        return true;
+    }
+}
@@ -0,0 +1,234 @@
+package com.urbanservices.booking.notification;
+
+import com.urbanservices.booking.model.OutboxMessage;
+import com.urbanservices.booking.model.enums.OutboxStatus;
+import com.urbanservices.booking.repository.OutboxMessageRepository;
+import com.urbanservices.booking.service.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the outbox table to {@link EmailService} in batches.
+ *
+ * Each batch is claimed in a short transaction that locks the due rows (skipping rows locked by
+ * another instance) and moves their next attempt past the lease, then sent outside any
+ * transaction, one SMTP connection per chunk of messages, with the chunks sent in parallel on the
+ * mail executor. Sent messages are marked in one update; failed ones are retried with exponential
+ * backoff and jitter until the attempt limit, then marked FAILED. A dispatcher that dies
+ * mid-batch releases its messages when the lease runs out, so delivery is at least once.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final EmailService emailService;
+    private final Executor mailExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${app.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.mail.messages-per-connection:50}")
+    private int messagesPerConnection;
+
+    @Value("${app.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxDispatcher(OutboxMessageRepository outboxMessageRepository,
+                            EmailService emailService,
+                            @Qualifier("mailExecutor") Executor mailExecutor,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.emailService = emailService;
+        this.mailExecutor = mailExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = outcomeCounter(meterRegistry, "sent");
+        this.retriedCounter = outcomeCounter(meterRegistry, "retried");
+        this.failedCounter = outcomeCounter(meterRegistry, "failed");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("outbox.messages")
+                .description("Outbox delivery attempts by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}",
+            initialDelayString = "${app.outbox.poll-interval-ms:2000}")
+    public void dispatchPeriodically() {
+        if (enabled) {
+            try {
+                dispatch();
+            } catch (RuntimeException e) {
+                // Claimed messages come back once their lease expires
+                logger.error("Outbox dispatch failed", e);
+            }
+        }
+    }
+
+    /**
+     * Sends due messages batch by batch until none are left; returns the number of attempts made.
+     */
+    public int dispatch() {
+        int attempts = 0;
+        while (true) {
+            List<OutboxMessage> batch = claim();
+            if (batch.isEmpty()) {
+                return attempts;
+            }
+            deliver(batch);
+            attempts += batch.size();
+            if (batch.size() < batchSize) {
+                return attempts;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * ?}")
+    public void deleteSentMessages() {
+        Integer deleted = transactionTemplate.execute(status -> outboxMessageRepository.deleteByStatusUpdatedBefore(
+                OutboxStatus.SENT, LocalDateTime.now().minusDays(retentionDays)));
+        logger.info("Deleted {} sent outbox messages older than {} days", deleted, retentionDays);
+    }
+
+    private List<OutboxMessage> claim() {
+        List<OutboxMessage> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxMessage> due = outboxMessageRepository.findDueForUpdate(
+                    OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseUntil = now.plusNanos(leaseMs * 1_000_000L);
+            for (OutboxMessage message : due) {
+                message.setNextAttemptAt(leaseUntil);
+            }
+            return due;
+        });
+        return batch != null ? batch : Collections.emptyList();
+    }
+
+    private void deliver(List<OutboxMessage> batch) {
+        List<EmailService.Email> emails = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            emails.add(new EmailService.Email(message.getRecipient(), message.getSubject(), message.getContent(),
+                    message.isHtml()));
+        }
+        boolean[] delivered = send(emails);
+
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (delivered[i]) {
+                sent.add(batch.get(i).getId());
+            } else {
+                // EmailService logs the cause of a failed send
+                recordFailure(batch.get(i), "Email service reported a failed send");
+            }
+        }
+
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxMessageRepository.markSent(
+                    sent, LocalDateTime.now(), OutboxStatus.SENT, OutboxStatus.PENDING));
+            sentCounter.increment(sent.size());
+        }
+    }
+
+    /**
+     * Splits the emails into one chunk per SMTP connection and sends the chunks side by side on
+     * the mail executor.
+     */
+    private boolean[] send(List<EmailService.Email> emails) {
+        int chunk = Math.max(1, messagesPerConnection);
+        List<CompletableFuture<List<Boolean>>> parts = new ArrayList<>();
+        for (int from = 0; from < emails.size(); from += chunk) {
+            List<EmailService.Email> part = emails.subList(from, Math.min(emails.size(), from + chunk));
+            parts.add(CompletableFuture.supplyAsync(() -> emailService.sendEmails(part), mailExecutor));
+        }
+
+        boolean[] delivered = new boolean[emails.size()];
+        int position = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            int size = Math.min(chunk, emails.size() - position);
+            try {
+                List<Boolean> results = parts.get(i).join();
+                for (int j = 0; j < size; j++) {
+                    delivered[position + j] = Boolean.TRUE.equals(results.get(j));
+                }
+            } catch (CompletionException e) {
+                logger.error("Failed to send {} outbox messages", size, e.getCause());
+            }
+            position += size;
+        }
+        return delivered;
+    }
+
+    private void recordFailure(OutboxMessage message, String error) {
+        int attempts = message.getAttempts() + 1;
+        LocalDateTime now = LocalDateTime.now();
+        boolean exhausted = attempts >= maxAttempts;
+        OutboxStatus status = exhausted ? OutboxStatus.FAILED : OutboxStatus.PENDING;
+        LocalDateTime nextAttemptAt = exhausted ? now : now.plusNanos(backoffMs(attempts) * 1_000_000L);
+        String truncated = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+
+        transactionTemplate.executeWithoutResult(tx -> outboxMessageRepository.markAttemptFailed(
+                message.getId(), status, attempts, nextAttemptAt, truncated, now));
+        if (exhausted) {
+            failedCounter.increment();
+            logger.error("Giving up on email {} to {} after {} attempts: {}",
+                    message.getIdempotencyKey(), message.getRecipient(), attempts, error);
+        } else {
+            retriedCounter.increment();
+            logger.warn("Email {} failed (attempt {} of {}), retrying at {}: {}",
+                    message.getIdempotencyKey(), attempts, maxAttempts, nextAttemptAt, error);
+        }
+    }
+
+    /**
+     * Doubles per attempt up to the cap, with up to 20% jitter so failures do not retry in lockstep.
+     */
+    private long backoffMs(int attempts) {
+        long backoff = initialBackoffMs << Math.min(attempts - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoffMs) {
+            backoff = maxBackoffMs;
+        }
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1);
+    }
+}
@@ -0,0 +1,114 @@
+package com.urbanservices.booking.pricing;
+
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.util.LongHashMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service and add-on prices in minor currency units, compiled from one {@link CatalogSnapshot}.
+ * Each service keeps its add-on ids sorted with their prices in a parallel array, so pricing a
+ * request is one hash lookup plus a binary search per add-on, on primitives only.
+ *
+ * Immutable; a new table is compiled for every snapshot version.
+ */
+public final class PriceTable {
+
+    /**
+     * Decimal places of a minor unit; the price columns are stored with two.
+     */
+    public static final int MINOR_UNIT_SCALE = 2;
+
+    private final long version;
+    private final LongHashMap<ServicePrices> services;
+
+    private PriceTable(long version, LongHashMap<ServicePrices> services) {
+        this.version = version;
+        this.services = services;
+    }
+
+    static PriceTable compile(CatalogSnapshot catalog) {
+        LongHashMap<List<CatalogSnapshot.Addon>> addonsByService = new LongHashMap<>(catalog.serviceCount());
+        catalog.forEachAddon(addon -> {
+            List<CatalogSnapshot.Addon> addons = addonsByService.get(addon.getServiceId());
+            if (addons == null) {
+                addons = new ArrayList<>();
+                addonsByService.put(addon.getServiceId(), addons);
+            }
+            addons.add(addon);
+        });
+
+        LongHashMap<ServicePrices> services = new LongHashMap<>(catalog.serviceCount());
+        catalog.forEachService(service -> services.put(service.getId(),
+                new ServicePrices(toMinorUnits(service.getBasePrice()), addonsByService.get(service.getId()))));
+        return new PriceTable(catalog.getVersion(), services);
+    }
+
+    /**
+     * Version of the catalog snapshot this table was compiled from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Prices of the service, or null if the catalog has no such service.
+     */
+    public ServicePrices service(long serviceId) {
+        return services.get(serviceId);
+    }
+
+    /**
+     * The amount in minor units, rounding half up past {@link #MINOR_UNIT_SCALE}; null counts as zero.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+    }
+
+    public static final class ServicePrices {
+        private final long basePrice;
+        private final long[] addonIds;
+        private final long[] addonPrices;
+
+        private ServicePrices(long basePrice, List<CatalogSnapshot.Addon> addons) {
+            this.basePrice = basePrice;
+            int size = addons != null ? addons.size() : 0;
+            this.addonIds = new long[size];
+            this.addonPrices = new long[size];
+            if (size > 0) {
+                addons.sort(Comparator.comparingLong(CatalogSnapshot.Addon::getId));
+                for (int i = 0; i < size; i++) {
+                    addonIds[i] = addons.get(i).getId();
+                    addonPrices[i] = toMinorUnits(addons.get(i).getPrice());
+                }
+            }
+        }
+
+        /**
+         * Base price in minor units.
+         */
+        public long basePrice() {
+            return basePrice;
+        }
+
+        /**
+         * Price of one unit of the add-on in minor units, or -1 if the service does not offer it.
+         */
+        public long addonPrice(long addonId) {
+            int index = Arrays.binarySearch(addonIds, addonId);
+            return index >= 0 ? addonPrices[index] : -1;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.urbanservices.booking.pricing;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.dto.BookingAddonDto;
+import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.exception.ResourceNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Prices bookings from a {@link PriceTable} compiled from the current catalog snapshot. Totals
+ * are accumulated in minor units with overflow-checked long arithmetic and only converted to
+ * {@link BigDecimal} when returned.
+ *
+ * A total is the service base price plus each selected add-on times its quantity, multiplied by
+ * the number of whole hours for bookings longer than an hour. A selected add-on is identified by
+ * its {@code addonId}, or by its {@code id} as the booking form used to send it; one without
+ * either, or that the service does not offer, fails the quote rather than being left out of it.
+ */
+@Component
+public class PricingEngine {
+
+    private final CatalogCache catalogCache;
+    private final AtomicReference<PriceTable> current = new AtomicReference<>();
+
+    public PricingEngine(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * The price table for the current catalog snapshot, compiled when the snapshot changes.
+     */
+    public PriceTable priceTable() {
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        PriceTable table = current.get();
+        if (table == null || table.getVersion() != catalog.getVersion()) {
+            // Concurrent callers may compile the same version twice; both results are equal
+            table = PriceTable.compile(catalog);
+            current.set(table);
+        }
+        return table;
+    }
+
+    public BigDecimal quote(BookingDto bookingDto) throws ResourceNotFoundException {
+        return PriceTable.toAmount(quoteMinorUnits(priceTable(), bookingDto));
+    }
+
+    /**
+     * Prices every request against the same price table, e.g. a whole cart or the same booking
+     * with several professionals. Totals are returned in request order.
+     */
+    public List<BigDecimal> quoteAll(List<BookingDto> bookingDtos) throws ResourceNotFoundException {
+        PriceTable table = priceTable();
+        List<BigDecimal> totals = new ArrayList<>(bookingDtos.size());
+        for (BookingDto bookingDto : bookingDtos) {
+            totals.add(PriceTable.toAmount(quoteMinorUnits(table, bookingDto)));
+        }
+        return totals;
+    }
+
+    /**
+     * The total in minor units of {@link PriceTable#MINOR_UNIT_SCALE}.
+     */
+    public long quoteMinorUnits(PriceTable table, BookingDto bookingDto) throws ResourceNotFoundException {
+        Long serviceId = bookingDto.getServiceId();
+        PriceTable.ServicePrices prices = servicePrices(table, serviceId);
+        long total = prices.basePrice();
+
+        Set<BookingAddonDto> addons = bookingDto.getAddons();
+        if (addons != null) {
+            for (BookingAddonDto addon : addons) {
+                long price = addonPrice(prices, serviceId, addonId(addon));
+                total = Math.addExact(total, Math.multiplyExact(price, quantity(addon)));
+            }
+        }
+
+        return Math.multiplyExact(total, durationMultiplier(bookingDto.getBookingDate(), bookingDto.getEndDate()));
+    }
+
+    private PriceTable.ServicePrices servicePrices(PriceTable table, Long serviceId) throws ResourceNotFoundException {
+        PriceTable.ServicePrices prices = serviceId != null ? table.service(serviceId) : null;
+        if (prices == null && serviceId != null && catalogCache.service(serviceId) != null) {
+            // Created after the table was compiled; the lookup above reloaded the snapshot
+            prices = priceTable().service(serviceId);
+        }
+        if (prices == null) {
+            throw new ResourceNotFoundException("Service not found with id: " + serviceId);
+        }
+        return prices;
+    }
+
+    private long addonPrice(PriceTable.ServicePrices prices, long serviceId, long addonId)
+            throws ResourceNotFoundException {
+        long price = prices.addonPrice(addonId);
+        if (price < 0) {
+            CatalogSnapshot.Addon addon = catalogCache.addon(addonId);
+            if (addon != null && addon.getServiceId() == serviceId) {
+                // Created after the table was compiled; the lookup above reloaded the snapshot
+                PriceTable.ServicePrices current = priceTable().service(serviceId);
+                price = current != null ? current.addonPrice(addonId) : -1;
+            }
+        }
+        if (price < 0) {
+            throw new ResourceNotFoundException("Add-on not found with id: " + addonId + " for service: " + serviceId);
+        }
+        return price;
+    }
+
+    private static long addonId(BookingAddonDto addon) {
+        Long addonId = addon.getAddonId() != null ? addon.getAddonId() : addon.getId();
+        if (addonId == null) {
+            throw new IllegalArgumentException("Add-on id is required");
+        }
+        return addonId;
+    }
+
+    private static long quantity(BookingAddonDto addon) {
+        if (addon.getQuantity() == null) {
+            return 1;
+        }
+        if (addon.getQuantity() < 1) {
+            throw new IllegalArgumentException("Add-on quantity must be at least 1");
+        }
+        return addon.getQuantity();
+    }
+
+    /**
+     * Whole hours for bookings longer than an hour, otherwise 1.
+     */
+    private static long durationMultiplier(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            return 1;
+        }
+        long hours = ChronoUnit.HOURS.between(start, end);
+        return hours > 1 ? hours : 1;
+    }
+}
@@ -0,0 +1,21 @@
+package com.urbanservices.booking.repository;
+
+import com.urbanservices.booking.model.Availability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AvailabilityRepository extends JpaRepository<Availability, Long> {
+    
+    @Query("SELECT a FROM Availability a WHERE a.professional.id = :professionalId")
+    List<Availability> findByProfessionalId(@Param("professionalId") Long professionalId);
+    
+    @Query("SELECT a.professional.id, a.dayOfWeek, a.startTime, a.endTime, a.isRecurring, a.specificDate " +
+           "FROM Availability a WHERE a.professional.id IN :professionalIds")
+    List<Object[]> findScheduleRows(@Param("professionalIds") Collection<Long> professionalIds);
+}
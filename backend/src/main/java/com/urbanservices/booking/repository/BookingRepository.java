@@ -4,12 +4,14 @@ import com.urbanservices.booking.model.Booking;
 import com.urbanservices.booking.model.enums.BookingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -35,52 +37,143 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND " +
-           "((b.bookingDate <= :endTime) AND (b.endDate >= :startTime))")
+    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.status IN :statuses AND " +
+           "b.bookingDate < :endTime AND b.endDate > :startTime")
     List<Booking> findConflictingBookings(
             @Param("professionalId") Long professionalId,
             @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime);
+            @Param("endTime") LocalDateTime endTime,
+            @Param("statuses") Collection<BookingStatus> statuses);
+    
+    @Query("SELECT b.id, b.bookingDate, b.endDate FROM Booking b WHERE b.professional.id = :professionalId " +
+           "AND b.status IN :statuses AND b.endDate > :from ORDER BY b.bookingDate ASC")
+    List<Object[]> findBookingIntervals(
+            @Param("professionalId") Long professionalId,
+            @Param("from") LocalDateTime from,
+            @Param("statuses") Collection<BookingStatus> statuses);
+    
+    @Query("SELECT b.id, b.bookingDate, b.endDate FROM Booking b WHERE b.professional.id = :professionalId " +
+           "AND b.status IN :statuses AND b.bookingDate < :to AND b.endDate > :from")
+    List<Object[]> findBookingIntervalsBetween(
+            @Param("professionalId") Long professionalId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<BookingStatus> statuses);
+    
+    @Query("SELECT b.professional.id, b.bookingDate, b.endDate FROM Booking b WHERE b.professional.id IN :professionalIds " +
+           "AND b.status IN :statuses AND b.bookingDate < :to AND b.endDate > :from")
+    List<Object[]> findBookingIntervalsForProfessionals(
+            @Param("professionalIds") Collection<Long> professionalIds,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<BookingStatus> statuses);
+    
+    // Returns professional id and booking count for every professional with bookings
+    @Query("SELECT b.professional.id, COUNT(b) FROM Booking b " +
+           "WHERE b.professional.id IN :professionalIds GROUP BY b.professional.id")
+    List<Object[]> countByProfessionalIds(@Param("professionalIds") Collection<Long> professionalIds);
+    
+    // Returns service id and booking count for every service with bookings
+    @Query("SELECT b.service.id, COUNT(b) FROM Booking b " +
+           "WHERE b.service.id IN :serviceIds GROUP BY b.service.id")
+    List<Object[]> countByServiceIds(@Param("serviceIds") Collection<Long> serviceIds);
+    
+    // Returns service id and booking count of every service with bookings
+    @Query("SELECT b.service.id, COUNT(b) FROM Booking b GROUP BY b.service.id")
+    List<Object[]> countByService();
+    
+    // Returns professional id and booking count of the most booked professionals
+    @Query("SELECT b.professional.id, COUNT(b) FROM Booking b " +
+           "GROUP BY b.professional.id ORDER BY COUNT(b) DESC, b.professional.id ASC")
+    List<Object[]> findTopBookedProfessionalCounts(Pageable pageable);
+    
+    // Returns service id and booking count of the most booked active services
+    @Query("SELECT b.service.id, COUNT(b) FROM Booking b WHERE b.service.isActive = true " +
+           "GROUP BY b.service.id ORDER BY COUNT(b) DESC, b.service.id ASC")
+    List<Object[]> findTopBookedServiceCounts(Pageable pageable);
     
     @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.status = 'COMPLETED'")
     Page<Booking> findCompletedBookingsByProfessional(
             @Param("professionalId") Long professionalId,
             Pageable pageable);
             
-    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND b.bookingDate >= :now ORDER BY b.bookingDate ASC")
-    Page<Booking> findCustomerUpcomingBookings(
+    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND b.bookingDate >= :now ORDER BY b.bookingDate ASC, b.id ASC")
+    Slice<Booking> findCustomerUpcomingBookings(
             @Param("customerId") Long customerId,
             @Param("now") LocalDateTime now,
             Pageable pageable);
             
-    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.bookingDate >= :now ORDER BY b.bookingDate ASC")
-    Page<Booking> findProfessionalUpcomingBookings(
+    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.bookingDate >= :now ORDER BY b.bookingDate ASC, b.id ASC")
+    Slice<Booking> findProfessionalUpcomingBookings(
             @Param("professionalId") Long professionalId,
             @Param("now") LocalDateTime now,
             Pageable pageable);
             
-    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND b.bookingDate < :now")
-    Page<Booking> findCustomerPastBookings(
+    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND b.bookingDate < :now ORDER BY b.bookingDate DESC, b.id DESC")
+    Slice<Booking> findCustomerPastBookings(
             @Param("customerId") Long customerId,
             @Param("now") LocalDateTime now,
             Pageable pageable);
             
-    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.bookingDate < :now")
-    Page<Booking> findProfessionalPastBookings(
+    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.bookingDate < :now ORDER BY b.bookingDate DESC, b.id DESC")
+    Slice<Booking> findProfessionalPastBookings(
             @Param("professionalId") Long professionalId,
             @Param("now") LocalDateTime now,
             Pageable pageable);
             
+    // Keyset pages of a customer's bookings after / before the (bookingDate, id) position
+    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND (b.bookingDate > :bookingDate " +
+           "OR (b.bookingDate = :bookingDate AND b.id > :id)) ORDER BY b.bookingDate ASC, b.id ASC")
+    Slice<Booking> findCustomerBookingsAfter(
+            @Param("customerId") Long customerId,
+            @Param("bookingDate") LocalDateTime bookingDate,
+            @Param("id") long id,
+            Pageable pageable);
+    
+    @Query("SELECT b FROM Booking b WHERE b.customer.id = :customerId AND (b.bookingDate < :bookingDate " +
+           "OR (b.bookingDate = :bookingDate AND b.id < :id)) ORDER BY b.bookingDate DESC, b.id DESC")
+    Slice<Booking> findCustomerBookingsBefore(
+            @Param("customerId") Long customerId,
+            @Param("bookingDate") LocalDateTime bookingDate,
+            @Param("id") long id,
+            Pageable pageable);
+    
+    // Keyset pages of a professional's bookings after / before the (bookingDate, id) position
+    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND (b.bookingDate > :bookingDate " +
+           "OR (b.bookingDate = :bookingDate AND b.id > :id)) ORDER BY b.bookingDate ASC, b.id ASC")
+    Slice<Booking> findProfessionalBookingsAfter(
+            @Param("professionalId") Long professionalId,
+            @Param("bookingDate") LocalDateTime bookingDate,
+            @Param("id") long id,
+            Pageable pageable);
+    
+    @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND (b.bookingDate < :bookingDate " +
+           "OR (b.bookingDate = :bookingDate AND b.id < :id)) ORDER BY b.bookingDate DESC, b.id DESC")
+    Slice<Booking> findProfessionalBookingsBefore(
+            @Param("professionalId") Long professionalId,
+            @Param("bookingDate") LocalDateTime bookingDate,
+            @Param("id") long id,
+            Pageable pageable);
+            
     @Query("SELECT b FROM Booking b WHERE b.professional.id = :professionalId AND b.bookingDate BETWEEN :startDate AND :endDate")
     List<Booking> findByProfessionalIdAndBookingDateBetween(
             @Param("professionalId") Long professionalId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
             
-    @Query("SELECT b FROM Booking b WHERE b.bookingDate BETWEEN :startDate AND :endDate")
-    List<Booking> findByBookingDateBetween(
-            @Param("startDate") LocalDateTime startDate,
-            @Param("endDate") LocalDateTime endDate);
+    // Returns id, customer id, service id and booking date of the next bookings after afterId in
+    // one shard (id modulo shards) of the window, by id, for keyset pagination
+    @Query("SELECT b.id, b.customer.id, b.service.id, b.bookingDate FROM Booking b " +
+           "WHERE b.bookingDate >= :from AND b.bookingDate < :to AND b.status IN :statuses " +
+           "AND b.id > :afterId AND MOD(b.id, :shards) = :shard ORDER BY b.id")
+    List<Object[]> findReminderPage(
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("statuses") Collection<BookingStatus> statuses,
+            @Param("afterId") long afterId,
+            @Param("shards") int shards,
+            @Param("shard") int shard,
+            Pageable pageable);
     
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.professional.id = :professionalId AND b.status = 'COMPLETED'")
     Long countCompletedBookingsByProfessional(@Param("professionalId") Long professionalId);
@@ -0,0 +1,53 @@
+package com.urbanservices.booking.repository;
+
+import com.urbanservices.booking.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, Long> {
+
+    Optional<JobLease> findByJobKey(String jobKey);
+
+    /**
+     * Takes the lease if the unit is not complete and the lease is free, expired or already
+     * held by {@code owner}; returns 1 if the caller now holds it.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.owner = :owner, l.leaseUntil = :leaseUntil, l.updatedAt = :now " +
+           "WHERE l.jobKey = :jobKey AND l.completedAt IS NULL " +
+           "AND (l.leaseUntil IS NULL OR l.leaseUntil < :now OR l.owner = :owner)")
+    int acquire(@Param("jobKey") String jobKey,
+                @Param("owner") String owner,
+                @Param("now") LocalDateTime now,
+                @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Records progress and renews the lease; returns 0 if {@code owner} no longer holds it.
+     */
+    @Modifying
+    @Query("UPDATE JobLease l SET l.lastProcessedId = :lastProcessedId, " +
+           "l.processedCount = l.processedCount + :processed, l.leaseUntil = :leaseUntil, l.updatedAt = :now " +
+           "WHERE l.jobKey = :jobKey AND l.owner = :owner AND l.completedAt IS NULL")
+    int checkpoint(@Param("jobKey") String jobKey,
+                   @Param("owner") String owner,
+                   @Param("lastProcessedId") long lastProcessedId,
+                   @Param("processed") long processed,
+                   @Param("now") LocalDateTime now,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE JobLease l SET l.completedAt = :now, l.leaseUntil = NULL, l.updatedAt = :now " +
+           "WHERE l.jobKey = :jobKey AND l.owner = :owner AND l.completedAt IS NULL")
+    int complete(@Param("jobKey") String jobKey, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM JobLease l WHERE l.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,57 @@
+package com.urbanservices.booking.repository;
+
+import com.urbanservices.booking.model.OutboxMessage;
+import com.urbanservices.booking.model.enums.OutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Locks the oldest due messages, skipping rows another dispatcher has locked
+     * (lock timeout -2 is Hibernate's SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = :status AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<OutboxMessage> findDueForUpdate(@Param("status") OutboxStatus status,
+                                         @Param("now") LocalDateTime now,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :sent, m.attempts = m.attempts + 1, m.sentAt = :now, " +
+           "m.lastError = NULL, m.updatedAt = :now WHERE m.id IN :ids AND m.status = :pending")
+    int markSent(@Param("ids") Collection<Long> ids,
+                 @Param("now") LocalDateTime now,
+                 @Param("sent") OutboxStatus sent,
+                 @Param("pending") OutboxStatus pending);
+
+    @Modifying
+    @Query("UPDATE OutboxMessage m SET m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, " +
+           "m.lastError = :error, m.updatedAt = :now WHERE m.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") OutboxStatus status,
+                          @Param("attempts") int attempts,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error,
+                          @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = :status AND m.updatedAt < :before")
+    int deleteByStatusUpdatedBefore(@Param("status") OutboxStatus status, @Param("before") LocalDateTime before);
+}
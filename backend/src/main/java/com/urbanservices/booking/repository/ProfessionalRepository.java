@@ -2,34 +2,68 @@ package com.urbanservices.booking.repository;
 
 import com.urbanservices.booking.model.Professional;
 import com.urbanservices.booking.model.Service;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProfessionalRepository extends BaseRepository<Professional, Long> {
     
+    /**
+     * Loads the professional with a row lock held until the transaction ends, so bookings for
+     * the same professional are checked for conflicts and written one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Professional p WHERE p.id = :id")
+    Optional<Professional> findByIdForUpdate(@Param("id") Long id);
+    
     @Query("SELECT p FROM Professional p JOIN p.services s WHERE s.id = :serviceId")
     Page<Professional> findByServiceId(@Param("serviceId") Long serviceId, Pageable pageable);
     
     @Query("SELECT p FROM Professional p WHERE p.isAvailable = true")
     Page<Professional> findAvailableProfessionals(Pageable pageable);
     
+    // Keyset page of available professionals before the (createdAt, id) position, newest first
+    @Query("SELECT p FROM Professional p WHERE p.isAvailable = true AND (p.createdAt < :createdAt " +
+           "OR (p.createdAt = :createdAt AND p.id < :id)) ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Professional> findAvailableProfessionalsBefore(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") long id,
+            Pageable pageable);
+    
     @Query("SELECT p FROM Professional p JOIN p.services s WHERE s.id = :serviceId AND p.isAvailable = true")
     Page<Professional> findAvailableProfessionalsByService(@Param("serviceId") Long serviceId, Pageable pageable);
     
+    // Returns (id, name) of available professionals offering the service, keyset paged by id after :afterId
+    @Query("SELECT p.id, p.name FROM Professional p JOIN p.services s WHERE s.id = :serviceId AND p.isAvailable = true " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<Object[]> findAvailableProfessionalSummariesByService(@Param("serviceId") Long serviceId,
+                                                               @Param("afterId") long afterId,
+                                                               Pageable pageable);
+    
     @Query("SELECT p FROM Professional p WHERE p.isVerified = true")
     Page<Professional> findVerifiedProfessionals(Pageable pageable);
     
     @Query("SELECT p.services FROM Professional p WHERE p.id = :professionalId")
     List<Service> findServicesByProfessionalId(@Param("professionalId") Long professionalId);
     
-    @Query("SELECT p, AVG(r.rating) as avgRating FROM Professional p LEFT JOIN p.reviews r GROUP BY p HAVING AVG(r.rating) IS NOT NULL ORDER BY avgRating DESC")
-    Page<Object[]> findTopRated(Pageable pageable);
+    @Query("SELECT p FROM Professional p WHERE p.ratingSummary.ratingCount > 0 " +
+           "ORDER BY (1.0 * p.ratingSummary.ratingSum / p.ratingSummary.ratingCount) DESC, p.ratingSummary.ratingCount DESC")
+    Page<Professional> findTopRated(Pageable pageable);
     
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.professional.id = :professionalId")
     Double calculateAverageRating(@Param("professionalId") Long professionalId);
@@ -41,19 +75,89 @@ public interface ProfessionalRepository extends BaseRepository<Professional, Lon
            "LOWER(p.email) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<Professional> search(@Param("query") String query, Pageable pageable);
     
+    // Returns id, name, email and bio of every professional, for the search index
+    @Query("SELECT p.id, p.name, p.email, p.bio FROM Professional p")
+    List<Object[]> findSearchRows();
+    
+    // Returns id, name, email and bio of the given professionals
+    @Query("SELECT p.id, p.name, p.email, p.bio FROM Professional p WHERE p.id IN :ids")
+    List<Object[]> findSearchRowsByIds(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT p FROM Professional p JOIN p.bookings b GROUP BY p ORDER BY COUNT(b) DESC")
     List<Professional> findTopBooked(@Param("limit") int limit, Pageable pageable);
     
-    @Query(value = "SELECT p.* FROM professionals p " +
-            "JOIN professional_services ps ON p.id = ps.professional_id " +
-            "WHERE ps.service_id = :serviceId " +
-            "AND (6371 * acos(cos(radians(:latitude)) * cos(radians(p.latitude)) * " +
-            "cos(radians(p.longitude) - radians(:longitude)) + sin(radians(:latitude)) * " +
-            "sin(radians(p.latitude)))) <= :radiusInKm", nativeQuery = true)
-    List<Professional> findNearbyProfessionals(
-            @Param("latitude") Double latitude,
-            @Param("longitude") Double longitude,
-            @Param("radiusInKm") Double radiusInKm,
-            @Param("serviceId") Long serviceId
-    );
+    // Returns id, rating sum and rating count of the best rated professionals
+    @Query("SELECT p.id, p.ratingSummary.ratingSum, p.ratingSummary.ratingCount FROM Professional p " +
+           "WHERE p.ratingSummary.ratingCount > 0 " +
+           "ORDER BY (1.0 * p.ratingSummary.ratingSum / p.ratingSummary.ratingCount) DESC, p.ratingSummary.ratingCount DESC, p.id ASC")
+    List<Object[]> findTopRatedScores(Pageable pageable);
+    
+    // Returns rating sum and rating count of one professional
+    @Query("SELECT p.ratingSummary.ratingSum, p.ratingSummary.ratingCount FROM Professional p WHERE p.id = :professionalId")
+    List<Object[]> findRatingScore(@Param("professionalId") Long professionalId);
+    
+    // Returns professional id, service id, latitude and longitude of every located professional
+    // for each service offered
+    @Query("SELECT p.id, s.id, p.latitude, p.longitude FROM Professional p JOIN p.services s " +
+           "WHERE p.latitude IS NOT NULL AND p.longitude IS NOT NULL")
+    List<Object[]> findServiceLocations();
+    
+    // Returns professional id, service id, latitude and longitude of the given professionals for
+    // each service offered
+    @Query("SELECT p.id, s.id, p.latitude, p.longitude FROM Professional p JOIN p.services s " +
+           "WHERE p.id IN :professionalIds AND p.latitude IS NOT NULL AND p.longitude IS NOT NULL")
+    List<Object[]> findServiceLocationsByProfessionalIds(@Param("professionalIds") Collection<Long> professionalIds);
+    
+    // Returns id, latitude and longitude of the professionals offering the service inside the box
+    @Query("SELECT p.id, p.latitude, p.longitude FROM Professional p JOIN p.services s " +
+           "WHERE s.id = :serviceId AND p.latitude BETWEEN :minLatitude AND :maxLatitude " +
+           "AND p.longitude BETWEEN :minLongitude AND :maxLongitude")
+    List<Object[]> findServiceLocationsInBox(
+            @Param("serviceId") Long serviceId,
+            @Param("minLatitude") double minLatitude,
+            @Param("maxLatitude") double maxLatitude,
+            @Param("minLongitude") double minLongitude,
+            @Param("maxLongitude") double maxLongitude);
+    
+    // Applies one review change to the stored rating summary in a single-row update. Only the
+    // rating columns change, so the declared query space names no mapped table and Hibernate
+    // keeps the second-level cache regions (professionals themselves are not cached)
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rating_summaries"))
+    @Query(value = "UPDATE professionals SET rating_sum = rating_sum + :sumDelta, rating_count = rating_count + :countDelta, " +
+           "rating_one_star = rating_one_star + CASE WHEN :addedRating = 1 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 1 THEN 1 ELSE 0 END, " +
+           "rating_two_star = rating_two_star + CASE WHEN :addedRating = 2 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 2 THEN 1 ELSE 0 END, " +
+           "rating_three_star = rating_three_star + CASE WHEN :addedRating = 3 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 3 THEN 1 ELSE 0 END, " +
+           "rating_four_star = rating_four_star + CASE WHEN :addedRating = 4 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 4 THEN 1 ELSE 0 END, " +
+           "rating_five_star = rating_five_star + CASE WHEN :addedRating = 5 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 5 THEN 1 ELSE 0 END " +
+           "WHERE id = :professionalId", nativeQuery = true)
+    int applyRatingDelta(@Param("professionalId") Long professionalId,
+                         @Param("sumDelta") long sumDelta,
+                         @Param("countDelta") int countDelta,
+                         @Param("addedRating") int addedRating,
+                         @Param("removedRating") int removedRating);
+    
+    // Overwrites the stored rating summary, unless a concurrent delta changed it since it was read
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rating_summaries"))
+    @Query(value = "UPDATE professionals SET rating_sum = :ratingSum, rating_count = :ratingCount, " +
+           "rating_one_star = :oneStar, rating_two_star = :twoStar, rating_three_star = :threeStar, " +
+           "rating_four_star = :fourStar, rating_five_star = :fiveStar " +
+           "WHERE id = :professionalId AND rating_sum = :expectedSum AND rating_count = :expectedCount", nativeQuery = true)
+    int replaceRatingSummary(@Param("professionalId") Long professionalId,
+                             @Param("expectedSum") long expectedSum,
+                             @Param("expectedCount") int expectedCount,
+                             @Param("ratingSum") long ratingSum,
+                             @Param("ratingCount") int ratingCount,
+                             @Param("oneStar") int oneStar,
+                             @Param("twoStar") int twoStar,
+                             @Param("threeStar") int threeStar,
+                             @Param("fourStar") int fourStar,
+                             @Param("fiveStar") int fiveStar);
+    
+    // Returns id and the stored summary columns of the next batch of professionals after the given id
+    @Query("SELECT p.id, p.ratingSummary.ratingSum, p.ratingSummary.ratingCount, p.ratingSummary.oneStar, " +
+           "p.ratingSummary.twoStar, p.ratingSummary.threeStar, p.ratingSummary.fourStar, p.ratingSummary.fiveStar " +
+           "FROM Professional p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findRatingSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -4,11 +4,14 @@ import com.urbanservices.booking.model.Professional;
 import com.urbanservices.booking.model.Review;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,6 +50,16 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT COUNT(r) FROM Review r WHERE r.service.id = :serviceId")
     long countByServiceId(@Param("serviceId") Long serviceId);
     
+    // Returns professional id, rating and review count, one row per rating present
+    @Query("SELECT r.professional.id, r.rating, COUNT(r) FROM Review r " +
+           "WHERE r.professional.id IN :professionalIds GROUP BY r.professional.id, r.rating")
+    List<Object[]> countRatingsByProfessionalIds(@Param("professionalIds") Collection<Long> professionalIds);
+    
+    // Returns service id, rating and review count, one row per rating present
+    @Query("SELECT r.service.id, r.rating, COUNT(r) FROM Review r " +
+           "WHERE r.service.id IN :serviceIds GROUP BY r.service.id, r.rating")
+    List<Object[]> countRatingsByServiceIds(@Param("serviceIds") Collection<Long> serviceIds);
+    
     @Query("SELECT r FROM Review r WHERE r.professional.id = :professionalId ORDER BY r.createdAt DESC")
     List<Review> findLatestReviewsByProfessionalId(@Param("professionalId") Long professionalId, Pageable pageable);
     
@@ -68,8 +81,26 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
             @Param("rating") int rating,
             Pageable pageable);
     @Query("SELECT r FROM Review r WHERE r.professional.id = :professionalId ORDER BY r.createdAt DESC")
-    Page<Review> findLatestByProfessionalId(@Param("professionalId") Long professionalId, Pageable pageable);
+    Slice<Review> findLatestByProfessionalId(@Param("professionalId") Long professionalId, Pageable pageable);
     
     @Query("SELECT r FROM Review r WHERE r.service.id = :serviceId ORDER BY r.createdAt DESC")
-    Page<Review> findLatestByServiceId(@Param("serviceId") Long serviceId, Pageable pageable);
+    Slice<Review> findLatestByServiceId(@Param("serviceId") Long serviceId, Pageable pageable);
+    
+    // Keyset page of a professional's reviews before the (createdAt, id) position, newest first
+    @Query("SELECT r FROM Review r WHERE r.professional.id = :professionalId AND (r.createdAt < :createdAt " +
+           "OR (r.createdAt = :createdAt AND r.id < :id)) ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Review> findByProfessionalIdBefore(
+            @Param("professionalId") Long professionalId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") long id,
+            Pageable pageable);
+    
+    // Keyset page of a service's reviews before the (createdAt, id) position, newest first
+    @Query("SELECT r FROM Review r WHERE r.service.id = :serviceId AND (r.createdAt < :createdAt " +
+           "OR (r.createdAt = :createdAt AND r.id < :id)) ORDER BY r.createdAt DESC, r.id DESC")
+    Slice<Review> findByServiceIdBefore(
+            @Param("serviceId") Long serviceId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") long id,
+            Pageable pageable);
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,4 +24,8 @@ public interface ServiceCategoryRepository extends JpaRepository<ServiceCategory
     
     @Query("SELECT c FROM ServiceCategory c WHERE c.active = true AND LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))")
     Page<ServiceCategory> searchActiveCategories(@Param("query") String query, Pageable pageable);
+    
+    // Catalog snapshot rows: id, name, description, image url, active
+    @Query("SELECT c.id, c.name, c.description, c.imageUrl, c.active FROM ServiceCategory c")
+    List<Object[]> findCatalogRows();
 }
@@ -2,12 +2,17 @@ package com.urbanservices.booking.repository;
 
 import com.urbanservices.booking.model.Service;
 import com.urbanservices.booking.model.ServiceCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,9 +33,25 @@ public interface ServiceRepository extends BaseRepository<Service, Long> {
     @Query("SELECT s FROM Service s JOIN s.professionals p WHERE p.id = :professionalId")
     Page<Service> findByProfessionalId(@Param("professionalId") Long professionalId, Pageable pageable);
     
+    // Catalog snapshot rows: id, name, description, category id, base price, duration, image url, active
+    @Query("SELECT s.id, s.name, s.description, s.category.id, s.basePrice, s.durationInMinutes, s.imageUrl, s.isActive FROM Service s")
+    List<Object[]> findCatalogRows();
+    
+    // Catalog snapshot rows: id, service id, name, description, price, duration, active
+    @Query("SELECT a.id, a.service.id, a.name, a.description, a.price, a.durationInMinutes, a.isActive FROM ServiceAddon a")
+    List<Object[]> findCatalogAddonRows();
+    
+    // Returns id, rating sum and rating count of each of the given services
+    @Query("SELECT s.id, s.ratingSummary.ratingSum, s.ratingSummary.ratingCount FROM Service s WHERE s.id IN :serviceIds")
+    List<Object[]> findRatingScoresByIds(@Param("serviceIds") Collection<Long> serviceIds);
+    
     @Query("SELECT DISTINCT s FROM Service s JOIN s.professionals p WHERE p.id IN :professionalIds AND s.isActive = true")
     List<Service> findDistinctByProfessionalIds(@Param("professionalIds") List<Long> professionalIds);
     
+    // Returns service id and professional count for every service offered by a professional
+    @Query("SELECT s.id, COUNT(p) FROM Service s JOIN s.professionals p WHERE s.id IN :serviceIds GROUP BY s.id")
+    List<Object[]> countProfessionalsByServiceIds(@Param("serviceIds") Collection<Long> serviceIds);
+    
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.service.id = :serviceId")
     Double calculateAverageRating(@Param("serviceId") Long serviceId);
     
@@ -43,12 +64,59 @@ public interface ServiceRepository extends BaseRepository<Service, Long> {
            "ORDER BY COUNT(b.id) DESC")
     List<Service> findTopBookedServices(@Param("limit") int limit, Pageable pageable);
     
-    @Query("SELECT s, AVG(r.rating) as avgRating FROM Service s " +
-           "LEFT JOIN s.bookings b " +
-           "LEFT JOIN b.review r " +
-           "WHERE s.isActive = true " +
-           "GROUP BY s " +
-           "HAVING AVG(r.rating) IS NOT NULL " +
-           "ORDER BY avgRating DESC")
-    Page<Object[]> findTopRated(Pageable pageable);
+    // Returns id, rating sum and rating count of the best rated active services
+    @Query("SELECT s.id, s.ratingSummary.ratingSum, s.ratingSummary.ratingCount FROM Service s " +
+           "WHERE s.isActive = true AND s.ratingSummary.ratingCount > 0 " +
+           "ORDER BY (1.0 * s.ratingSummary.ratingSum / s.ratingSummary.ratingCount) DESC, s.ratingSummary.ratingCount DESC, s.id ASC")
+    List<Object[]> findTopRatedScores(Pageable pageable);
+    
+    // Returns active flag, rating sum and rating count of one service
+    @Query("SELECT s.isActive, s.ratingSummary.ratingSum, s.ratingSummary.ratingCount FROM Service s WHERE s.id = :serviceId")
+    List<Object[]> findRatingScore(@Param("serviceId") Long serviceId);
+    
+    @Query("SELECT s FROM Service s WHERE s.isActive = true AND s.ratingSummary.ratingCount > 0 " +
+           "ORDER BY (1.0 * s.ratingSummary.ratingSum / s.ratingSummary.ratingCount) DESC, s.ratingSummary.ratingCount DESC")
+    Page<Service> findTopRated(Pageable pageable);
+    
+    // Applies one review change to the stored rating summary in a single-row update. Only the
+    // rating columns change, so the declared query space names no mapped table and Hibernate
+    // keeps the second-level cache regions; callers evict the service entry themselves
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rating_summaries"))
+    @Query(value = "UPDATE services SET rating_sum = rating_sum + :sumDelta, rating_count = rating_count + :countDelta, " +
+           "rating_one_star = rating_one_star + CASE WHEN :addedRating = 1 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 1 THEN 1 ELSE 0 END, " +
+           "rating_two_star = rating_two_star + CASE WHEN :addedRating = 2 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 2 THEN 1 ELSE 0 END, " +
+           "rating_three_star = rating_three_star + CASE WHEN :addedRating = 3 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 3 THEN 1 ELSE 0 END, " +
+           "rating_four_star = rating_four_star + CASE WHEN :addedRating = 4 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 4 THEN 1 ELSE 0 END, " +
+           "rating_five_star = rating_five_star + CASE WHEN :addedRating = 5 THEN 1 ELSE 0 END - CASE WHEN :removedRating = 5 THEN 1 ELSE 0 END " +
+           "WHERE id = :serviceId", nativeQuery = true)
+    int applyRatingDelta(@Param("serviceId") Long serviceId,
+                         @Param("sumDelta") long sumDelta,
+                         @Param("countDelta") int countDelta,
+                         @Param("addedRating") int addedRating,
+                         @Param("removedRating") int removedRating);
+    
+    // Overwrites the stored rating summary, unless a concurrent delta changed it since it was read
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "rating_summaries"))
+    @Query(value = "UPDATE services SET rating_sum = :ratingSum, rating_count = :ratingCount, " +
+           "rating_one_star = :oneStar, rating_two_star = :twoStar, rating_three_star = :threeStar, " +
+           "rating_four_star = :fourStar, rating_five_star = :fiveStar " +
+           "WHERE id = :serviceId AND rating_sum = :expectedSum AND rating_count = :expectedCount", nativeQuery = true)
+    int replaceRatingSummary(@Param("serviceId") Long serviceId,
+                             @Param("expectedSum") long expectedSum,
+                             @Param("expectedCount") int expectedCount,
+                             @Param("ratingSum") long ratingSum,
+                             @Param("ratingCount") int ratingCount,
+                             @Param("oneStar") int oneStar,
+                             @Param("twoStar") int twoStar,
+                             @Param("threeStar") int threeStar,
+                             @Param("fourStar") int fourStar,
+                             @Param("fiveStar") int fiveStar);
+    
+    // Returns id and the stored summary columns of the next batch of services after the given id
+    @Query("SELECT s.id, s.ratingSummary.ratingSum, s.ratingSummary.ratingCount, s.ratingSummary.oneStar, " +
+           "s.ratingSummary.twoStar, s.ratingSummary.threeStar, s.ratingSummary.fourStar, s.ratingSummary.fiveStar " +
+           "FROM Service s WHERE s.id > :afterId ORDER BY s.id")
+    List<Object[]> findRatingSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
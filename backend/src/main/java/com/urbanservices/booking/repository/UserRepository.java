@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,6 +25,17 @@ public interface UserRepository extends BaseRepository<User, Long> {
     
     Optional<User> findByResetToken(String resetToken);
     
+    // Returns email, role, active flag and password change time of one user
+    @Query("SELECT u.email, u.role, u.active, u.passwordChangedAt FROM User u WHERE u.id = :id")
+    List<Object[]> findSecurityState(@Param("id") Long id);
+    
+    @Query("SELECT u.email FROM User u WHERE u.id = :id")
+    Optional<String> findEmailById(@Param("id") Long id);
+    
+    // Returns id, email and name of each user
+    @Query("SELECT u.id, u.email, u.name FROM User u WHERE u.id IN :ids")
+    List<Object[]> findContactsByIds(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT u FROM User u WHERE u.role = :role")
     Page<User> findByRole(@Param("role") UserRole role, Pageable pageable);
     
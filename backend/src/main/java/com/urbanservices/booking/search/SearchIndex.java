@@ -0,0 +1,251 @@
+package com.urbanservices.booking.search;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ranked full-text search over active services (name, category and description) and
+ * professionals (name, bio and email), answered from in-memory {@link TextIndex}es.
+ *
+ * The service index is rebuilt from the catalog snapshot whenever its version changes. The
+ * professional index is loaded on first use; professionals changed through the services are
+ * re-read and updated in place after commit, and the whole index is rebuilt every refresh
+ * interval to pick up changes made elsewhere. Changes that commit while a rebuild is loading are
+ * applied again once it is published.
+ *
+ * Searches return null when the index is disabled or the query has no words, and callers then
+ * use the database.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float CATEGORY_BOOST = 1.5f;
+    private static final float TEXT_BOOST = 1.0f;
+    private static final float EMAIL_BOOST = 0.5f;
+
+    private final CatalogCache catalogCache;
+    private final ProfessionalRepository professionalRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<TextIndex> services = new AtomicReference<>();
+    private final AtomicReference<TextIndex> professionals = new AtomicReference<>();
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private final Timer rebuildTimer;
+    private volatile boolean rebuilding;
+    private long lastVersion;
+
+    @Value("${app.search.index-enabled:true}")
+    private boolean indexEnabled;
+
+    public SearchIndex(CatalogCache catalogCache,
+                       ProfessionalRepository professionalRepository,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.catalogCache = catalogCache;
+        this.professionalRepository = professionalRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTimer = Timer.builder("search.index.rebuild")
+                .description("Time spent loading the professional search index from the database")
+                .register(meterRegistry);
+        Gauge.builder("search.index.professionals", professionals, reference -> reference.get() != null ? reference.get().size() : 0)
+                .description("Professionals in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Active services matching the query, best first; null if the database should be searched.
+     */
+    public TextIndex.Hits searchServices(String query, int offset, int limit) {
+        if (!searchable(query)) {
+            return null;
+        }
+        return serviceIndex().search(query, offset, limit);
+    }
+
+    /**
+     * Professionals matching the query, best first; null if the database should be searched.
+     */
+    public TextIndex.Hits searchProfessionals(String query, int offset, int limit) {
+        if (!searchable(query)) {
+            return null;
+        }
+        TextIndex index = professionalIndex();
+        return index != null ? index.search(query, offset, limit) : null;
+    }
+
+    private boolean searchable(String query) {
+        return indexEnabled && !TextAnalyzer.words(query).isEmpty();
+    }
+
+    /**
+     * The service index for the current catalog snapshot, rebuilt when the snapshot changes.
+     */
+    private TextIndex serviceIndex() {
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        TextIndex index = services.get();
+        if (index == null || index.getVersion() != catalog.getVersion()) {
+            // Concurrent callers may build the same version twice; both results are equal
+            TextIndex built = new TextIndex(catalog.getVersion());
+            catalog.forEachService(service -> {
+                if (service.isActive()) {
+                    built.put(service.getId(), new TextIndex.Fields()
+                            .add(service.getName(), NAME_BOOST)
+                            .add(service.getCategoryName(), CATEGORY_BOOST)
+                            .add(service.getDescription(), TEXT_BOOST));
+                }
+            });
+            services.set(built);
+            index = built;
+        }
+        return index;
+    }
+
+    /**
+     * Re-indexes the professionals once the current transaction commits, or right away outside one.
+     */
+    public void professionalsChanged(Collection<Long> ids) {
+        if (!indexEnabled || ids.isEmpty()) {
+            return;
+        }
+        List<Long> changed = new ArrayList<>(ids);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reindexQuietly(changed);
+                }
+            });
+        } else {
+            reindexQuietly(changed);
+        }
+    }
+
+    public void professionalChanged(Long id) {
+        if (id != null) {
+            professionalsChanged(List.of(id));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.refresh-interval-ms:600000}",
+            initialDelayString = "${app.search.refresh-interval-ms:600000}")
+    public void rebuildPeriodically() {
+        if (indexEnabled && professionals.get() != null) {
+            rebuildQuietly();
+        }
+    }
+
+    /**
+     * Loads a new professional index and publishes it. Rebuilds are serialized, so an index built
+     * from older data never replaces a newer one.
+     */
+    public synchronized TextIndex rebuild() {
+        long version = lastVersion + 1;
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        TextIndex index;
+        try {
+            index = rebuildTimer.record(() -> transactionTemplate.execute(status -> {
+                TextIndex built = new TextIndex(version);
+                for (Object[] row : professionalRepository.findSearchRows()) {
+                    built.put((Long) row[0], professionalFields(row));
+                }
+                return built;
+            }));
+            lastVersion = version;
+            professionals.set(index);
+        } finally {
+            rebuilding = false;
+        }
+        if (!changedDuringRebuild.isEmpty()) {
+            List<Long> changed = new ArrayList<>(changedDuringRebuild);
+            changedDuringRebuild.clear();
+            reindex(index, changed);
+        }
+        logger.debug("Loaded professional search index version {} with {} professionals", version, index.size());
+        return index;
+    }
+
+    private TextIndex professionalIndex() {
+        TextIndex index = professionals.get();
+        if (index == null) {
+            synchronized (this) {
+                if (professionals.get() == null) {
+                    rebuildQuietly();
+                }
+            }
+            index = professionals.get();
+        }
+        return index;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // Searches use the previous index, or the database while there is none
+            logger.error("Failed to rebuild the professional search index", e);
+        }
+    }
+
+    private void reindexQuietly(List<Long> ids) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(ids);
+        }
+        TextIndex index = professionals.get();
+        if (index == null) {
+            // Loaded with the change on first use
+            return;
+        }
+        try {
+            reindex(index, ids);
+        } catch (RuntimeException e) {
+            // Picked up by the next rebuild
+            logger.error("Failed to update the professional search index for {}", ids, e);
+        }
+    }
+
+    private void reindex(TextIndex index, List<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        List<Object[]> rows = transactionTemplate.execute(status -> professionalRepository.findSearchRowsByIds(ids));
+        for (Object[] row : rows) {
+            index.put((Long) row[0], professionalFields(row));
+            missing.remove((Long) row[0]);
+        }
+        for (Long id : missing) {
+            index.remove(id);
+        }
+    }
+
+    private static TextIndex.Fields professionalFields(Object[] row) {
+        return new TextIndex.Fields()
+                .add((String) row[1], NAME_BOOST)
+                .add((String) row[3], TEXT_BOOST)
+                .add((String) row[2], EMAIL_BOOST);
+    }
+}
@@ -0,0 +1,260 @@
+package com.urbanservices.booking.search;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.UserRepository;
+import com.urbanservices.booking.util.LongHashMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Search-box suggestions: active services, active categories and the most booked
+ * professionals whose names have a word starting with the typed text, most booked first.
+ *
+ * Suggestions come from two {@link SuggestionTrie}s, so a keystroke is answered from memory.
+ * Catalog suggestions are rebuilt from the catalog snapshot, without reading the database,
+ * when services change and whenever the snapshot version moves on. Booking counts and the
+ * professional suggestions are loaded on first use and reloaded every refresh interval, which
+ * also re-weights the catalog suggestions.
+ */
+@Component
+public class SuggestionIndex {
+
+    public static final String SERVICE = "SERVICE";
+    public static final String CATEGORY = "CATEGORY";
+    public static final String PROFESSIONAL = "PROFESSIONAL";
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    private final CatalogCache catalogCache;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicReference<Popularity> popularity = new AtomicReference<>();
+    private final AtomicReference<CatalogSuggestions> catalogSuggestions = new AtomicReference<>();
+    private final Timer refreshTimer;
+    private long lastVersion;
+
+    @Value("${app.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${app.suggest.professionals:500}")
+    private int professionalCount;
+
+    public SuggestionIndex(CatalogCache catalogCache,
+                           BookingRepository bookingRepository,
+                           UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry) {
+        this.catalogCache = catalogCache;
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshTimer = Timer.builder("suggestions.refresh")
+                .description("Time spent loading booking counts and professional suggestions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Up to {@code limit} suggestions for the typed text, best first; the limit is capped at
+     * the configured maximum.
+     */
+    public List<SuggestionTrie.Suggestion> suggest(String prefix, int limit) {
+        if (!enabled || prefix == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Popularity current = popularity();
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        int count = Math.min(limit, maxResults);
+        List<SuggestionTrie.Suggestion> suggestions = new ArrayList<>(2 * count);
+        suggestions.addAll(catalogTrie(current).complete(prefix, count));
+        suggestions.addAll(current.professionals.complete(prefix, count));
+        suggestions.sort(SuggestionTrie.BEST_FIRST);
+        return suggestions.size() > count ? suggestions.subList(0, count) : suggestions;
+    }
+
+    /**
+     * Rebuilds the catalog suggestions once the current transaction commits, or right away
+     * outside one. Call after {@link CatalogCache#catalogChanged()}, so the new snapshot is
+     * loaded first.
+     */
+    public void catalogChanged() {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuildCatalogQuietly();
+                }
+            });
+        } else {
+            rebuildCatalogQuietly();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.suggest.refresh-interval-ms:300000}",
+            initialDelayString = "${app.suggest.refresh-interval-ms:300000}")
+    public void refreshPeriodically() {
+        if (enabled && popularity.get() != null) {
+            refreshQuietly();
+        }
+    }
+
+    /**
+     * Reloads booking counts and the professional suggestions, and rebuilds the catalog
+     * suggestions with the new counts.
+     */
+    public synchronized void refresh() {
+        long version = lastVersion + 1;
+        Popularity loaded = refreshTimer.record(() -> transactionTemplate.execute(status -> load(version)));
+        lastVersion = version;
+        popularity.set(loaded);
+        catalogTrie(loaded);
+        logger.debug("Loaded suggestion weights version {} with {} professionals", version, loaded.professionals.size());
+    }
+
+    private Popularity popularity() {
+        Popularity current = popularity.get();
+        if (current == null) {
+            synchronized (this) {
+                if (popularity.get() == null) {
+                    refreshQuietly();
+                }
+            }
+            current = popularity.get();
+        }
+        return current;
+    }
+
+    /**
+     * The catalog suggestions for the current snapshot and booking counts, rebuilt when either
+     * has changed.
+     */
+    private SuggestionTrie catalogTrie(Popularity weights) {
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        CatalogSuggestions current = catalogSuggestions.get();
+        if (current == null || current.trie.getVersion() != catalog.getVersion() || current.weights != weights) {
+            // Concurrent callers may build the same trie twice; both results are equal
+            current = new CatalogSuggestions(buildCatalogTrie(catalog, weights), weights);
+            catalogSuggestions.set(current);
+        }
+        return current.trie;
+    }
+
+    private SuggestionTrie buildCatalogTrie(CatalogSnapshot catalog, Popularity weights) {
+        LongHashMap<long[]> categoryBookings = new LongHashMap<>();
+        SuggestionTrie.Builder builder = new SuggestionTrie.Builder(maxResults);
+        catalog.forEachService(service -> {
+            if (!service.isActive()) {
+                return;
+            }
+            Long bookings = weights.serviceBookings.get(service.getId());
+            long count = bookings != null ? bookings : 0L;
+            builder.add(new SuggestionTrie.Suggestion(SERVICE, service.getId(), service.getName(), count));
+            long[] total = categoryBookings.get(service.getCategoryId());
+            if (total == null) {
+                categoryBookings.put(service.getCategoryId(), new long[] {count});
+            } else {
+                total[0] += count;
+            }
+        });
+        // Categories without active services are not suggested
+        catalog.forEachCategory(category -> {
+            long[] total = categoryBookings.get(category.getId());
+            if (category.isActive() && total != null) {
+                builder.add(new SuggestionTrie.Suggestion(CATEGORY, category.getId(), category.getName(), total[0]));
+            }
+        });
+        return builder.build(catalog.getVersion());
+    }
+
+    private Popularity load(long version) {
+        LongHashMap<Long> serviceBookings = new LongHashMap<>();
+        for (Object[] row : bookingRepository.countByService()) {
+            serviceBookings.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        LongHashMap<Long> professionalBookings = new LongHashMap<>();
+        List<Long> professionalIds = new ArrayList<>();
+        for (Object[] row : bookingRepository.findTopBookedProfessionalCounts(PageRequest.of(0, professionalCount))) {
+            professionalBookings.put((Long) row[0], ((Number) row[1]).longValue());
+            professionalIds.add((Long) row[0]);
+        }
+        SuggestionTrie.Builder professionals = new SuggestionTrie.Builder(maxResults);
+        if (!professionalIds.isEmpty()) {
+            for (Object[] row : userRepository.findContactsByIds(professionalIds)) {
+                long id = (Long) row[0];
+                professionals.add(new SuggestionTrie.Suggestion(PROFESSIONAL, id, (String) row[2], professionalBookings.get(id)));
+            }
+        }
+        return new Popularity(serviceBookings, professionals.build(version));
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Suggestions use the previous weights, or stay empty while there are none
+            logger.error("Failed to refresh the suggestion weights", e);
+        }
+    }
+
+    private void rebuildCatalogQuietly() {
+        Popularity current = popularity.get();
+        if (current == null) {
+            // Built with the change on first use
+            return;
+        }
+        try {
+            catalogTrie(current);
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild the catalog suggestions", e);
+        }
+    }
+
+    private static final class Popularity {
+        private final LongHashMap<Long> serviceBookings;
+        private final SuggestionTrie professionals;
+
+        private Popularity(LongHashMap<Long> serviceBookings, SuggestionTrie professionals) {
+            this.serviceBookings = serviceBookings;
+            this.professionals = professionals;
+        }
+    }
+
+    private static final class CatalogSuggestions {
+        private final SuggestionTrie trie;
+        private final Popularity weights;
+
+        private CatalogSuggestions(SuggestionTrie trie, Popularity weights) {
+            this.trie = trie;
+            this.weights = weights;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.urbanservices.booking.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable compressed prefix trie of suggestions. Every suggestion is reachable from the start
+ * of each word of its text ("deep cleaning" from "dee" and from "cle"), matched without case or
+ * accents, and every node holds its best suggestions precomputed, so completing a prefix walks
+ * at most one node per character of the prefix and copies a short list.
+ *
+ * Chains of nodes with a single child are merged into one edge labelled with the whole string.
+ */
+public final class SuggestionTrie {
+
+    /**
+     * Higher weight first, then by text and id.
+     */
+    public static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong(Suggestion::getWeight).reversed()
+            .thenComparing(Suggestion::getText)
+            .thenComparingLong(Suggestion::getId);
+
+    private final Node root;
+    private final int size;
+    private final long version;
+
+    private SuggestionTrie(Node root, int size, long version) {
+        this.root = root;
+        this.size = size;
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Number of suggestions in the trie.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The best suggestions with a word starting with {@code prefix}, best first; at most
+     * {@code limit}, and no more than the trie was built to keep per node.
+     */
+    public List<Suggestion> complete(String prefix, int limit) {
+        String key = key(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null) {
+                return Collections.emptyList();
+            }
+            String label = child.label;
+            int length = Math.min(label.length(), key.length() - matched);
+            if (!key.regionMatches(matched, label, 0, length)) {
+                return Collections.emptyList();
+            }
+            matched += length;
+            node = child;
+        }
+        return Arrays.asList(node.best).subList(0, Math.min(limit, node.best.length));
+    }
+
+    /**
+     * Lower-case words without accents, separated by single spaces; a trailing separator is
+     * kept as a space, so "deep " only completes to suggestions with another word after "deep".
+     */
+    static String key(String text) {
+        List<String> words = TextAnalyzer.words(text);
+        if (words.isEmpty()) {
+            return "";
+        }
+        String key = String.join(" ", words);
+        return Character.isLetterOrDigit(text.charAt(text.length() - 1)) ? key : key + " ";
+    }
+
+    private static final class Node {
+        private final String label;
+        private final char[] firstChars;
+        private final Node[] children;
+        private final Suggestion[] best;
+
+        private Node(String label, char[] firstChars, Node[] children, Suggestion[] best) {
+            this.label = label;
+            this.firstChars = firstChars;
+            this.children = children;
+            this.best = best;
+        }
+
+        private Node child(char c) {
+            int index = Arrays.binarySearch(firstChars, c);
+            return index >= 0 ? children[index] : null;
+        }
+    }
+
+    /**
+     * A completion with its weight; higher weights are suggested first.
+     */
+    public static final class Suggestion {
+        private final String type;
+        private final long id;
+        private final String text;
+        private final long weight;
+
+        public Suggestion(String type, long id, String text, long weight) {
+            this.type = type;
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * Collects suggestions and builds the trie; not thread-safe.
+     */
+    public static final class Builder {
+        private final MutableNode root = new MutableNode();
+        private final int maxPerNode;
+        private int size;
+
+        /**
+         * @param maxPerNode the number of best suggestions kept for each prefix
+         */
+        public Builder(int maxPerNode) {
+            if (maxPerNode <= 0) {
+                throw new IllegalArgumentException("At least one suggestion per prefix must be kept: " + maxPerNode);
+            }
+            this.maxPerNode = maxPerNode;
+        }
+
+        /**
+         * Adds the suggestion under the start of each word of its text; texts without words are
+         * skipped.
+         */
+        public Builder add(Suggestion suggestion) {
+            String key = key(suggestion.getText());
+            if (key.isEmpty()) {
+                return this;
+            }
+            for (int start = 0; start < key.length(); start++) {
+                if (start == 0 || key.charAt(start - 1) == ' ') {
+                    MutableNode node = root;
+                    for (int i = start; i < key.length(); i++) {
+                        node = node.children.computeIfAbsent(key.charAt(i), c -> new MutableNode());
+                    }
+                    node.suggestions.add(suggestion);
+                }
+            }
+            size++;
+            return this;
+        }
+
+        public SuggestionTrie build(long version) {
+            return new SuggestionTrie(freeze("", root), size, version);
+        }
+
+        /**
+         * The immutable node for {@code node}, with single-child chains below it merged into
+         * the child's label.
+         */
+        private Node freeze(String label, MutableNode node) {
+            StringBuilder merged = new StringBuilder(label);
+            while (node != root && node.suggestions.isEmpty() && node.children.size() == 1) {
+                Map.Entry<Character, MutableNode> only = node.children.firstEntry();
+                merged.append(only.getKey());
+                node = only.getValue();
+            }
+
+            char[] firstChars = new char[node.children.size()];
+            Node[] children = new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> entry : node.children.entrySet()) {
+                firstChars[i] = entry.getKey();
+                children[i] = freeze(String.valueOf(entry.getKey()), entry.getValue());
+                i++;
+            }
+
+            // A suggestion reachable from several words of the same prefix is listed once
+            Set<Suggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Suggestion> candidates = new ArrayList<>(node.suggestions);
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.best));
+            }
+            candidates.sort(BEST_FIRST);
+            List<Suggestion> best = new ArrayList<>(Math.min(maxPerNode, candidates.size()));
+            for (Suggestion candidate : candidates) {
+                if (best.size() == maxPerNode) {
+                    break;
+                }
+                if (seen.add(candidate)) {
+                    best.add(candidate);
+                }
+            }
+            return new Node(merged.toString(), firstChars, children, best.toArray(new Suggestion[0]));
+        }
+    }
+
+    private static final class MutableNode {
+        private final TreeMap<Character, MutableNode> children = new TreeMap<>();
+        private final List<Suggestion> suggestions = new ArrayList<>(1);
+    }
+}
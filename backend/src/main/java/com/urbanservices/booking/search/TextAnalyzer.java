@@ -0,0 +1,78 @@
+package com.urbanservices.booking.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits text into index terms: lower case without accents, split on anything that is not a
+ * letter or digit, without common English stop words and with a trailing plural "s" removed
+ * ("Plumbers" and "plumber" index the same term). Documents and queries go through the same
+ * analysis.
+ */
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+            "the", "to", "with", "your", "you", "our");
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Index terms of the text, in order.
+     */
+    public static List<String> terms(String text) {
+        List<String> words = words(text);
+        List<String> terms = new ArrayList<>(words.size());
+        for (String word : words) {
+            String term = term(word);
+            if (term != null) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Lower-case words of the text without accents, before stop words and plurals are removed.
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                words.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            words.add(current.toString());
+        }
+        return words;
+    }
+
+    /**
+     * The index term of a word, or null for a stop word.
+     */
+    public static String term(String word) {
+        if (STOP_WORDS.contains(word)) {
+            return null;
+        }
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
@@ -0,0 +1,485 @@
+package com.urbanservices.booking.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of documents identified by a long id. Each term maps to the
+ * documents containing it with the term's weight in each (occurrences times the boost of the
+ * field they occur in), and results are ranked with BM25.
+ *
+ * A query matches the documents containing every query word. A word also matches terms within
+ * one edit of it (two for long words) when the index does not contain it, and the last word of
+ * a query that does not end with a separator matches every term it is a prefix of, so results
+ * follow the text as it is typed. Exact matches rank above prefix matches, which rank above
+ * corrected ones.
+ *
+ * Searches run in parallel; changes take a write lock, which is held only for the terms of one
+ * document.
+ */
+public final class TextIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float PREFIX_FACTOR = 0.8f;
+    private static final float ONE_EDIT_FACTOR = 0.6f;
+    private static final float TWO_EDITS_FACTOR = 0.4f;
+    // A short prefix only expands to the terms found in the most documents
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_TWO_EDITS_LENGTH = 8;
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long version;
+    private double totalLength;
+
+    public TextIndex(long version) {
+        this.version = version;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Number of documents in the index.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the document, replacing any previous version with the same id.
+     */
+    public void put(long id, Fields fields) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (fields.weights.isEmpty()) {
+                return;
+            }
+            String[] terms = fields.weights.keySet().toArray(new String[0]);
+            documents.put(id, new Document(terms, fields.length));
+            totalLength += fields.length;
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new Postings()).add(id, fields.weights.get(term), fields.length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Ids of the documents matching the query, best first (ties in id order), from
+     * {@code offset}; at most {@code limit} ids, with the total number of matches.
+     */
+    public Hits search(String query, int offset, int limit) {
+        List<String> words = TextAnalyzer.words(query);
+        boolean lastIsPrefix = !words.isEmpty() && Character.isLetterOrDigit(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+        try {
+            if (documents.isEmpty()) {
+                return Hits.EMPTY;
+            }
+            double averageLength = totalLength / documents.size();
+            Scores scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                boolean prefix = lastIsPrefix && i == words.size() - 1;
+                Map<String, Float> expansions = expand(words.get(i), prefix);
+                if (expansions == null) {
+                    // Stop word
+                    continue;
+                }
+                scores = score(expansions, scores, averageLength);
+                if (scores.size == 0) {
+                    return Hits.EMPTY;
+                }
+            }
+            return scores != null ? rank(scores, offset, limit) : Hits.EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Index terms the word matches, with the factor applied to their scores; null if the word
+     * is ignored.
+     */
+    private Map<String, Float> expand(String word, boolean prefix) {
+        String term = TextAnalyzer.term(word);
+        Map<String, Float> expansions = new HashMap<>();
+        if (term != null && postings.containsKey(term)) {
+            expansions.put(term, 1.0f);
+        }
+        if (prefix) {
+            List<Map.Entry<String, Postings>> matches =
+                    new ArrayList<>(postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet());
+            if (matches.size() > MAX_PREFIX_EXPANSIONS) {
+                matches.sort((a, b) -> Integer.compare(b.getValue().size, a.getValue().size));
+                matches = matches.subList(0, MAX_PREFIX_EXPANSIONS);
+            }
+            for (Map.Entry<String, Postings> match : matches) {
+                expansions.putIfAbsent(match.getKey(), PREFIX_FACTOR);
+            }
+        }
+        if (expansions.isEmpty() && term != null && term.length() >= MIN_FUZZY_LENGTH) {
+            addCorrections(term, expansions);
+        }
+        if (term == null && expansions.isEmpty()) {
+            return null;
+        }
+        return expansions;
+    }
+
+    /**
+     * Adds the terms within the allowed edit distance of {@code term}. Only terms with the same
+     * first letter are compared; misspellings rarely change it.
+     */
+    private void addCorrections(String term, Map<String, Float> expansions) {
+        int maxEdits = term.length() >= MIN_TWO_EDITS_LENGTH ? 2 : 1;
+        String first = term.substring(0, 1);
+        for (String candidate : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+            if (Math.abs(candidate.length() - term.length()) > maxEdits) {
+                continue;
+            }
+            int edits = editDistance(term, candidate, maxEdits);
+            if (edits <= maxEdits) {
+                expansions.put(candidate, edits == 1 ? ONE_EDIT_FACTOR : TWO_EDITS_FACTOR);
+            }
+        }
+    }
+
+    /**
+     * Scores the documents matching one query word: the best of its expansions for each
+     * document, added to the previous words' scores. Only documents that matched every previous
+     * word are kept.
+     */
+    private Scores score(Map<String, Float> expansions, Scores previous, double averageLength) {
+        Scores scores = new Scores(previous != null ? previous.size : 64);
+        int documentCount = documents.size();
+        for (Map.Entry<String, Float> expansion : expansions.entrySet()) {
+            Postings list = postings.get(expansion.getKey());
+            double idf = Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+            for (int i = 0; i < list.size; i++) {
+                long id = list.ids[i];
+                float before = previous != null ? previous.get(id) : 0;
+                if (Float.isNaN(before)) {
+                    continue;
+                }
+                float weight = list.weights[i];
+                double norm = K1 * (1 - B + B * list.lengths[i] / averageLength);
+                scores.max(id, (float) (expansion.getValue() * idf * weight * (K1 + 1) / (weight + norm)) + before);
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * The requested page of the best scores. Only the first {@code offset + limit} are ordered,
+     * selected with a heap whose root is the worst of them.
+     */
+    private static Hits rank(Scores scores, int offset, int limit) {
+        int size = scores.size;
+        if (offset >= size || limit <= 0) {
+            return new Hits(size, Collections.emptyList());
+        }
+        int wanted = (int) Math.min(size, (long) offset + limit);
+        int[] heap = new int[wanted];
+        int heapSize = 0;
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            if (!scores.used[slot]) {
+                continue;
+            }
+            if (heapSize < wanted) {
+                heap[heapSize] = slot;
+                siftUp(scores, heap, heapSize++);
+            } else if (scores.better(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(scores, heap, heapSize);
+            }
+        }
+        // Removing the worst until the heap is empty fills the array from the back, best first
+        int[] ordered = new int[wanted];
+        while (heapSize > 0) {
+            ordered[--heapSize] = heap[0];
+            heap[0] = heap[heapSize];
+            siftDown(scores, heap, heapSize);
+        }
+        List<Long> page = new ArrayList<>(wanted - offset);
+        for (int i = offset; i < wanted; i++) {
+            page.add(scores.keys[ordered[i]]);
+        }
+        return new Hits(size, page);
+    }
+
+    private static void siftUp(Scores scores, int[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!scores.better(heap[parent], heap[index])) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(Scores scores, int[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && scores.better(heap[worst], heap[left])) {
+                worst = left;
+            }
+            if (right < size && scores.better(heap[worst], heap[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, worst, index);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int swap = heap[a];
+        heap[a] = heap[b];
+        heap[b] = swap;
+    }
+
+    /**
+     * Levenshtein distance of the two terms, or {@code max + 1} once it is known to exceed
+     * {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    private static final class Document {
+        private final String[] terms;
+        private final float length;
+
+        private Document(String[] terms, float length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private float[] weights = new float[4];
+        private float[] lengths = new float[4];
+        private int size;
+
+        private void add(long id, float weight, float length) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            ids[size] = id;
+            weights[size] = weight;
+            lengths[size] = length;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    weights[i] = weights[size];
+                    lengths[i] = lengths[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Query scores by document id in an open-addressing table of primitives, so scoring a
+     * common word allocates nothing per matching document.
+     */
+    private static final class Scores {
+        private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+        private long[] keys;
+        private float[] values;
+        private boolean[] used;
+        private int size;
+        private int mask;
+
+        private Scores(int expectedSize) {
+            allocate(Integer.highestOneBit(Math.max(4, expectedSize * 2) - 1) << 1);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            values = new float[capacity];
+            used = new boolean[capacity];
+            mask = capacity - 1;
+        }
+
+        private int slot(long key) {
+            return (int) ((key * GOLDEN_RATIO) >>> 32) & mask;
+        }
+
+        /**
+         * The score of the document, or NaN if it has none.
+         */
+        private float get(long key) {
+            for (int slot = slot(key); used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return Float.NaN;
+        }
+
+        /**
+         * Keeps the higher of the document's current score and {@code value}.
+         */
+        private void max(long key, float value) {
+            int slot = slot(key);
+            for (; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    values[slot] = Math.max(values[slot], value);
+                    return;
+                }
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            used[slot] = true;
+            if (++size * 2 > keys.length) {
+                rehash();
+            }
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            float[] oldValues = values;
+            boolean[] oldUsed = used;
+            allocate(oldKeys.length << 1);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = slot(oldKeys[i]);
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    used[slot] = true;
+                }
+            }
+        }
+
+        /**
+         * Whether slot {@code a} ranks before slot {@code b}: higher score, then lower id.
+         */
+        private boolean better(int a, int b) {
+            int byScore = Float.compare(values[a], values[b]);
+            return byScore != 0 ? byScore > 0 : keys[a] < keys[b];
+        }
+    }
+
+    /**
+     * The text of a document, field by field; a field's boost multiplies the weight of its terms.
+     */
+    public static final class Fields {
+        private final Map<String, Float> weights = new HashMap<>();
+        private float length;
+
+        public Fields add(String text, float boost) {
+            for (String term : TextAnalyzer.terms(text)) {
+                weights.merge(term, boost, Float::sum);
+                length += boost;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * One page of matching ids, best first, and the total number of matches.
+     */
+    public static final class Hits {
+        static final Hits EMPTY = new Hits(0, Collections.emptyList());
+
+        private final long total;
+        private final List<Long> ids;
+
+        Hits(long total, List<Long> ids) {
+            this.total = total;
+            this.ids = ids;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+    }
+}
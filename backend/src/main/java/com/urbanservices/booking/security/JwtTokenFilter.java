@@ -1,10 +1,13 @@
 package com.urbanservices.booking.security;
 
+import com.urbanservices.booking.model.enums.UserRole;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,14 +28,20 @@ public class JwtTokenFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private UserSecurityStateCache userSecurityStateCache;
+
+    @Value("${app.jwt.principal-from-claims:true}")
+    private boolean principalFromClaims;
+
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseValidClaims(jwt) : null;
+            UserDetails userDetails = claims != null ? resolvePrincipal(claims) : null;
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -44,6 +53,27 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Builds the principal from the token claims when they carry the user id and role, checked
+     * against the cached revocation state; older tokens fall back to loading the user.
+     * Returns null for tokens that are no longer valid for their user.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        Object userId = claims.get(JwtTokenProvider.CLAIM_USER_ID);
+        Object role = claims.get(JwtTokenProvider.CLAIM_ROLE);
+        if (!principalFromClaims || !(userId instanceof Number) || !(role instanceof String)) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        Long id = ((Number) userId).longValue();
+        UserRole userRole = UserRole.valueOf((String) role);
+        if (!userSecurityStateCache.isValid(id, claims.getSubject(), userRole, claims.getIssuedAt())) {
+            return null;
+        }
+        return UserPrincipal.fromClaims(id, claims.get(JwtTokenProvider.CLAIM_NAME, String.class),
+                claims.getSubject(), userRole);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,12 +1,20 @@
 package com.urbanservices.booking.security;
 
+import com.urbanservices.booking.model.User;
+import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.util.ExpiringLruCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,6 +23,11 @@ import java.util.function.Function;
 @Component
 public class JwtTokenProvider {
 
+    // Claims that let the token filter build the principal without loading the user
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_NAME = "name";
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
@@ -24,11 +37,48 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-expiration}")
     private int refreshExpirationDateInMs;
 
+    @Value("${app.jwt.verified-cache.max-size:4096}")
+    private int verifiedCacheSize;
+
+    @Value("${app.jwt.verified-cache.ttl-seconds:300}")
+    private long verifiedCacheTtlSeconds;
+
+    // Derived once; JwtParser and the key are immutable and safe to share between threads
+    private Key signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of recently verified tokens -> their claims, so hot clients skip HMAC and JSON parsing
+    private ExpiringLruCache<ByteBuffer, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = verifiedCacheSize > 0 && verifiedCacheTtlSeconds > 0
+                ? new ExpiringLruCache<>(verifiedCacheSize, verifiedCacheTtlSeconds * 1000)
+                : null;
+    }
+
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            putPrincipalClaims(claims, user.getId(), user.getRole(), user.getName());
+        } else if (userDetails instanceof UserPrincipal principal) {
+            putPrincipalClaims(claims, principal.getId(), principal.getRole(), principal.getName());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
+    private void putPrincipalClaims(Map<String, Object> claims, Long userId, UserRole role, String name) {
+        if (userId != null && role != null) {
+            claims.put(CLAIM_USER_ID, userId);
+            claims.put(CLAIM_ROLE, role.name());
+            claims.put(CLAIM_NAME, name);
+        }
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
@@ -49,17 +99,24 @@ public class JwtTokenProvider {
     }
 
     private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     public Boolean validateToken(String token) {
+        return parseValidClaims(token) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is malformed, badly signed
+     * or expired. Claims of recently verified tokens are served from memory until the earlier of
+     * the token's expiry and the cache time to live. The returned claims must not be modified.
+     */
+    public Claims parseValidClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            return true;
+            return getAllClaimsFromToken(token);
         } catch (SecurityException ex) {
             // Invalid JWT signature
         } catch (MalformedJwtException ex) {
@@ -68,10 +125,12 @@ public class JwtTokenProvider {
             // Expired JWT token
         } catch (UnsupportedJwtException ex) {
             // Unsupported JWT token
+        } catch (io.jsonwebtoken.security.SignatureException ex) {
+            // Signature does not match
         } catch (IllegalArgumentException ex) {
             // JWT claims string is empty
         }
-        return false;
+        return null;
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
@@ -97,11 +156,35 @@ public class JwtTokenProvider {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(jwtSecret.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (verifiedTokens == null) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        ByteBuffer digest = digest(token);
+        Claims claims = verifiedTokens.get(digest);
+        if (claims != null) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.getTime() > System.currentTimeMillis()) {
+                return claims;
+            }
+            verifiedTokens.invalidate(digest);
+        }
+
+        claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        long timeToLive = expiration != null
+                ? expiration.getTime() - System.currentTimeMillis()
+                : verifiedCacheTtlSeconds * 1000;
+        verifiedTokens.put(digest, claims, timeToLive);
+        return claims;
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
     private Boolean isTokenExpired(String token) {
@@ -75,6 +75,9 @@ public class SecurityConfig {
                     "/swagger-ui.html",
                     "/api/auth/**"
                 ).permitAll()
+                // Metrics and cache statistics are operational data; health stays open to any user
+                .requestMatchers("/actuator/health", "/actuator/health/**").authenticated()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             );
 
@@ -48,6 +48,21 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Principal rebuilt from verified token claims; it carries no password or phone.
+     */
+    public static UserPrincipal fromClaims(Long id, String name, String email, UserRole role) {
+        return new UserPrincipal(
+                id,
+                name,
+                email,
+                null,
+                null,
+                role,
+                Collections.singletonList(new SimpleGrantedAuthority(role.name()))
+        );
+    }
+
     public Long getId() {
         return id;
     }
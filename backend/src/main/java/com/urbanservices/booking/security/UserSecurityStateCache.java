@@ -0,0 +1,98 @@
+package com.urbanservices.booking.security;
+
+import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.repository.UserRepository;
+import com.urbanservices.booking.util.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Short-lived cache of the user fields that can revoke an otherwise valid access token:
+ * the active flag, the role, the email (token subject) and the last password change.
+ *
+ * Lets the token filter trust principal claims without a user query per request. Entries are
+ * dropped explicitly when one of these fields changes on this instance, and expire after the
+ * configured time to live so changes made elsewhere are picked up as well.
+ */
+@Component
+public class UserSecurityStateCache {
+
+    private final UserRepository userRepository;
+    private final ExpiringLruCache<Long, State> states;
+
+    public UserSecurityStateCache(UserRepository userRepository,
+                                  @Value("${app.jwt.user-state-cache.max-size:10000}") int maxSize,
+                                  @Value("${app.jwt.user-state-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.states = new ExpiringLruCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    /**
+     * True if a token with these claims still describes the user: the account exists and is
+     * active, email and role are unchanged, and the token was issued after the last password change.
+     */
+    public boolean isValid(Long userId, String email, UserRole role, Date issuedAt) {
+        State state = states.get(userId, this::load);
+        if (state == null || state == State.MISSING || !state.active) {
+            return false;
+        }
+        if (!state.email.equalsIgnoreCase(email) || state.role != role) {
+            return false;
+        }
+        return state.passwordChangedAtEpochSecond == null
+                || (issuedAt != null && issuedAt.getTime() / 1000 >= state.passwordChangedAtEpochSecond);
+    }
+
+    /**
+     * Drops the user's entry now and again after the surrounding transaction commits, so a
+     * request reading the old row in between cannot keep it cached.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        states.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    states.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    private State load(Long userId) {
+        List<Object[]> rows = userRepository.findSecurityState(userId);
+        if (rows.isEmpty()) {
+            return State.MISSING;
+        }
+        Object[] row = rows.get(0);
+        LocalDateTime passwordChangedAt = (LocalDateTime) row[3];
+        return new State((String) row[0], (UserRole) row[1], Boolean.TRUE.equals(row[2]),
+                passwordChangedAt != null ? passwordChangedAt.atZone(ZoneId.systemDefault()).toEpochSecond() : null);
+    }
+
+    private static final class State {
+        static final State MISSING = new State("", null, false, null);
+
+        final String email;
+        final UserRole role;
+        final boolean active;
+        final Long passwordChangedAtEpochSecond;
+
+        State(String email, UserRole role, boolean active, Long passwordChangedAtEpochSecond) {
+            this.email = email;
+            this.role = role;
+            this.active = active;
+            this.passwordChangedAtEpochSecond = passwordChangedAtEpochSecond;
+        }
+    }
+}
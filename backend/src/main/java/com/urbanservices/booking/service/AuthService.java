@@ -50,7 +50,7 @@ public class AuthService {
         // Get the authenticated user details
         User user = (User) authentication.getPrincipal();
         UserDetails userDetails = userService.loadUserByUsername(user.getEmail());
-        String jwt = tokenProvider.generateToken(userDetails);
+        String jwt = tokenProvider.generateToken(user);
         String refreshToken = tokenProvider.generateRefreshToken(userDetails);
 
         return JwtAuthenticationResponse.builder()
@@ -96,7 +96,7 @@ public class AuthService {
         // Get the authenticated user details
         User user = (User) authentication.getPrincipal();
         UserDetails userDetails = userService.loadUserByUsername(user.getEmail());
-        String accessToken = tokenProvider.generateToken(userDetails);
+        String accessToken = tokenProvider.generateToken(user);
         String refreshToken = tokenProvider.generateRefreshToken(userDetails);
         
         return JwtAuthenticationResponse.builder()
@@ -137,7 +137,7 @@ public class AuthService {
         UserDetails userDetails = userService.loadUserByUsername(email);
         
         // Generate new tokens
-        String newJwt = tokenProvider.generateToken(userDetails);
+        String newJwt = tokenProvider.generateToken(user);
         String newRefreshToken = tokenProvider.generateRefreshToken(userDetails);
 
         return JwtAuthenticationResponse.builder()
@@ -1,6 +1,8 @@
 package com.urbanservices.booking.service;
 
 import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.dto.CursorSlice;
+import com.urbanservices.booking.dto.ProfessionalAvailabilityDto;
 import com.urbanservices.booking.exception.BookingConflictException;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
 import org.springframework.data.domain.Page;
@@ -28,6 +30,18 @@ public interface BookingService extends BaseService<BookingDto, com.urbanservice
     
     List<BookingDto> findProfessionalPastBookings(Long professionalId, int page, int size);
     
+    // Infinite-scroll listings read with keyset pagination: pass null for the first slice, then
+    // the previous slice's next cursor
+    CursorSlice<BookingDto> scrollCustomerBookings(Long customerId, String cursor, int size);
+    
+    CursorSlice<BookingDto> scrollCustomerUpcomingBookings(Long customerId, String cursor, int size);
+    
+    CursorSlice<BookingDto> scrollCustomerPastBookings(Long customerId, String cursor, int size);
+    
+    CursorSlice<BookingDto> scrollProfessionalUpcomingBookings(Long professionalId, String cursor, int size);
+    
+    CursorSlice<BookingDto> scrollProfessionalPastBookings(Long professionalId, String cursor, int size);
+    
     BookingDto createBooking(BookingDto bookingDto) throws BookingConflictException, ResourceNotFoundException;
     
     BookingDto rescheduleBooking(Long bookingId, LocalDateTime newDateTime) 
@@ -41,8 +55,16 @@ public interface BookingService extends BaseService<BookingDto, com.urbanservice
     
     List<LocalDateTime> findAvailableTimeSlots(Long professionalId, LocalDateTime date, int durationInMinutes);
     
+    List<LocalDateTime> findAvailableTimeSlots(Long professionalId, LocalDateTime date, int durationInMinutes, int slotIntervalMinutes);
+    
+    List<ProfessionalAvailabilityDto> searchAvailableProfessionals(Long serviceId, LocalDateTime windowStart,
+                                                                   LocalDateTime windowEnd, int durationInMinutes,
+                                                                   int slotLimit);
+    
     BigDecimal calculateBookingTotal(BookingDto bookingDto) throws ResourceNotFoundException;
     
+    List<BigDecimal> calculateBookingTotals(List<BookingDto> bookingDtos) throws ResourceNotFoundException;
+    
     void sendBookingConfirmation(Long bookingId) throws ResourceNotFoundException;
     
     void sendReminderForUpcomingBookings();
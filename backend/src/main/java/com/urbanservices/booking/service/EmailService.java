@@ -1,5 +1,7 @@
 package com.urbanservices.booking.service;
 
+import java.util.List;
+
 /**
  * Service for sending emails.
  * In a real application, this would integrate with an email provider like SendGrid, Mailchimp, or AWS SES.
@@ -36,4 +38,35 @@ public interface EmailService {
      * @return true if the email was sent successfully, false otherwise
      */
     boolean sendTemplateEmail(String to, String subject, String templateName, Object templateModel);
+    
+    /**
+     * Sends several emails, reusing one SMTP connection for up to the configured number of
+     * messages instead of connecting once per message.
+     *
+     * @param emails the emails to send
+     * @return for each email, in order, true if it was sent successfully
+     */
+    List<Boolean> sendEmails(List<Email> emails);
+    
+    /**
+     * One email for {@link #sendEmails(List)}.
+     */
+    final class Email {
+        private final String to;
+        private final String subject;
+        private final String content;
+        private final boolean html;
+        
+        public Email(String to, String subject, String content, boolean html) {
+            this.to = to;
+            this.subject = subject;
+            this.content = content;
+            this.html = html;
+        }
+        
+        public String getTo() { return to; }
+        public String getSubject() { return subject; }
+        public String getContent() { return content; }
+        public boolean isHtml() { return html; }
+    }
 }
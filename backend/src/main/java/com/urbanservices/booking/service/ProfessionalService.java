@@ -1,5 +1,6 @@
 package com.urbanservices.booking.service;
 
+import com.urbanservices.booking.dto.CursorSlice;
 import com.urbanservices.booking.dto.ProfessionalDto;
 import com.urbanservices.booking.dto.auth.JwtAuthenticationResponse;
 import com.urbanservices.booking.dto.auth.ProfessionalRegistrationRequest;
@@ -7,6 +8,7 @@ import com.urbanservices.booking.exception.ResourceNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ProfessionalService extends BaseService<ProfessionalDto, com.urbanservices.booking.model.Professional, Long> {
@@ -15,6 +17,10 @@ public interface ProfessionalService extends BaseService<ProfessionalDto, com.ur
     
     Page<ProfessionalDto> findAvailableProfessionals(Pageable pageable);
     
+    // Newest first, read with keyset pagination: pass null for the first slice, then the previous
+    // slice's next cursor
+    CursorSlice<ProfessionalDto> scrollAvailableProfessionals(String cursor, int size);
+    
     Page<ProfessionalDto> findVerifiedProfessionals(Pageable pageable);
     
     Page<ProfessionalDto> findByServiceId(Long serviceId, Pageable pageable);
@@ -38,4 +44,8 @@ public interface ProfessionalService extends BaseService<ProfessionalDto, com.ur
     ProfessionalDto removeService(Long professionalId, Long serviceId) throws ResourceNotFoundException;
     
     List<ProfessionalDto> findNearbyProfessionals(Double latitude, Double longitude, Double radiusInKm, Long serviceId);
+    
+    List<ProfessionalDto> findNearestProfessionals(Double latitude, Double longitude, Long serviceId, int limit);
+    
+    boolean isAvailableAt(Long professionalId, LocalDateTime dateTime);
 }
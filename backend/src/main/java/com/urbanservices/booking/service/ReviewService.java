@@ -1,5 +1,6 @@
 package com.urbanservices.booking.service;
 
+import com.urbanservices.booking.dto.CursorSlice;
 import com.urbanservices.booking.dto.ReviewDto;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
 import org.springframework.data.domain.Page;
@@ -21,6 +22,12 @@ public interface ReviewService extends BaseService<ReviewDto, com.urbanservices.
     
     Page<ReviewDto> findByServiceIdAndRating(Long serviceId, int rating, Pageable pageable);
     
+    // Newest first, read with keyset pagination: pass null for the first slice, then the previous
+    // slice's next cursor
+    CursorSlice<ReviewDto> scrollByProfessionalId(Long professionalId, String cursor, int size);
+    
+    CursorSlice<ReviewDto> scrollByServiceId(Long serviceId, String cursor, int size);
+    
     ReviewDto findByBookingId(Long bookingId) throws ResourceNotFoundException;
     
     boolean hasCustomerReviewedProfessional(Long customerId, Long professionalId);
@@ -40,4 +47,11 @@ public interface ReviewService extends BaseService<ReviewDto, com.urbanservices.
     List<ReviewDto> findLatestByServiceId(Long serviceId, int limit);
     
     void updateReviewAverages(Long professionalId, Long serviceId);
+    
+    /**
+     * Recomputes every stored rating summary from the reviews table and repairs the ones that
+     * drifted from it.
+     * @return the number of summaries repaired
+     */
+    int reconcileRatingSummaries();
 }
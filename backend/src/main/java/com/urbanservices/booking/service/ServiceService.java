@@ -1,6 +1,7 @@
 package com.urbanservices.booking.service;
 
 import com.urbanservices.booking.dto.ServiceDto;
+import com.urbanservices.booking.dto.SuggestionDto;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -15,6 +16,9 @@ public interface ServiceService extends BaseService<ServiceDto, com.urbanservice
     
     Page<ServiceDto> search(String query, Pageable pageable);
     
+    // Search-box completions of the typed text, served from memory
+    List<SuggestionDto> suggest(String prefix, int limit);
+    
     Page<ServiceDto> findActiveServices(Pageable pageable);
     
     ServiceDto updateAverageRating(Long serviceId);
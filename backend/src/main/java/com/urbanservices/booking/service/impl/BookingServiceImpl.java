@@ -1,49 +1,109 @@
 package com.urbanservices.booking.service.impl;
 
 import java.math.BigDecimal;
+import com.urbanservices.booking.availability.AvailabilityScheduleCache;
+import com.urbanservices.booking.availability.BookingIntervalIndex;
+import com.urbanservices.booking.leaderboard.LeaderboardCache;
+import com.urbanservices.booking.availability.DaySlotBitmap;
+import com.urbanservices.booking.availability.WeeklySchedule;
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
+import com.urbanservices.booking.dto.BookingAddonDto;
 import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.dto.CursorSlice;
+import com.urbanservices.booking.dto.ProfessionalAvailabilityDto;
 import com.urbanservices.booking.exception.BookingConflictException;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
 import com.urbanservices.booking.mapper.BookingMapper;
 import com.urbanservices.booking.model.Booking;
 import com.urbanservices.booking.model.Professional;
-import com.urbanservices.booking.model.ServiceAddon;
-import com.urbanservices.booking.model.Service;
 import com.urbanservices.booking.model.enums.BookingStatus;
+import com.urbanservices.booking.notification.BookingNotifications;
+import com.urbanservices.booking.notification.BookingReminderJob;
+import com.urbanservices.booking.pricing.PricingEngine;
 import com.urbanservices.booking.repository.BookingRepository;
 import com.urbanservices.booking.repository.ProfessionalRepository;
-import com.urbanservices.booking.repository.ServiceRepository;
 import com.urbanservices.booking.service.BookingService;
+import com.urbanservices.booking.util.SeekCursor;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.Slice;
 // Using fully qualified name to avoid conflict with Service entity
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service
 public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Long> implements BookingService {
 
+    private static final int DEFAULT_SLOT_INTERVAL_MINUTES = 30;
+    private static final int MAX_SEARCH_WINDOW_DAYS = 31;
+
     private final BookingRepository bookingRepository;
     private final ProfessionalRepository professionalRepository;
-    private final ServiceRepository serviceRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final AvailabilityScheduleCache availabilityScheduleCache;
+    private final LeaderboardCache leaderboardCache;
+    private final CatalogCache catalogCache;
+    private final PricingEngine pricingEngine;
+    private final BookingNotifications bookingNotifications;
+    private final BookingReminderJob bookingReminderJob;
+
+    @Value("${app.booking.slots.granularity-minutes:5}")
+    private int slotGranularityMinutes;
+
+    @Value("${app.booking.availability-search.candidate-page-size:200}")
+    private int searchCandidatePageSize;
 
     @Autowired
     public BookingServiceImpl(BookingRepository bookingRepository,
                             ProfessionalRepository professionalRepository,
-                            ServiceRepository serviceRepository,
-                            BookingMapper bookingMapper) {
+                            BookingMapper bookingMapper,
+                            BookingIntervalIndex bookingIntervalIndex,
+                            AvailabilityScheduleCache availabilityScheduleCache,
+                            LeaderboardCache leaderboardCache,
+                            CatalogCache catalogCache,
+                            PricingEngine pricingEngine,
+                            BookingNotifications bookingNotifications,
+                            BookingReminderJob bookingReminderJob) {
         super(bookingRepository, bookingMapper, Booking.class);
         this.bookingRepository = bookingRepository;
         this.professionalRepository = professionalRepository;
-        this.serviceRepository = serviceRepository;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.availabilityScheduleCache = availabilityScheduleCache;
+        this.leaderboardCache = leaderboardCache;
+        this.catalogCache = catalogCache;
+        this.pricingEngine = pricingEngine;
+        this.bookingNotifications = bookingNotifications;
+        this.bookingReminderJob = bookingReminderJob;
+    }
+
+    @Override
+    @Transactional
+    public BookingDto update(Long id, BookingDto dto) throws ResourceNotFoundException {
+        BookingDto updated = super.update(id, dto);
+        // Generic updates may move or cancel the booking, so reload the professional's timeline
+        bookingIntervalIndex.invalidate(updated.getProfessionalId());
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) throws ResourceNotFoundException {
+        Booking booking = bookingRepository.findById(id).orElse(null);
+        Long professionalId = booking != null ? booking.getProfessional().getId() : null;
+        Long serviceId = booking != null && booking.getService() != null ? booking.getService().getId() : null;
+        super.delete(id);
+        bookingIntervalIndex.removeBooking(professionalId, id);
+        leaderboardCache.bookingsChanged(professionalId, serviceId);
     }
 
     @Override
@@ -117,24 +177,72 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingDto> scrollCustomerBookings(Long customerId, String cursor, int size) {
+        // Latest first
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.latest());
+        return toCursorSlice(bookingRepository.findCustomerBookingsBefore(customerId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingDto> scrollCustomerUpcomingBookings(Long customerId, String cursor, int size) {
+        // Soonest first, from now
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.before(LocalDateTime.now()));
+        return toCursorSlice(bookingRepository.findCustomerBookingsAfter(customerId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingDto> scrollCustomerPastBookings(Long customerId, String cursor, int size) {
+        // Most recent first, before now
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.before(LocalDateTime.now()));
+        return toCursorSlice(bookingRepository.findCustomerBookingsBefore(customerId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingDto> scrollProfessionalUpcomingBookings(Long professionalId, String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.before(LocalDateTime.now()));
+        return toCursorSlice(bookingRepository.findProfessionalBookingsAfter(professionalId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<BookingDto> scrollProfessionalPastBookings(Long professionalId, String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.before(LocalDateTime.now()));
+        return toCursorSlice(bookingRepository.findProfessionalBookingsBefore(professionalId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    private CursorSlice<BookingDto> toCursorSlice(Slice<Booking> slice) {
+        return CursorSlice.of(slice, this::toDtoWithDetails,
+                booking -> SeekCursor.of(booking.getBookingDate(), booking.getId()));
+    }
+
     @Override
     @Transactional
     public BookingDto createBooking(BookingDto bookingDto) throws BookingConflictException, ResourceNotFoundException {
-        // Validate professional exists
-        Professional professional = professionalRepository.findById(bookingDto.getProfessionalId())
+        // Validate professional exists; the row lock serializes bookings for the professional
+        // until this transaction commits, so two requests cannot both take the same slot
+        Professional professional = professionalRepository.findByIdForUpdate(bookingDto.getProfessionalId())
                 .orElseThrow(() -> new ResourceNotFoundException("Professional not found with id: " + bookingDto.getProfessionalId()));
         
-        // Validate service exists and get duration
-        com.urbanservices.booking.model.Service service = serviceRepository.findById(bookingDto.getServiceId())
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + bookingDto.getServiceId()));
+        // Validate service exists and get duration and prices from the catalog snapshot
+        CatalogSnapshot.ServiceEntry service = catalogService(bookingDto.getServiceId());
+        CatalogSnapshot catalog = catalogCache.snapshot();
         
         // Calculate end time
         LocalDateTime startTime = bookingDto.getBookingDate();
-        Integer duration = service.getDurationInMinutes() != null ? service.getDurationInMinutes() : 60; // Default to 60 minutes if null
-        LocalDateTime endTime = startTime.plusMinutes(duration);
+        LocalDateTime endTime = startTime.plusMinutes(service.getDurationInMinutes());
         
-        // Check for time slot availability
-        if (!isTimeSlotAvailable(professional.getId(), startTime, endTime, null)) {
+        // Check for time slot availability against committed bookings, not the index
+        if (!bookingIntervalIndex.isAvailableInDatabase(professional.getId(), startTime, endTime, null)) {
             throw new BookingConflictException("The selected time slot is not available");
         }
         
@@ -145,7 +253,7 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         bookingDto.setStatus(BookingStatus.PENDING);
         
         // Calculate and set total amount
-        BigDecimal totalAmount = calculateBookingTotal(bookingDto);
+        BigDecimal totalAmount = pricingEngine.quote(bookingDto);
         bookingDto.setTotalAmount(totalAmount);
         
         // Create the booking
@@ -153,10 +261,16 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         booking.setCreatedAt(LocalDateTime.now());
         booking.setUpdatedAt(LocalDateTime.now());
         
+        // Attach the selected add-ons; they are inserted with the booking in one JDBC batch
+        booking.setAddons(new HashSet<>());
+        attachAddons(booking, catalog, service, bookingDto.getAddons());
+        
         Booking savedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.recordBooking(professional.getId(), savedBooking.getId(), startTime, endTime);
+        leaderboardCache.bookingsChanged(professional.getId(), service.getId());
         
-        // Send confirmation email (async)
-        sendBookingConfirmation(savedBooking.getId());
+        // Queue the confirmation email; it is sent after commit by the outbox dispatcher
+        bookingNotifications.bookingCreated(savedBooking);
         
         return toDtoWithDetails(savedBooking);
     }
@@ -175,10 +289,11 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         }
         
         // Calculate new end time
-        LocalDateTime newEndTime = newDateTime.plusMinutes(booking.getService().getDurationInMinutes());
+        LocalDateTime newEndTime = newDateTime.plusMinutes(catalogService(booking.getService().getId()).getDurationInMinutes());
         
-        // Check for time slot availability
-        if (!isTimeSlotAvailable(booking.getProfessional().getId(), newDateTime, newEndTime, bookingId)) {
+        // Lock the professional, then check against committed bookings as in createBooking
+        professionalRepository.findByIdForUpdate(booking.getProfessional().getId());
+        if (!bookingIntervalIndex.isAvailableInDatabase(booking.getProfessional().getId(), newDateTime, newEndTime, bookingId)) {
             throw new BookingConflictException("The selected time slot is not available");
         }
         
@@ -189,9 +304,10 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         booking.setUpdatedAt(LocalDateTime.now());
         
         Booking updatedBooking = bookingRepository.save(booking);
+        bookingIntervalIndex.recordBooking(booking.getProfessional().getId(), bookingId, newDateTime, newEndTime);
         
-        // Send rescheduling notification (async)
-        sendReschedulingNotification(updatedBooking);
+        // Queue the rescheduling notification
+        bookingNotifications.bookingRescheduled(updatedBooking);
         
         return toDtoWithDetails(updatedBooking);
     }
@@ -211,9 +327,10 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         booking.setUpdatedAt(LocalDateTime.now());
         
         bookingRepository.save(booking);
+        bookingIntervalIndex.removeBooking(booking.getProfessional().getId(), bookingId);
         
-        // Send cancellation notification (async)
-        sendCancellationNotification(booking);
+        // Queue the cancellation notification
+        bookingNotifications.bookingCancelled(booking);
     }
 
     @Override
@@ -230,94 +347,225 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         booking.setUpdatedAt(LocalDateTime.now());
         
         bookingRepository.save(booking);
+        bookingIntervalIndex.removeBooking(booking.getProfessional().getId(), bookingId);
         
-        // Send completion notification (async)
-        sendCompletionNotification(booking);
+        // Queue the completion notification
+        bookingNotifications.bookingCompleted(booking);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean isTimeSlotAvailable(Long professionalId, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
-        List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(
-                professionalId, startTime, endTime);
+        return bookingIntervalIndex.isAvailable(professionalId, startTime, endTime, excludeBookingId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> findAvailableTimeSlots(Long professionalId, LocalDateTime date, int durationInMinutes) {
+        return findAvailableTimeSlots(professionalId, date, durationInMinutes, DEFAULT_SLOT_INTERVAL_MINUTES);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<LocalDateTime> findAvailableTimeSlots(Long professionalId, LocalDateTime date, int durationInMinutes,
+                                                      int slotIntervalMinutes) {
+        if (durationInMinutes <= 0 || slotIntervalMinutes <= 0) {
+            // Nothing can be scheduled, as the slot loop this replaced returned
+            return Collections.emptyList();
+        }
+        
+        // Buckets must divide the slot interval and duration so no feasible start is lost to rounding
+        int granularity = gcd(gcd(slotGranularityMinutes, slotIntervalMinutes), durationInMinutes);
+        DaySlotBitmap day = new DaySlotBitmap(granularity);
         
-        if (excludeBookingId != null) {
-            conflictingBookings.removeIf(booking -> booking.getId().equals(excludeBookingId));
+        // Open the professional's working hours for the given date
+        int[] windows = availabilityScheduleCache.getSchedule(professionalId).windowsFor(date.toLocalDate());
+        for (int i = 0; i < windows.length; i += 2) {
+            day.open(windows[i], windows[i + 1]);
         }
         
-        return conflictingBookings.isEmpty();
+        // Block existing bookings for the day
+        LocalDateTime dayStart = date.toLocalDate().atStartOfDay();
+        bookingIntervalIndex.forEachBooking(professionalId, dayStart, dayStart.plusDays(1), day::block);
+        
+        int[] startMinutes = new int[day.getBucketCount()];
+        int count = day.feasibleStarts(durationInMinutes, slotIntervalMinutes, startMinutes);
+        
+        List<LocalDateTime> availableSlots = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            availableSlots.add(dayStart.plusMinutes(startMinutes[i]));
+        }
+        
+        return availableSlots;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<LocalDateTime> findAvailableTimeSlots(Long professionalId, LocalDateTime date, int durationInMinutes) {
-        // Get professional's working hours for the given date
-        // This is a simplified version - in a real app, you'd get this from the professional's schedule
-        LocalTime workStart = LocalTime.of(9, 0); // 9 AM
-        LocalTime workEnd = LocalTime.of(17, 0);   // 5 PM
-        
-        // Get existing bookings for the day
-        LocalDateTime dayStart = date.with(LocalTime.MIN);
-        LocalDateTime dayEnd = date.with(LocalTime.MAX);
-        List<Booking> dayBookings = bookingRepository.findByProfessionalIdAndBookingDateBetween(
-                professionalId, dayStart, dayEnd);
-        
-        // Generate time slots
-        List<LocalDateTime> availableSlots = new ArrayList<>();
-        LocalDateTime slotStart = date.with(workStart);
-        LocalDateTime slotEnd = slotStart.plusMinutes(durationInMinutes);
-        
-        while (slotEnd.isBefore(date.with(workEnd))) {
-            boolean isAvailable = true;
-            
-            // Check against existing bookings
-            for (Booking booking : dayBookings) {
-                if (isTimeSlotOverlap(slotStart, slotEnd, booking.getBookingDate(), booking.getEndDate())) {
-                    isAvailable = false;
-                    break;
-                }
+    public List<ProfessionalAvailabilityDto> searchAvailableProfessionals(Long serviceId, LocalDateTime windowStart,
+                                                                          LocalDateTime windowEnd, int durationInMinutes,
+                                                                          int slotLimit) {
+        if (!windowEnd.isAfter(windowStart) || durationInMinutes <= 0 || slotLimit <= 0) {
+            return Collections.emptyList();
+        }
+        if (Duration.between(windowStart, windowEnd).toDays() > MAX_SEARCH_WINDOW_DAYS) {
+            throw new IllegalArgumentException("Search window cannot exceed " + MAX_SEARCH_WINDOW_DAYS + " days");
+        }
+        
+        // Slots must start at or after the window start and end by the window end
+        long windowFrom = BookingIntervalIndex.toEpochMinuteCeil(windowStart);
+        long windowTo = BookingIntervalIndex.toEpochMinute(windowEnd);
+        LocalDate firstDay = windowStart.toLocalDate();
+        LocalDate lastDay = windowEnd.minusNanos(1).toLocalDate();
+        
+        int granularity = gcd(gcd(slotGranularityMinutes, DEFAULT_SLOT_INTERVAL_MINUTES), durationInMinutes);
+        DaySlotBitmap day = new DaySlotBitmap(granularity);
+        int[] startMinutes = new int[day.getBucketCount()];
+        
+        // Every candidate is evaluated, a page at a time, with the same three queries per page
+        List<ProfessionalAvailabilityDto> results = new ArrayList<>();
+        long afterId = 0;
+        List<Object[]> candidates;
+        do {
+            // Candidate professionals offering the service (scalar columns only)
+            candidates = professionalRepository.findAvailableProfessionalSummariesByService(
+                    serviceId, afterId, PageRequest.of(0, searchCandidatePageSize));
+            if (candidates.isEmpty()) {
+                break;
             }
-            
-            if (isAvailable) {
-                availableSlots.add(slotStart);
+            List<Long> professionalIds = new ArrayList<>(candidates.size());
+            for (Object[] candidate : candidates) {
+                professionalIds.add((Long) candidate[0]);
             }
+            afterId = professionalIds.get(professionalIds.size() - 1);
             
-            // Move to next slot (30-minute intervals)
-            slotStart = slotStart.plusMinutes(30);
-            slotEnd = slotStart.plusMinutes(durationInMinutes);
-        }
+            // Working hours of the page (at most one query for cache misses)
+            Map<Long, WeeklySchedule> schedules = availabilityScheduleCache.getSchedules(professionalIds);
+            
+            // Blocking bookings of the page in the window (one set-based query)
+            Map<Long, long[]> bookedMinutes = loadBookedMinutes(professionalIds, windowStart, windowEnd);
+            
+            for (Object[] candidate : candidates) {
+                Long professionalId = (Long) candidate[0];
+                WeeklySchedule schedule = schedules.get(professionalId);
+                long[] booked = bookedMinutes.get(professionalId);
+                List<LocalDateTime> slots = new ArrayList<>(slotLimit);
+                
+                for (LocalDate date = firstDay; !date.isAfter(lastDay) && slots.size() < slotLimit; date = date.plusDays(1)) {
+                    LocalDateTime dayStart = date.atStartOfDay();
+                    long dayOrigin = BookingIntervalIndex.toEpochMinute(dayStart);
+                    int from = (int) Math.max(0, windowFrom - dayOrigin);
+                    int to = (int) Math.min(DaySlotBitmap.MINUTES_PER_DAY, windowTo - dayOrigin);
+                    
+                    day.reset();
+                    int[] windows = schedule.windowsFor(date);
+                    for (int i = 0; i < windows.length; i += 2) {
+                        day.open(Math.max(windows[i], from), Math.min(windows[i + 1], to));
+                    }
+                    if (booked != null) {
+                        for (int i = 0; i < booked.length; i += 2) {
+                            day.block(booked[i] - dayOrigin, booked[i + 1] - dayOrigin);
+                        }
+                    }
+                    
+                    int count = day.feasibleStarts(durationInMinutes, DEFAULT_SLOT_INTERVAL_MINUTES, startMinutes);
+                    for (int i = 0; i < count && slots.size() < slotLimit; i++) {
+                        slots.add(dayStart.plusMinutes(startMinutes[i]));
+                    }
+                }
+                
+                if (!slots.isEmpty()) {
+                    results.add(new ProfessionalAvailabilityDto(professionalId, (String) candidate[1], slots));
+                }
+            }
+        } while (candidates.size() == searchCandidatePageSize);
         
-        return availableSlots;
+        results.sort(Comparator.comparing(result -> result.getAvailableSlots().get(0)));
+        return results;
     }
 
     @Override
+    @Transactional
     public void sendBookingConfirmation(Long bookingId) throws ResourceNotFoundException {
-        // In a real implementation, this would send an email or notification
-        // For now, we'll just log it
-        System.out.println("Sending booking confirmation for booking ID: " + bookingId);
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
+        bookingNotifications.bookingCreated(booking);
     }
 
-    @Scheduled(cron = "0 0 9 * * ?") // Run every day at 9 AM
+    // Scheduled through BookingReminderJob, which leases, shards and checkpoints the run
     public void sendReminderForUpcomingBookings() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime tomorrow = now.plusDays(1);
-        
-        // Find all bookings for tomorrow
-        List<Booking> tomorrowBookings = bookingRepository.findByBookingDateBetween(
-                tomorrow.with(LocalTime.MIN),
-                tomorrow.with(LocalTime.MAX)
-        );
-        
-        // Send reminders
-        for (Booking booking : tomorrowBookings) {
-            sendReminder(booking);
-        }
+        bookingReminderJob.run(LocalDate.now().plusDays(1));
     }
     
     // Helper methods
-    private boolean isTimeSlotOverlap(LocalDateTime start1, LocalDateTime end1, 
-                                     LocalDateTime start2, LocalDateTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+    private Map<Long, long[]> loadBookedMinutes(List<Long> professionalIds, LocalDateTime from, LocalDateTime to) {
+        List<Object[]> rows = bookingRepository.findBookingIntervalsForProfessionals(
+                professionalIds, from, to, BookingStatus.blockingStatuses());
+        
+        // Flatten each professional's bookings into [start, end, start, end, ...] epoch minutes
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.merge((Long) row[0], 1, Integer::sum);
+        }
+        Map<Long, long[]> booked = new HashMap<>(counts.size() * 2);
+        Map<Long, Integer> positions = new HashMap<>(counts.size() * 2);
+        counts.forEach((professionalId, count) -> booked.put(professionalId, new long[count * 2]));
+        for (Object[] row : rows) {
+            Long professionalId = (Long) row[0];
+            int position = positions.getOrDefault(professionalId, 0);
+            long[] minutes = booked.get(professionalId);
+            minutes[position] = BookingIntervalIndex.toEpochMinute((LocalDateTime) row[1]);
+            minutes[position + 1] = BookingIntervalIndex.toEpochMinuteCeil((LocalDateTime) row[2]);
+            positions.put(professionalId, position + 2);
+        }
+        return booked;
+    }
+    
+    private CatalogSnapshot.ServiceEntry catalogService(Long serviceId) throws ResourceNotFoundException {
+        CatalogSnapshot.ServiceEntry service = catalogCache.service(serviceId);
+        if (service == null) {
+            throw new ResourceNotFoundException("Service not found with id: " + serviceId);
+        }
+        return service;
+    }
+    
+    /**
+     * Attaches the selected add-ons the service offers, referenced by id with the snapshot's
+     * name and price, so the add-on entities are not loaded.
+     */
+    private static void attachAddons(Booking booking, CatalogSnapshot catalog, CatalogSnapshot.ServiceEntry service,
+                                     Set<BookingAddonDto> selected) {
+        if (selected == null || selected.isEmpty()) {
+            return;
+        }
+        for (BookingAddonDto dtoAddon : selected) {
+            CatalogSnapshot.Addon addon = offeredAddon(catalog, service, dtoAddon);
+            if (addon != null) {
+                booking.addAddon(addon.toReference(), dtoAddon.getQuantity() != null ? dtoAddon.getQuantity() : 1);
+            }
+        }
+    }
+    
+    private static CatalogSnapshot.Addon offeredAddon(CatalogSnapshot catalog, CatalogSnapshot.ServiceEntry service,
+                                                      BookingAddonDto dtoAddon) {
+        Long addonId = dtoAddon.getAddonId();
+        return addonId != null && service.offersAddon(addonId) ? catalog.addon(addonId) : null;
+    }
+    
+    @PostConstruct
+    void validateSettings() {
+        if (slotGranularityMinutes <= 0 || slotGranularityMinutes > DaySlotBitmap.MINUTES_PER_DAY) {
+            throw new IllegalStateException("app.booking.slots.granularity-minutes must be between 1 and "
+                    + DaySlotBitmap.MINUTES_PER_DAY + ", was " + slotGranularityMinutes);
+        }
+    }
+    
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
     }
     
     private BookingDto toDtoWithDetails(Booking booking) {
@@ -343,57 +591,14 @@ public class BookingServiceImpl extends BaseServiceImpl<BookingDto, Booking, Lon
         return dto;
     }
     
-    private void sendReschedulingNotification(Booking booking) {
-        // Implementation would send email/notification
-        System.out.println("Sending rescheduling notification for booking: " + booking.getId());
-    }
-    
-    private void sendCancellationNotification(Booking booking) {
-        // Implementation would send email/notification
-        System.out.println("Sending cancellation notification for booking: " + booking.getId());
-    }
-    
-    private void sendCompletionNotification(Booking booking) {
-        // Implementation would send email/notification
-        System.out.println("Sending completion notification for booking: " + booking.getId());
-    }
-    
-    private void sendReminder(Booking booking) {
-        // Implementation would send reminder email/notification
-        System.out.println("Sending reminder for booking: " + booking.getId() + " at " + booking.getBookingDate());
+    @Override
+    public BigDecimal calculateBookingTotal(BookingDto bookingDto) throws ResourceNotFoundException {
+        return pricingEngine.quote(bookingDto);
     }
     
     @Override
-    @Transactional(readOnly = true)
-    public BigDecimal calculateBookingTotal(BookingDto bookingDto) throws ResourceNotFoundException {
-        // Get the base service
-        Service service = serviceRepository.findById(bookingDto.getServiceId())
-            .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + bookingDto.getServiceId()));
-        
-        // Start with the base price of the service
-        BigDecimal total = service.getBasePrice();
-        
-        // Add the cost of any selected add-ons
-        if (bookingDto.getAddons() != null && !bookingDto.getAddons().isEmpty()) {
-            List<ServiceAddon> addons = service.getAddons().stream()
-                .filter(addon -> bookingDto.getAddons().stream()
-                    .anyMatch(dtoAddon -> dtoAddon.getId().equals(addon.getId())))
-                .collect(Collectors.toList());
-                
-            for (ServiceAddon addon : addons) {
-                total = total.add(addon.getPrice());
-            }
-        }
-        
-        // Apply duration-based pricing if end date is available
-        if (bookingDto.getBookingDate() != null && bookingDto.getEndDate() != null) {
-            long hours = Duration.between(bookingDto.getBookingDate(), bookingDto.getEndDate()).toHours();
-            if (hours > 1) {
-                // For multi-hour bookings, multiply the total by the number of hours
-                total = total.multiply(BigDecimal.valueOf(hours));
-            }
-        }
-        
-        return total;
+    public List<BigDecimal> calculateBookingTotals(List<BookingDto> bookingDtos) throws ResourceNotFoundException {
+        return pricingEngine.quoteAll(bookingDtos);
     }
+    
 }
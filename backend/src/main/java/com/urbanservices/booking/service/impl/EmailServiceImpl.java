@@ -1,30 +1,32 @@
 package com.urbanservices.booking.service.impl;
 
+import com.urbanservices.booking.notification.EmailTemplateRenderer;
 import com.urbanservices.booking.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import java.util.Locale;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of EmailService using Spring's JavaMailSender.
- * This is a simplified version. In a production environment, you would want to:
- * 1. Use a proper email template engine (like Thymeleaf or FreeMarker)
- * 2. Handle email sending asynchronously
- * 3. Implement retry mechanisms for failed emails
- * 4. Log email sending status
- * 5. Potentially use a queue for sending emails in bulk
+ * The send methods block until the mail server has answered and report the outcome; queueing,
+ * retries and running sends off the request thread are left to the outbox dispatcher and the
+ * mail executor. Bulk sends go through {@link #sendEmails(List)}, which reuses SMTP connections.
  */
 @Service
 public class EmailServiceImpl implements EmailService {
@@ -32,16 +34,18 @@ public class EmailServiceImpl implements EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailServiceImpl.class);
     
     private final JavaMailSender mailSender;
-    private final TemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    
+    @Value("${app.mail.messages-per-connection:50}")
+    private int messagesPerConnection;
     
     @Autowired
-    public EmailServiceImpl(JavaMailSender mailSender, TemplateEngine templateEngine) {
+    public EmailServiceImpl(JavaMailSender mailSender, EmailTemplateRenderer templateRenderer) {
         this.mailSender = mailSender;
-        this.templateEngine = templateEngine;
+        this.templateRenderer = templateRenderer;
     }
     
     @Override
-    @Async
     public boolean sendEmail(String to, String subject, String content) {
         try {
             SimpleMailMessage message = new SimpleMailMessage();
@@ -59,7 +63,6 @@ public class EmailServiceImpl implements EmailService {
     }
     
     @Override
-    @Async
     public boolean sendHtmlEmail(String to, String subject, String htmlContent) {
         try {
             MimeMessage mimeMessage = mailSender.createMimeMessage();
@@ -79,15 +82,10 @@ public class EmailServiceImpl implements EmailService {
     }
     
     @Override
-    @Async
     public boolean sendTemplateEmail(String to, String subject, String templateName, Object templateModel) {
         try {
-            // Prepare the evaluation context
-            Context context = new Context(Locale.getDefault());
-            context.setVariable("model", templateModel);
-            
-            // Process the template
-            String htmlContent = templateEngine.process(templateName, context);
+            // Parsed templates and the header/footer fragments are cached by the renderer
+            String htmlContent = templateRenderer.render(templateName, templateModel, templateRenderer.getDefaultLocale());
             
             // Send the email
             return sendHtmlEmail(to, subject, htmlContent);
@@ -97,14 +95,72 @@ public class EmailServiceImpl implements EmailService {
         }
     }
     
+    @Override
+    public List<Boolean> sendEmails(List<Email> emails) {
+        Boolean[] sent = new Boolean[emails.size()];
+        Arrays.fill(sent, Boolean.FALSE);
+        int chunk = Math.max(1, messagesPerConnection);
+        for (int from = 0; from < emails.size(); from += chunk) {
+            sendOverOneConnection(emails, from, Math.min(emails.size(), from + chunk), sent);
+        }
+        return Arrays.asList(sent);
+    }
+    
+    /**
+     * Sends emails {@code [from, to)} in one JavaMailSender call, which opens a single connection
+     * for all of them; a message the server refuses does not stop the rest.
+     */
+    private void sendOverOneConnection(List<Email> emails, int from, int to, Boolean[] sent) {
+        List<MimeMessage> messages = new ArrayList<>(to - from);
+        List<Integer> positions = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            Email email = emails.get(i);
+            try {
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, "utf-8");
+                helper.setTo(email.getTo());
+                helper.setSubject(email.getSubject());
+                helper.setText(email.getContent(), email.isHtml());
+                messages.add(mimeMessage);
+                positions.add(i);
+            } catch (MessagingException e) {
+                logger.error("Failed to build email to: {}", email.getTo(), e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        
+        Map<Object, Exception> failed = Collections.emptyMap();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            failed = e.getFailedMessages();
+        } catch (MailException e) {
+            // Authentication or connection failure before any message was sent
+            logger.error("Failed to send {} emails", messages.size(), e);
+            return;
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            Email email = emails.get(positions.get(i));
+            Exception failure = failed.get(messages.get(i));
+            if (failure == null) {
+                sent[positions.get(i)] = Boolean.TRUE;
+            } else {
+                logger.error("Failed to send email to: {}: {}", email.getTo(), failure.toString());
+            }
+        }
+        logger.info("Sent {} of {} emails over one connection", messages.size() - failed.size(), messages.size());
+    }
+    
     /**
      * Sends a verification email to the user.
      * This is just an example of how you might structure a specific email method.
      */
-    @Async
+    @Async("mailExecutor")
     public void sendVerificationEmail(String to, String name, String verificationUrl) {
         String subject = "Verify your email address";
-        String templateName = "email/verification";
+        String templateName = "verification";
         
         // Create a model for the template
         EmailVerificationModel model = new EmailVerificationModel(name, verificationUrl);
@@ -116,10 +172,10 @@ public class EmailServiceImpl implements EmailService {
     /**
      * Sends a password reset email to the user.
      */
-    @Async
+    @Async("mailExecutor")
     public void sendPasswordResetEmail(String to, String name, String resetUrl) {
         String subject = "Password Reset Request";
-        String templateName = "email/password-reset";
+        String templateName = "password-reset";
         
         // Create a model for the template
         PasswordResetModel model = new PasswordResetModel(name, resetUrl);
@@ -131,10 +187,10 @@ public class EmailServiceImpl implements EmailService {
     /**
      * Sends a booking confirmation email to the customer.
      */
-    @Async
+    @Async("mailExecutor")
     public void sendBookingConfirmation(String to, String name, BookingConfirmationModel bookingDetails) {
         String subject = String.format("Booking Confirmation - #%s", bookingDetails.getBookingNumber());
-        String templateName = "email/booking-confirmation";
+        String templateName = "booking-confirmation";
         
         // Send the email using the template
         sendTemplateEmail(to, subject, templateName, bookingDetails);
@@ -171,6 +227,7 @@ public class EmailServiceImpl implements EmailService {
     }
     
     public static class BookingConfirmationModel {
+        private final String customerName;
         private final String bookingNumber;
         private final String serviceName;
         private final String professionalName;
@@ -178,9 +235,10 @@ public class EmailServiceImpl implements EmailService {
         private final String address;
         private final double totalAmount;
         
-        public BookingConfirmationModel(String bookingNumber, String serviceName, 
+        public BookingConfirmationModel(String customerName, String bookingNumber, String serviceName, 
                                       String professionalName, String dateTime, 
                                       String address, double totalAmount) {
+            this.customerName = customerName;
             this.bookingNumber = bookingNumber;
             this.serviceName = serviceName;
             this.professionalName = professionalName;
@@ -190,6 +248,7 @@ public class EmailServiceImpl implements EmailService {
         }
         
         // Getters for Thymeleaf
+        public String getCustomerName() { return customerName; }
         public String getBookingNumber() { return bookingNumber; }
         public String getServiceName() { return serviceName; }
         public String getProfessionalName() { return professionalName; }
@@ -197,4 +256,24 @@ public class EmailServiceImpl implements EmailService {
         public String getAddress() { return address; }
         public double getTotalAmount() { return totalAmount; }
     }
+    
+    public static class BookingReminderModel {
+        private final String customerName;
+        private final String bookingNumber;
+        private final String serviceName;
+        private final String dateTime;
+        
+        public BookingReminderModel(String customerName, String bookingNumber, String serviceName, String dateTime) {
+            this.customerName = customerName;
+            this.bookingNumber = bookingNumber;
+            this.serviceName = serviceName;
+            this.dateTime = dateTime;
+        }
+        
+        // Getters for Thymeleaf
+        public String getCustomerName() { return customerName; }
+        public String getBookingNumber() { return bookingNumber; }
+        public String getServiceName() { return serviceName; }
+        public String getDateTime() { return dateTime; }
+    }
 }
@@ -1,25 +1,44 @@
 package com.urbanservices.booking.service.impl;
 
+import com.urbanservices.booking.availability.AvailabilityScheduleCache;
+import com.urbanservices.booking.dto.CursorSlice;
 import com.urbanservices.booking.dto.ProfessionalDto;
 import com.urbanservices.booking.dto.ServiceDto;
 import com.urbanservices.booking.dto.auth.JwtAuthenticationResponse;
 import com.urbanservices.booking.dto.auth.ProfessionalRegistrationRequest;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
+import com.urbanservices.booking.leaderboard.LeaderboardCache;
+import com.urbanservices.booking.leaderboard.LeaderboardMetric;
+import com.urbanservices.booking.location.ProfessionalLocationIndex;
 import com.urbanservices.booking.mapper.ProfessionalMapper;
 import com.urbanservices.booking.model.Professional;
+import com.urbanservices.booking.model.RatingSummary;
 import com.urbanservices.booking.model.Service;
 import com.urbanservices.booking.security.JwtTokenProvider;
 import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.repository.BookingRepository;
 import com.urbanservices.booking.repository.ProfessionalRepository;
+import com.urbanservices.booking.repository.ReviewRepository;
 import com.urbanservices.booking.repository.ServiceRepository;
+import com.urbanservices.booking.search.SearchIndex;
+import com.urbanservices.booking.search.TextIndex;
 import com.urbanservices.booking.service.ProfessionalService;
+import com.urbanservices.booking.util.LongHashMap;
+import com.urbanservices.booking.util.SeekCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -28,22 +47,68 @@ import java.util.stream.Collectors;
 public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Professional, Long> 
         implements ProfessionalService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProfessionalServiceImpl.class);
+
     private final ProfessionalRepository professionalRepository;
     private final ServiceRepository serviceRepository;
+    private final ReviewRepository reviewRepository;
+    private final BookingRepository bookingRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
+    private final AvailabilityScheduleCache availabilityScheduleCache;
+    private final LeaderboardCache leaderboardCache;
+    private final ProfessionalLocationIndex locationIndex;
+    private final SearchIndex searchIndex;
 
     @Autowired
     public ProfessionalServiceImpl(ProfessionalRepository professionalRepository,
                                  ServiceRepository serviceRepository,
+                                 ReviewRepository reviewRepository,
+                                 BookingRepository bookingRepository,
                                  ProfessionalMapper professionalMapper,
                                  PasswordEncoder passwordEncoder,
-                                 JwtTokenProvider tokenProvider) {
+                                 JwtTokenProvider tokenProvider,
+                                 AvailabilityScheduleCache availabilityScheduleCache,
+                                 LeaderboardCache leaderboardCache,
+                                 ProfessionalLocationIndex locationIndex,
+                                 SearchIndex searchIndex) {
         super(professionalRepository, professionalMapper, Professional.class);
         this.professionalRepository = professionalRepository;
         this.serviceRepository = serviceRepository;
+        this.reviewRepository = reviewRepository;
+        this.bookingRepository = bookingRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenProvider = tokenProvider;
+        this.availabilityScheduleCache = availabilityScheduleCache;
+        this.leaderboardCache = leaderboardCache;
+        this.locationIndex = locationIndex;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
+    @Transactional
+    public ProfessionalDto create(ProfessionalDto dto) {
+        ProfessionalDto created = super.create(dto);
+        locationIndex.professionalChanged(created.getId());
+        searchIndex.professionalChanged(created.getId());
+        return created;
+    }
+
+    @Override
+    @Transactional
+    public ProfessionalDto update(Long id, ProfessionalDto dto) throws ResourceNotFoundException {
+        ProfessionalDto updated = super.update(id, dto);
+        locationIndex.professionalChanged(id);
+        searchIndex.professionalChanged(id);
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) throws ResourceNotFoundException {
+        super.delete(id);
+        locationIndex.professionalChanged(id);
+        searchIndex.professionalChanged(id);
     }
 
     @Override
@@ -64,6 +129,7 @@ public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Pr
         
         // Save the professional
         Professional savedProfessional = professionalRepository.save(professional);
+        searchIndex.professionalChanged(savedProfessional.getId());
         
         // Generate JWT tokens
         String accessToken = tokenProvider.generateToken(savedProfessional);
@@ -83,73 +149,90 @@ public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Pr
     @Override
     @Transactional(readOnly = true)
     public Page<ProfessionalDto> findAvailableProfessionals(Pageable pageable) {
-        return professionalRepository.findAvailableProfessionals(pageable)
-                .map(this::toDtoWithRating);
+        return toDtoPageWithRating(professionalRepository.findAvailableProfessionals(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ProfessionalDto> scrollAvailableProfessionals(String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.latest());
+        Slice<Professional> slice = professionalRepository.findAvailableProfessionalsBefore(
+                position.getPosition(), position.getId(), PageRequest.of(0, size));
+        List<Professional> professionals = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext() && !professionals.isEmpty()) {
+            Professional last = professionals.get(professionals.size() - 1);
+            nextCursor = SeekCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        // Ratings are loaded for the whole slice at once
+        return new CursorSlice<>(toDtosWithRating(professionals), slice, nextCursor);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProfessionalDto> findVerifiedProfessionals(Pageable pageable) {
-        return professionalRepository.findVerifiedProfessionals(pageable)
-                .map(this::toDtoWithRating);
+        return toDtoPageWithRating(professionalRepository.findVerifiedProfessionals(pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProfessionalDto> findByServiceId(Long serviceId, Pageable pageable) {
-        return professionalRepository.findByServiceId(serviceId, pageable)
-                .map(this::toDtoWithRating);
+        return toDtoPageWithRating(professionalRepository.findByServiceId(serviceId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProfessionalDto> findAvailableByServiceId(Long serviceId, Pageable pageable) {
-        return professionalRepository.findAvailableProfessionalsByService(serviceId, pageable)
-                .map(this::toDtoWithRating);
+        return toDtoPageWithRating(professionalRepository.findAvailableProfessionalsByService(serviceId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ProfessionalDto> search(String query, Pageable pageable) {
-        return professionalRepository.search(query, pageable)
-                .map(this::toDtoWithRating);
+        // Ranked by relevance from the search index; an explicit sort goes to the database
+        TextIndex.Hits hits = pageable.isPaged() && pageable.getSort().isUnsorted() && pageable.getOffset() <= Integer.MAX_VALUE
+                ? searchIndex.searchProfessionals(query, (int) pageable.getOffset(), pageable.getPageSize())
+                : null;
+        if (hits == null) {
+            return toDtoPageWithRating(professionalRepository.search(query, pageable));
+        }
+        return new PageImpl<>(toDtosWithRating(findAllInOrder(hits.getIds())), pageable, hits.getTotal());
     }
 
     @Override
     @Transactional
     public ProfessionalDto updateAverageRating(Long professionalId) {
-        Professional professional = professionalRepository.findById(professionalId)
-                .orElseThrow(() -> new ResourceNotFoundException("Professional not found with id: " + professionalId));
+        List<Object[]> stored = professionalRepository.findRatingScore(professionalId);
+        if (stored.isEmpty()) {
+            throw new ResourceNotFoundException("Professional not found with id: " + professionalId);
+        }
         
-        Double averageRating = professionalRepository.calculateAverageRating(professionalId);
-        professional.setAverageRating(averageRating != null ? averageRating : 0.0);
+        // Rebuild the stored summary from the reviews table, unless a review delta landed in between
+        RatingSummary summary = RatingSummary.fromRatingCounts(
+                reviewRepository.countRatingsByProfessionalIds(Collections.singletonList(professionalId)));
+        int replaced = professionalRepository.replaceRatingSummary(professionalId,
+                ((Number) stored.get(0)[0]).longValue(), ((Number) stored.get(0)[1]).intValue(),
+                summary.getRatingSum(), summary.getRatingCount(), summary.getOneStar(), summary.getTwoStar(),
+                summary.getThreeStar(), summary.getFourStar(), summary.getFiveStar());
+        if (replaced == 0) {
+            // The delta is already in the stored columns and the nightly reconciliation repairs any drift
+            logger.debug("Skipped rating rebuild of professional {} after a concurrent review change", professionalId);
+        }
         
-        Professional updatedProfessional = professionalRepository.save(professional);
-        return toDto(updatedProfessional);
+        return toDto(professionalRepository.findById(professionalId)
+                .orElseThrow(() -> new ResourceNotFoundException("Professional not found with id: " + professionalId)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProfessionalDto> findTopRatedProfessionals(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return professionalRepository.findTopRated(pageable).getContent().stream()
-                .map(result -> {
-                    Professional professional = (Professional) result[0];
-                    Double avgRating = (Double) result[1];
-                    ProfessionalDto dto = toDto(professional);
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDtosWithRating(findAllInOrder(leaderboardCache.top(LeaderboardMetric.TOP_RATED_PROFESSIONALS, limit)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProfessionalDto> findTopBookedProfessionals(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return professionalRepository.findTopBooked(limit, pageable).stream()
-                .map(this::toDtoWithRating)
-                .collect(Collectors.toList());
+        return toDtosWithRating(findAllInOrder(leaderboardCache.top(LeaderboardMetric.TOP_BOOKED_PROFESSIONALS, limit)));
     }
 
     @Override
@@ -183,6 +266,7 @@ public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Pr
         
         professional.getServices().add(service);
         Professional updatedProfessional = professionalRepository.save(professional);
+        locationIndex.professionalChanged(professionalId);
         
         return toDto(updatedProfessional);
     }
@@ -200,23 +284,95 @@ public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Pr
         }
         
         Professional updatedProfessional = professionalRepository.save(professional);
+        locationIndex.professionalChanged(professionalId);
         return toDto(updatedProfessional);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ProfessionalDto> findNearbyProfessionals(Double latitude, Double longitude, Double radiusInKm, Long serviceId) {
-        // This is a simplified implementation - in a real app, you'd use a spatial query
-        // to find professionals within the specified radius
-        List<Professional> nearbyProfessionals = professionalRepository.findNearbyProfessionals(
-                latitude, longitude, radiusInKm, serviceId);
+        if (latitude == null || longitude == null || radiusInKm == null || serviceId == null) {
+            return new ArrayList<>();
+        }
+        // Candidates come from the location index, nearest first
+        List<Long> ids = locationIndex.within(serviceId, latitude, longitude, radiusInKm);
+        return toDtosWithRating(findAllInOrder(ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProfessionalDto> findNearestProfessionals(Double latitude, Double longitude, Long serviceId, int limit) {
+        if (latitude == null || longitude == null || serviceId == null) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = locationIndex.nearest(serviceId, latitude, longitude, limit);
+        return toDtosWithRating(findAllInOrder(ids));
+    }
+
+    @Override
+    public boolean isAvailableAt(Long professionalId, LocalDateTime dateTime) {
+        return availabilityScheduleCache.getSchedule(professionalId).isAvailable(dateTime);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProfessionalDto getById(Long id) throws ResourceNotFoundException {
+        Professional professional = professionalRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Professional not found with id: " + id));
+        return toDtosWithRating(Collections.singletonList(professional)).get(0);
+    }
+
+    private List<Professional> findAllInOrder(List<Long> ids) {
+        LongHashMap<Professional> byId = new LongHashMap<>(ids.size());
+        for (Professional professional : professionalRepository.findAllById(ids)) {
+            byId.put(professional.getId(), professional);
+        }
+        List<Professional> professionals = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Professional professional = byId.get(id);
+            if (professional != null) {
+                professionals.add(professional);
+            }
+        }
+        return professionals;
+    }
+
+    private Page<ProfessionalDto> toDtoPageWithRating(Page<Professional> page) {
+        return new PageImpl<>(toDtosWithRating(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Maps a page of professionals. Ratings come from the stored summary and booking totals
+     * from one grouped query, so the number of statements does not grow with the page size.
+     */
+    private List<ProfessionalDto> toDtosWithRating(List<Professional> professionals) {
+        if (professionals.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> ids = new ArrayList<>(professionals.size());
+        for (Professional professional : professionals) {
+            ids.add(professional.getId());
+        }
         
-        return nearbyProfessionals.stream()
-                .map(this::toDtoWithRating)
-                .collect(Collectors.toList());
+        LongHashMap<Long> bookingCounts = new LongHashMap<>(ids.size());
+        for (Object[] row : bookingRepository.countByProfessionalIds(ids)) {
+            bookingCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        
+        List<ProfessionalDto> dtos = new ArrayList<>(professionals.size());
+        for (Professional professional : professionals) {
+            ProfessionalDto dto = toDtoWithServices(professional);
+            Long bookingCount = bookingCounts.get(professional.getId());
+            dto.setAverageRating(professional.getAverageRating());
+            dto.setTotalReviews(professional.getTotalReviews());
+            dto.setTotalBookings(bookingCount != null ? bookingCount : 0L);
+            dtos.add(dto);
+        }
+        return dtos;
     }
 
-    private ProfessionalDto toDtoWithRating(Professional professional) {
+    private ProfessionalDto toDtoWithServices(Professional professional) {
         ProfessionalDto dto = toDto(professional);
         
         // Set the services
@@ -232,20 +388,6 @@ public class ProfessionalServiceImpl extends BaseServiceImpl<ProfessionalDto, Pr
                 .collect(Collectors.toSet());
         dto.setServices(serviceDtos);
         
-        // Set the average rating if not already set
-        if (dto.getAverageRating() == null) {
-            Double averageRating = professionalRepository.calculateAverageRating(professional.getId());
-            dto.setAverageRating(averageRating != null ? averageRating : 0.0);
-        }
-        
-        // Set the total number of reviews
-        Long reviewCount = professionalRepository.countReviews(professional.getId());
-        dto.setTotalReviews(reviewCount != null ? reviewCount.intValue() : 0);
-        
-        // Set the total number of bookings if needed
-        // Long bookingCount = professionalRepository.countBookings(professional.getId());
-        // dto.setTotalBookings(bookingCount != null ? bookingCount : 0L);
-        
         return dto;
     }
 }
@@ -1,8 +1,10 @@
 package com.urbanservices.booking.service.impl;
 
+import com.urbanservices.booking.dto.CursorSlice;
 import com.urbanservices.booking.dto.ReviewDto;
 import com.urbanservices.booking.exception.ResourceAlreadyExistsException;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
+import com.urbanservices.booking.leaderboard.LeaderboardCache;
 import com.urbanservices.booking.model.enums.BookingStatus;
 import com.urbanservices.booking.mapper.ReviewMapper;
 import com.urbanservices.booking.model.*;
@@ -10,36 +12,69 @@ import com.urbanservices.booking.repository.*;
 import com.urbanservices.booking.service.ProfessionalService;
 import com.urbanservices.booking.service.ReviewService;
 import com.urbanservices.booking.service.ServiceService;
+import com.urbanservices.booking.util.LongHashMap;
+import com.urbanservices.booking.util.SeekCursor;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long> implements ReviewService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReviewServiceImpl.class);
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
     private final ReviewRepository reviewRepository;
     private final BookingRepository bookingRepository;
+    private final ProfessionalRepository professionalRepository;
+    private final ServiceRepository serviceRepository;
     private final ProfessionalService professionalService;
     private final ServiceService serviceService;
+    private final LeaderboardCache leaderboardCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public ReviewServiceImpl(ReviewRepository reviewRepository,
                            BookingRepository bookingRepository,
+                           ProfessionalRepository professionalRepository,
+                           ServiceRepository serviceRepository,
                            ProfessionalService professionalService,
                            ServiceService serviceService,
+                           LeaderboardCache leaderboardCache,
+                           EntityManagerFactory entityManagerFactory,
+                           PlatformTransactionManager transactionManager,
                            ReviewMapper reviewMapper) {
         super(reviewRepository, reviewMapper, Review.class);
         this.reviewRepository = reviewRepository;
         this.bookingRepository = bookingRepository;
+        this.professionalRepository = professionalRepository;
+        this.serviceRepository = serviceRepository;
         this.professionalService = professionalService;
         this.serviceService = serviceService;
+        this.leaderboardCache = leaderboardCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -84,6 +119,27 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
                 .map(this::toDtoWithDetails);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ReviewDto> scrollByProfessionalId(Long professionalId, String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.latest());
+        return toCursorSlice(reviewRepository.findByProfessionalIdBefore(professionalId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<ReviewDto> scrollByServiceId(Long serviceId, String cursor, int size) {
+        SeekCursor position = SeekCursor.decode(cursor, SeekCursor.latest());
+        return toCursorSlice(reviewRepository.findByServiceIdBefore(serviceId,
+                position.getPosition(), position.getId(), PageRequest.of(0, size)));
+    }
+
+    private CursorSlice<ReviewDto> toCursorSlice(Slice<Review> slice) {
+        return CursorSlice.of(slice, this::toDtoWithDetails,
+                review -> SeekCursor.of(review.getCreatedAt(), review.getId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public ReviewDto findByBookingId(Long bookingId) throws ResourceNotFoundException {
@@ -194,8 +250,9 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
         // No need to explicitly set reviewed flag as the presence of the review indicates it's been reviewed
         bookingRepository.save(booking);
         
-        // Update the average ratings
-        updateReviewAverages(booking.getProfessional().getId(), booking.getService().getId());
+        // Add the rating to the stored summaries
+        applyRatingChange(booking.getProfessional().getId(), booking.getService().getId(),
+                0, ratingOf(savedReview));
         
         return toDtoWithDetails(savedReview);
     }
@@ -205,6 +262,8 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
     public ReviewDto update(Long id, ReviewDto reviewDto) throws ResourceNotFoundException {
         return reviewRepository.findById(id)
                 .map(existingReview -> {
+                    int previousRating = ratingOf(existingReview);
+                    
                     // Update the review
                     existingReview.setRating(reviewDto.getRating());
                     existingReview.setComment(reviewDto.getComment());
@@ -213,11 +272,13 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
                     
                     Review updatedReview = reviewRepository.save(existingReview);
                     
-                    // Update the average ratings
-                    updateReviewAverages(
-                            updatedReview.getProfessional() != null ? updatedReview.getProfessional().getId() : null,
-                            updatedReview.getService() != null ? updatedReview.getService().getId() : null
-                    );
+                    // Move the review between star buckets of the stored summaries
+                    if (previousRating != ratingOf(updatedReview)) {
+                        applyRatingChange(
+                                updatedReview.getProfessional() != null ? updatedReview.getProfessional().getId() : null,
+                                updatedReview.getService() != null ? updatedReview.getService().getId() : null,
+                                previousRating, ratingOf(updatedReview));
+                    }
                     
                     return toDtoWithDetails(updatedReview);
                 })
@@ -232,12 +293,160 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
         
         Long professionalId = review.getProfessional() != null ? review.getProfessional().getId() : null;
         Long serviceId = review.getService() != null ? review.getService().getId() : null;
+        int rating = ratingOf(review);
         
         // Delete the review
         reviewRepository.delete(review);
         
-        // Update the average ratings
-        updateReviewAverages(professionalId, serviceId);
+        // Remove the rating from the stored summaries
+        applyRatingChange(professionalId, serviceId, rating, 0);
+    }
+
+    @Override
+    @Scheduled(cron = "${app.reviews.rating-reconcile-cron:0 15 4 * * ?}")
+    public int reconcileRatingSummaries() {
+        int repaired = reconcile("professional",
+                professionalRepository::findRatingSummariesAfter,
+                reviewRepository::countRatingsByProfessionalIds,
+                (id, expectedSum, expectedCount, summary) -> professionalRepository.replaceRatingSummary(
+                        id, expectedSum, expectedCount, summary.getRatingSum(), summary.getRatingCount(),
+                        summary.getOneStar(), summary.getTwoStar(), summary.getThreeStar(),
+                        summary.getFourStar(), summary.getFiveStar()));
+        repaired += reconcile("service",
+                serviceRepository::findRatingSummariesAfter,
+                reviewRepository::countRatingsByServiceIds,
+                (id, expectedSum, expectedCount, summary) -> {
+                    int replaced = serviceRepository.replaceRatingSummary(
+                            id, expectedSum, expectedCount, summary.getRatingSum(), summary.getRatingCount(),
+                            summary.getOneStar(), summary.getTwoStar(), summary.getThreeStar(),
+                            summary.getFourStar(), summary.getFiveStar());
+                    if (replaced > 0) {
+                        evictCachedService(id);
+                    }
+                    return replaced;
+                });
+        return repaired;
+    }
+
+    /**
+     * Walks all owners in id order, compares each stored summary with a grouped count of its
+     * reviews and overwrites the ones that drifted. Each batch commits in its own transaction.
+     */
+    private int reconcile(String owner,
+                          BiFunction<Long, Pageable, List<Object[]>> storedSummaries,
+                          Function<Collection<Long>, List<Object[]>> ratingCounts,
+                          SummaryWriter writer) {
+        int[] repaired = new int[1];
+        long afterId = 0L;
+        
+        while (afterId >= 0) {
+            long batchAfterId = afterId;
+            afterId = transactionTemplate.execute(status ->
+                    reconcileBatch(batchAfterId, storedSummaries, ratingCounts, writer, repaired));
+        }
+        
+        if (repaired[0] > 0) {
+            logger.warn("Repaired {} drifted {} rating summaries", repaired[0], owner);
+        }
+        return repaired[0];
+    }
+
+    /**
+     * Reconciles the batch of owners after the given id and returns the id to continue after,
+     * or -1 when this was the last batch.
+     */
+    private long reconcileBatch(long afterId,
+                                BiFunction<Long, Pageable, List<Object[]>> storedSummaries,
+                                Function<Collection<Long>, List<Object[]>> ratingCounts,
+                                SummaryWriter writer,
+                                int[] repaired) {
+        List<Object[]> stored = storedSummaries.apply(afterId, PageRequest.of(0, RECONCILE_BATCH_SIZE));
+        if (stored.isEmpty()) {
+            return -1L;
+        }
+        
+        List<Long> ids = new ArrayList<>(stored.size());
+        for (Object[] row : stored) {
+            ids.add((Long) row[0]);
+        }
+        
+        LongHashMap<int[]> histograms = new LongHashMap<>(ids.size());
+        for (Object[] row : ratingCounts.apply(ids)) {
+            int rating = ((Number) row[1]).intValue();
+            if (rating < 1 || rating > 5) {
+                continue;
+            }
+            int[] histogram = histograms.get((Long) row[0]);
+            if (histogram == null) {
+                histogram = new int[5];
+                histograms.put((Long) row[0], histogram);
+            }
+            histogram[rating - 1] = ((Number) row[2]).intValue();
+        }
+        
+        for (Object[] row : stored) {
+            Long id = (Long) row[0];
+            int[] histogram = histograms.get(id);
+            RatingSummary actual = RatingSummary.fromHistogram(histogram != null ? histogram : new int[5]);
+            if (!matches(actual, row)) {
+                repaired[0] += writer.replace(id, ((Number) row[1]).longValue(), ((Number) row[2]).intValue(), actual);
+            }
+        }
+        
+        return stored.size() < RECONCILE_BATCH_SIZE ? -1L : ids.get(ids.size() - 1);
+    }
+
+    private static boolean matches(RatingSummary actual, Object[] stored) {
+        int[] histogram = actual.getHistogram();
+        if (actual.getRatingSum() != ((Number) stored[1]).longValue()
+                || actual.getRatingCount() != ((Number) stored[2]).intValue()) {
+            return false;
+        }
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] != ((Number) stored[3 + i]).intValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a rating change to the professional's and service's stored summaries. A rating of
+     * 0 stands for "no review", so adding a review passes 0 as the removed rating and vice versa.
+     */
+    private void applyRatingChange(Long professionalId, Long serviceId, int removedRating, int addedRating) {
+        long sumDelta = addedRating - removedRating;
+        int countDelta = (addedRating > 0 ? 1 : 0) - (removedRating > 0 ? 1 : 0);
+        
+        if (professionalId != null) {
+            professionalRepository.applyRatingDelta(professionalId, sumDelta, countDelta, addedRating, removedRating);
+        }
+        if (serviceId != null) {
+            serviceRepository.applyRatingDelta(serviceId, sumDelta, countDelta, addedRating, removedRating);
+            evictCachedService(serviceId);
+        }
+        leaderboardCache.ratingChanged(professionalId, serviceId);
+    }
+
+    /**
+     * The rating updates bypass the second-level cache, so the cached service is dropped now and
+     * again after commit, when a load racing with this transaction may have put the old summary back.
+     */
+    private void evictCachedService(Long serviceId) {
+        jakarta.persistence.Cache cache = entityManagerFactory.getCache();
+        cache.evict(com.urbanservices.booking.model.Service.class, serviceId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evict(com.urbanservices.booking.model.Service.class, serviceId);
+                }
+            });
+        }
+    }
+
+    private static int ratingOf(Review review) {
+        return review.getRating() != null ? review.getRating() : 0;
     }
     
     private ReviewDto toDtoWithDetails(Review review) {
@@ -263,4 +472,9 @@ public class ReviewServiceImpl extends BaseServiceImpl<ReviewDto, Review, Long>
         
         return dto;
     }
+
+    @FunctionalInterface
+    private interface SummaryWriter {
+        int replace(Long id, long expectedSum, int expectedCount, RatingSummary summary);
+    }
 }
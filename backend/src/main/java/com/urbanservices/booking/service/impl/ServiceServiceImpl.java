@@ -1,101 +1,174 @@
 package com.urbanservices.booking.service.impl;
 
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.catalog.CatalogSnapshot;
 import com.urbanservices.booking.dto.ServiceDto;
+import com.urbanservices.booking.dto.SuggestionDto;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
+import com.urbanservices.booking.leaderboard.LeaderboardCache;
+import com.urbanservices.booking.leaderboard.LeaderboardMetric;
 import com.urbanservices.booking.mapper.ServiceMapper;
+import com.urbanservices.booking.model.RatingSummary;
 import com.urbanservices.booking.model.Service;
 import com.urbanservices.booking.model.ServiceCategory;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.ReviewRepository;
 import com.urbanservices.booking.repository.ServiceCategoryRepository;
 import com.urbanservices.booking.repository.ServiceRepository;
+import com.urbanservices.booking.search.SearchIndex;
+import com.urbanservices.booking.search.SuggestionIndex;
+import com.urbanservices.booking.search.SuggestionTrie;
+import com.urbanservices.booking.search.TextIndex;
 import com.urbanservices.booking.service.ServiceService;
+import com.urbanservices.booking.util.LongHashMap;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.PageRequest;
 // Using fully qualified name to avoid conflict with Service entity
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @org.springframework.stereotype.Service("serviceService")
 public class ServiceServiceImpl extends BaseServiceImpl<ServiceDto, Service, Long> implements ServiceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ServiceServiceImpl.class);
+
     private final ServiceRepository serviceRepository;
     private final ServiceCategoryRepository categoryRepository;
+    private final ReviewRepository reviewRepository;
+    private final BookingRepository bookingRepository;
+    private final LeaderboardCache leaderboardCache;
+    private final CatalogCache catalogCache;
+    private final SearchIndex searchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final EntityManagerFactory entityManagerFactory;
 
     @Autowired
     public ServiceServiceImpl(ServiceRepository serviceRepository,
                             ServiceCategoryRepository categoryRepository,
+                            ReviewRepository reviewRepository,
+                            BookingRepository bookingRepository,
+                            LeaderboardCache leaderboardCache,
+                            CatalogCache catalogCache,
+                            SearchIndex searchIndex,
+                            SuggestionIndex suggestionIndex,
+                            EntityManagerFactory entityManagerFactory,
                             ServiceMapper serviceMapper) {
         super(serviceRepository, serviceMapper, Service.class);
         this.serviceRepository = serviceRepository;
         this.categoryRepository = categoryRepository;
+        this.reviewRepository = reviewRepository;
+        this.bookingRepository = bookingRepository;
+        this.leaderboardCache = leaderboardCache;
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.entityManagerFactory = entityManagerFactory;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceDto> findByCategoryId(Long categoryId, Pageable pageable) {
-        return serviceRepository.findByCategoryId(categoryId, pageable)
-                .map(this::toDtoWithRating);
+        if (!servableFromCatalog(pageable) || categoryId == null) {
+            return toDtoPageWithRating(serviceRepository.findByCategoryId(categoryId, pageable));
+        }
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        return toCatalogPage(catalog.activeServicesInCategory(categoryId, (int) pageable.getOffset(), pageable.getPageSize()),
+                pageable, catalog.activeServiceCountInCategory(categoryId));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceDto> findByProfessionalId(Long professionalId, Pageable pageable) {
-        return serviceRepository.findByProfessionalId(professionalId, pageable)
-                .map(this::toDtoWithRating);
+        return toDtoPageWithRating(serviceRepository.findByProfessionalId(professionalId, pageable));
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceDto> search(String query, Pageable pageable) {
-        return serviceRepository.search(query, pageable)
-                .map(this::toDtoWithRating);
+        // Ranked by relevance from the search index; an explicit sort goes to the database
+        TextIndex.Hits hits = servableFromCatalog(pageable)
+                ? searchIndex.searchServices(query, (int) pageable.getOffset(), pageable.getPageSize())
+                : null;
+        if (hits == null) {
+            return toDtoPageWithRating(serviceRepository.search(query, pageable));
+        }
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        List<CatalogSnapshot.ServiceEntry> services = new ArrayList<>(hits.getIds().size());
+        for (Long id : hits.getIds()) {
+            CatalogSnapshot.ServiceEntry service = catalog.service(id);
+            if (service != null) {
+                services.add(service);
+            }
+        }
+        return toCatalogPage(services, pageable, hits.getTotal());
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        List<SuggestionTrie.Suggestion> suggestions = suggestionIndex.suggest(prefix, limit);
+        List<SuggestionDto> dtos = new ArrayList<>(suggestions.size());
+        for (SuggestionTrie.Suggestion suggestion : suggestions) {
+            dtos.add(new SuggestionDto(suggestion.getType(), suggestion.getId(), suggestion.getText()));
+        }
+        return dtos;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<ServiceDto> findActiveServices(Pageable pageable) {
-        return serviceRepository.findByIsActive(true, pageable)
-                .map(this::toDtoWithRating);
+        if (!servableFromCatalog(pageable)) {
+            return toDtoPageWithRating(serviceRepository.findByIsActive(true, pageable));
+        }
+        CatalogSnapshot catalog = catalogCache.snapshot();
+        return toCatalogPage(catalog.activeServices((int) pageable.getOffset(), pageable.getPageSize()),
+                pageable, catalog.activeServiceCount());
     }
 
     @Override
     @Transactional
     public ServiceDto updateAverageRating(Long serviceId) {
-        Service service = serviceRepository.findById(serviceId)
-                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceId));
+        List<Object[]> stored = serviceRepository.findRatingScore(serviceId);
+        if (stored.isEmpty()) {
+            throw new ResourceNotFoundException("Service not found with id: " + serviceId);
+        }
         
-        Double averageRating = serviceRepository.calculateAverageRating(serviceId);
-        service.setAverageRating(averageRating != null ? averageRating : 0.0);
+        // Rebuild the stored summary from the reviews table, unless a review delta landed in between
+        RatingSummary summary = RatingSummary.fromRatingCounts(
+                reviewRepository.countRatingsByServiceIds(Collections.singletonList(serviceId)));
+        // The stored row is (active, rating sum, rating count)
+        int replaced = serviceRepository.replaceRatingSummary(serviceId,
+                ((Number) stored.get(0)[1]).longValue(), ((Number) stored.get(0)[2]).intValue(),
+                summary.getRatingSum(), summary.getRatingCount(), summary.getOneStar(), summary.getTwoStar(),
+                summary.getThreeStar(), summary.getFourStar(), summary.getFiveStar());
+        if (replaced == 0) {
+            // The delta is already in the stored columns and the nightly reconciliation repairs any drift
+            logger.debug("Skipped rating rebuild of service {} after a concurrent review change", serviceId);
+        }
         
-        Service updatedService = serviceRepository.save(service);
-        return toDto(updatedService);
+        // The native update bypasses the second-level cache
+        entityManagerFactory.getCache().evict(Service.class, serviceId);
+        return toDto(serviceRepository.findById(serviceId)
+                .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + serviceId)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ServiceDto> findTopBookedServices(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return serviceRepository.findTopBookedServices(limit, pageable).stream()
-                .map(this::toDtoWithRating)
-                .collect(Collectors.toList());
+        return toDtosWithRating(findAllInOrder(leaderboardCache.top(LeaderboardMetric.TOP_BOOKED_SERVICES, limit)));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<ServiceDto> findTopRatedServices(int limit) {
-        Pageable pageable = PageRequest.of(0, limit);
-        return serviceRepository.findTopRated(pageable).getContent().stream()
-                .map(result -> {
-                    Service service = (Service) result[0];
-                    Double avgRating = (Double) result[1];
-                    ServiceDto dto = toDto(service);
-                    dto.setAverageRating(avgRating != null ? avgRating : 0.0);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        return toDtosWithRating(findAllInOrder(leaderboardCache.top(LeaderboardMetric.TOP_RATED_SERVICES, limit)));
     }
 
     @Override
@@ -106,6 +179,9 @@ public class ServiceServiceImpl extends BaseServiceImpl<ServiceDto, Service, Lon
         
         service.setActive(active);
         serviceRepository.save(service);
+        leaderboardCache.serviceChanged(id);
+        catalogCache.catalogChanged();
+        suggestionIndex.catalogChanged();
     }
 
     @Override
@@ -125,10 +201,15 @@ public class ServiceServiceImpl extends BaseServiceImpl<ServiceDto, Service, Lon
             service.setCategory(category);
             
             Service savedService = serviceRepository.save(service);
+            catalogCache.catalogChanged();
+            suggestionIndex.catalogChanged();
             return toDto(savedService);
         }
         
-        return super.create(dto);
+        ServiceDto created = super.create(dto);
+        catalogCache.catalogChanged();
+        suggestionIndex.catalogChanged();
+        return created;
     }
 
     @Override
@@ -150,29 +231,145 @@ public class ServiceServiceImpl extends BaseServiceImpl<ServiceDto, Service, Lon
                     }
                     
                     Service updatedService = serviceRepository.save(existingService);
+                    leaderboardCache.serviceChanged(id);
+                    catalogCache.catalogChanged();
+                    suggestionIndex.catalogChanged();
                     return toDto(updatedService);
                 })
                 .orElseThrow(() -> new ResourceNotFoundException("Service not found with id: " + id));
     }
 
-    private ServiceDto toDtoWithRating(Service service) {
-        ServiceDto dto = toDto(service);
+    private List<Service> findAllInOrder(List<Long> ids) {
+        LongHashMap<Service> byId = new LongHashMap<>(ids.size());
+        for (Service service : serviceRepository.findAllById(ids)) {
+            byId.put(service.getId(), service);
+        }
+        List<Service> services = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Service service = byId.get(id);
+            if (service != null) {
+                services.add(service);
+            }
+        }
+        return services;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) throws ResourceNotFoundException {
+        super.delete(id);
+        catalogCache.catalogChanged();
+        suggestionIndex.catalogChanged();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ServiceDto getById(Long id) throws ResourceNotFoundException {
+        CatalogSnapshot.ServiceEntry service = catalogCache.service(id);
+        if (service == null) {
+            throw new ResourceNotFoundException("Service not found with id: " + id);
+        }
+        return toCatalogDtos(Collections.singletonList(service)).get(0);
+    }
+
+    /**
+     * Catalog pages are served in id order; requests with an explicit sort go to the database.
+     */
+    private static boolean servableFromCatalog(Pageable pageable) {
+        return pageable.isPaged() && pageable.getSort().isUnsorted() && pageable.getOffset() <= Integer.MAX_VALUE;
+    }
+
+    private Page<ServiceDto> toCatalogPage(List<CatalogSnapshot.ServiceEntry> services, Pageable pageable, long total) {
+        return new PageImpl<>(toCatalogDtos(services), pageable, total);
+    }
+
+    /**
+     * Maps snapshot entries; only the live figures (rating, professional and booking totals)
+     * are queried, as scalar rows for the whole page.
+     */
+    private List<ServiceDto> toCatalogDtos(List<CatalogSnapshot.ServiceEntry> services) {
+        if (services.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> ids = new ArrayList<>(services.size());
+        for (CatalogSnapshot.ServiceEntry service : services) {
+            ids.add(service.getId());
+        }
+        LongHashMap<Double> averageRatings = new LongHashMap<>(ids.size());
+        for (Object[] row : serviceRepository.findRatingScoresByIds(ids)) {
+            int count = ((Number) row[2]).intValue();
+            averageRatings.put((Long) row[0], count > 0 ? ((Number) row[1]).doubleValue() / count : 0.0);
+        }
         
-        if (service != null) {
-            // Calculate and set average rating
-            Double averageRating = serviceRepository.calculateAverageRating(service.getId());
+        List<ServiceDto> dtos = new ArrayList<>(services.size());
+        for (CatalogSnapshot.ServiceEntry service : services) {
+            ServiceDto dto = new ServiceDto();
+            dto.setId(service.getId());
+            dto.setName(service.getName());
+            dto.setDescription(service.getDescription());
+            dto.setCategoryId(service.getCategoryId());
+            dto.setCategoryName(service.getCategoryName());
+            dto.setBasePrice(service.getBasePrice());
+            dto.setDurationInMinutes(service.getDurationInMinutes());
+            dto.setImageUrl(service.getImageUrl());
+            dto.setActive(service.isActive());
+            Double averageRating = averageRatings.get(service.getId());
             dto.setAverageRating(averageRating != null ? averageRating : 0.0);
-            
-            // Set other calculated fields if needed
-            Long totalProfessionals = service.getProfessionals() != null ? 
-                (long) service.getProfessionals().size() : 0L;
-            dto.setTotalProfessionals(totalProfessionals);
-            
-            Long totalBookings = service.getBookings() != null ? 
-                (long) service.getBookings().size() : 0L;
-            dto.setTotalBookings(totalBookings);
+            dtos.add(dto);
+        }
+        addTotals(dtos, ids);
+        return dtos;
+    }
+
+    private Page<ServiceDto> toDtoPageWithRating(Page<Service> page) {
+        return new PageImpl<>(toDtosWithRating(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Maps a page of services without touching their bookings or professionals collections:
+     * ratings come from the stored summary, and professional and booking totals from one
+     * grouped query each for the whole page.
+     */
+    private List<ServiceDto> toDtosWithRating(List<Service> services) {
+        if (services.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        List<Long> ids = new ArrayList<>(services.size());
+        for (Service service : services) {
+            ids.add(service.getId());
+        }
+        
+        List<ServiceDto> dtos = new ArrayList<>(services.size());
+        for (Service service : services) {
+            ServiceDto dto = toDto(service);
+            dto.setAverageRating(service.getAverageRating());
+            dtos.add(dto);
+        }
+        addTotals(dtos, ids);
+        return dtos;
+    }
+
+    /**
+     * Sets professional and booking totals with one grouped query each; {@code ids} are the
+     * ids of {@code dtos}.
+     */
+    private void addTotals(List<ServiceDto> dtos, List<Long> ids) {
+        LongHashMap<Long> professionalCounts = new LongHashMap<>(ids.size());
+        for (Object[] row : serviceRepository.countProfessionalsByServiceIds(ids)) {
+            professionalCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        LongHashMap<Long> bookingCounts = new LongHashMap<>(ids.size());
+        for (Object[] row : bookingRepository.countByServiceIds(ids)) {
+            bookingCounts.put((Long) row[0], ((Number) row[1]).longValue());
         }
         
-        return dto;
+        for (ServiceDto dto : dtos) {
+            Long totalProfessionals = professionalCounts.get(dto.getId());
+            Long totalBookings = bookingCounts.get(dto.getId());
+            dto.setTotalProfessionals(totalProfessionals != null ? totalProfessionals : 0L);
+            dto.setTotalBookings(totalBookings != null ? totalBookings : 0L);
+        }
     }
 }
@@ -3,10 +3,11 @@ package com.urbanservices.booking.service.impl;
 import com.urbanservices.booking.exception.EmailAlreadyExistsException;
 import com.urbanservices.booking.exception.PhoneAlreadyExistsException;
 import com.urbanservices.booking.exception.ResourceNotFoundException;
-import com.urbanservices.booking.service.EmailService;
 import com.urbanservices.booking.model.User;
 import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.notification.NotificationOutbox;
 import com.urbanservices.booking.repository.UserRepository;
+import com.urbanservices.booking.security.UserSecurityStateCache;
 import com.urbanservices.booking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -25,15 +26,18 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final NotificationOutbox notificationOutbox;
+    private final UserSecurityStateCache userSecurityStateCache;
 
     @Autowired
     public UserServiceImpl(UserRepository userRepository, 
                           PasswordEncoder passwordEncoder,
-                          EmailService emailService) {
+                          NotificationOutbox notificationOutbox,
+                          UserSecurityStateCache userSecurityStateCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.emailService = emailService;
+        this.notificationOutbox = notificationOutbox;
+        this.userSecurityStateCache = userSecurityStateCache;
     }
 
     @Override
@@ -69,7 +73,7 @@ public class UserServiceImpl implements UserService {
         
         User savedUser = userRepository.save(user);
         
-        // Send verification email (async)
+        // Queue the verification email; it is sent after commit
         sendVerificationEmail(savedUser);
         
         return savedUser;
@@ -143,6 +147,7 @@ public class UserServiceImpl implements UserService {
         user.setUpdatedAt(LocalDateTime.now());
         
         userRepository.save(user);
+        userSecurityStateCache.invalidate(id);
     }
 
     @Override
@@ -173,6 +178,9 @@ public class UserServiceImpl implements UserService {
         
         // Role can only be updated by admin, so we don't update it here
         
+        // A changed email no longer matches the subject of issued tokens
+        userSecurityStateCache.invalidate(existingUser.getId());
+        
         return userRepository.save(existingUser);
     }
 
@@ -187,13 +195,15 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Current password is incorrect");
         }
         
-        // Update password
+        // Update password and revoke tokens issued before the change
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPasswordChangedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         
         userRepository.save(user);
+        userSecurityStateCache.invalidate(userId);
         
-        // Send password change notification (async)
+        // Queue the password change notification
         sendPasswordChangeNotification(user);
     }
 
@@ -210,7 +220,7 @@ public class UserServiceImpl implements UserService {
         
         userRepository.save(user);
         
-        // Send password reset email (async)
+        // Queue the password reset email
         sendPasswordResetEmail(user, resetToken);
     }
 
@@ -221,15 +231,17 @@ public class UserServiceImpl implements UserService {
                 .filter(u -> u.getResetTokenExpiry() != null && u.getResetTokenExpiry().isAfter(LocalDateTime.now()))
                 .orElseThrow(() -> new IllegalArgumentException("Invalid or expired reset token"));
         
-        // Update password
+        // Update password and revoke tokens issued before the change
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPasswordChangedAt(LocalDateTime.now());
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
         user.setUpdatedAt(LocalDateTime.now());
         
         userRepository.save(user);
+        userSecurityStateCache.invalidate(user.getId());
         
-        // Send password reset confirmation (async)
+        // Queue the password reset confirmation
         sendPasswordResetConfirmation(user);
     }
 
@@ -269,8 +281,8 @@ public class UserServiceImpl implements UserService {
         String subject = "Verify your email address";
         String content = String.format("Please click the link below to verify your email address:\n%s", verificationUrl);
         
-        // This would be an async call to an email service
-        emailService.sendEmail(user.getEmail(), subject, content);
+        notificationOutbox.enqueue("email-verification:" + user.getId() + ":" + user.getEmailVerificationToken(),
+                user.getEmail(), subject, content);
     }
     
     private void sendPasswordResetEmail(User user, String resetToken) {
@@ -279,8 +291,7 @@ public class UserServiceImpl implements UserService {
         String subject = "Password Reset Request";
         String content = String.format("To reset your password, please click the link below:\n%s\n\nThis link will expire in 24 hours.", resetUrl);
         
-        // This would be an async call to an email service
-        emailService.sendEmail(user.getEmail(), subject, content);
+        notificationOutbox.enqueue("password-reset:" + user.getId() + ":" + resetToken, user.getEmail(), subject, content);
     }
     
     private void sendPasswordResetConfirmation(User user) {
@@ -288,8 +299,8 @@ public class UserServiceImpl implements UserService {
         String subject = "Password Updated Successfully";
         String content = "Your password has been successfully updated. If you did not make this change, please contact support immediately.";
         
-        // This would be an async call to an email service
-        emailService.sendEmail(user.getEmail(), subject, content);
+        notificationOutbox.enqueue("password-reset-confirmation:" + user.getId() + ":" + user.getPasswordChangedAt(),
+                user.getEmail(), subject, content);
     }
     
     private void sendPasswordChangeNotification(User user) {
@@ -297,7 +308,7 @@ public class UserServiceImpl implements UserService {
         String subject = "Password Changed";
         String content = "Your password has been changed. If you did not make this change, please contact support immediately.";
         
-        // This would be an async call to an email service
-        emailService.sendEmail(user.getEmail(), subject, content);
+        notificationOutbox.enqueue("password-changed:" + user.getId() + ":" + user.getPasswordChangedAt(),
+                user.getEmail(), subject, content);
     }
 }
@@ -0,0 +1,109 @@
+package com.urbanservices.booking.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe cache bounded both in size (least recently used entries are evicted first)
+ * and in age (entries expire a fixed time after they were stored). Meant for hot-path lookups
+ * with a few thousand entries, where a single lock is cheaper than the work it saves.
+ */
+public final class ExpiringLruCache<K, V> {
+
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public ExpiringLruCache(int maxSize, long timeToLiveMillis) {
+        if (maxSize <= 0 || timeToLiveMillis <= 0) {
+            throw new IllegalArgumentException("Cache size and time to live must be positive");
+        }
+        this.timeToLiveNanos = timeToLiveMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * The cached value, or null if it is absent or expired.
+     */
+    public V get(K key) {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (now - entry.expiresAtNanos >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    /**
+     * Stores the value for the cache's time to live.
+     */
+    public void put(K key, V value) {
+        put(key, value, timeToLiveNanos / 1_000_000L);
+    }
+
+    /**
+     * Stores the value for at most {@code timeToLiveMillis}, capped at the cache's time to live.
+     */
+    public void put(K key, V value, long timeToLiveMillis) {
+        if (value == null || timeToLiveMillis <= 0) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + Math.min(timeToLiveNanos, timeToLiveMillis * 1_000_000L);
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Returns the cached value or computes, stores and returns a new one. The loader runs
+     * outside the lock, so concurrent misses for the same key may both load; a null result is
+     * returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.urbanservices.booking.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by a timestamp and then by id, for keyset pagination: the next
+ * page is read with a range condition on the ordering columns instead of an offset, so it costs
+ * the same however deep the client has scrolled, and no count query is needed.
+ *
+ * Clients receive the position as an opaque URL-safe token and send it back unchanged.
+ */
+public final class SeekCursor {
+
+    // Later than any stored timestamp and within the DATETIME range of the supported databases
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final LocalDateTime position;
+    private final long id;
+
+    private SeekCursor(LocalDateTime position, long id) {
+        this.position = position;
+        this.id = id;
+    }
+
+    public static SeekCursor of(LocalDateTime position, long id) {
+        if (position == null) {
+            throw new IllegalArgumentException("Cursor position is required");
+        }
+        return new SeekCursor(position, id);
+    }
+
+    /**
+     * Position before every row, for the first page of an ascending listing.
+     */
+    public static SeekCursor before(LocalDateTime position) {
+        return new SeekCursor(position, Long.MIN_VALUE);
+    }
+
+    /**
+     * Position after every row, for the first page of a descending listing.
+     */
+    public static SeekCursor after(LocalDateTime position) {
+        return new SeekCursor(position, Long.MAX_VALUE);
+    }
+
+    /**
+     * Position after every row of a descending listing with no upper bound.
+     */
+    public static SeekCursor latest() {
+        return after(END_OF_TIME);
+    }
+
+    /**
+     * The cursor in the token, or {@code first} when there is no token (first page).
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SeekCursor decode(String token, SeekCursor first) {
+        if (token == null || token.isBlank()) {
+            return first;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            return of(LocalDateTime.parse(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    public String encode() {
+        String value = position + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getPosition() {
+        return position;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,291 @@
+-- Schema as created by the entity mappings of the first release, before versioned migrations
+-- were introduced. Databases created by that release (ddl-auto=update) are baselined at version 1
+-- and start from V2.
+
+create table addresses (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    address_line1 varchar(255) not null,
+    address_line2 varchar(255),
+    city varchar(255) not null,
+    country varchar(255) not null,
+    instructions TEXT,
+    is_default bit,
+    label varchar(255),
+    postal_code varchar(255) not null,
+    state varchar(255) not null,
+    customer_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table availabilities (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    day_of_week enum ('FRIDAY','MONDAY','SATURDAY','SUNDAY','THURSDAY','TUESDAY','WEDNESDAY') not null,
+    end_time time(6) not null,
+    is_recurring bit not null,
+    notes TEXT,
+    specific_date date,
+    start_time time(6) not null,
+    professional_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table booking_addons (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    name_at_booking varchar(255),
+    price_at_booking decimal(38,2) not null,
+    quantity integer not null,
+    addon_id bigint not null,
+    booking_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bookings (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    booking_date datetime(6) not null,
+    cancellation_reason varchar(255),
+    cancelled_by varchar(255),
+    end_date datetime(6),
+    rescheduled_from bigint,
+    special_instructions TEXT,
+    status enum ('CANCELLED','COMPLETED','CONFIRMED','EXPIRED','IN_PROGRESS','PENDING','REJECTED','RESCHEDULED') not null,
+    total_amount decimal(38,2) not null,
+    address_id bigint,
+    customer_id bigint not null,
+    professional_id bigint not null,
+    service_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table customers (
+    id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table professional_documents (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    document_name varchar(255) not null,
+    document_type enum ('ADDRESS_PROOF','EXPERIENCE','ID_PROOF','OTHER','POLICE_VERIFICATION','QUALIFICATION') not null,
+    document_url varchar(255) not null,
+    is_verified bit,
+    notes TEXT,
+    verification_notes TEXT,
+    verified_at datetime(6),
+    verified_by varchar(255),
+    professional_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table professional_services (
+    professional_id bigint not null,
+    service_id bigint not null,
+    primary key (professional_id, service_id)
+) engine=InnoDB;
+
+create table professionals (
+    bio TEXT,
+    hourly_rate float(53),
+    is_available bit,
+    is_verified bit,
+    years_of_experience integer,
+    id bigint not null,
+    address_id bigint,
+    primary key (id)
+) engine=InnoDB;
+
+create table reviews (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    admin_reviewed bit,
+    comment TEXT,
+    is_anonymous bit,
+    rating integer not null,
+    booking_id bigint not null,
+    customer_id bigint not null,
+    professional_id bigint not null,
+    service_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table service_addons (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    description TEXT,
+    duration_in_minutes integer,
+    is_active bit,
+    name varchar(255) not null,
+    price decimal(38,2) not null,
+    service_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table service_categories (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    active bit not null,
+    description TEXT,
+    image_url varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table services (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    base_price decimal(38,2) not null,
+    description TEXT,
+    duration_in_minutes integer,
+    image_url varchar(255),
+    is_active bit,
+    name varchar(255) not null,
+    category_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    active bit,
+    email varchar(255) not null,
+    email_verification_token varchar(255),
+    email_verified bit,
+    enabled bit not null,
+    last_login_at datetime(6),
+    name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255) not null,
+    profile_image_url varchar(255),
+    reset_token varchar(255),
+    reset_token_expiry datetime(6),
+    role enum ('ROLE_ADMIN','ROLE_CUSTOMER','ROLE_PROFESSIONAL') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table professionals
+   add constraint UK_dua1li1lbh9u4elr1il5r3s5x unique (address_id);
+
+alter table reviews
+   add constraint UK_3p9j9vyr1qofbcxju65es206r unique (booking_id);
+
+alter table service_categories
+   add constraint UK_3ik7fw1s6ksl14tdpyw9ml0t1 unique (name);
+
+alter table users
+   add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users
+   add constraint UK_du5v5sr43g5bfnji4vb8hg5s3 unique (phone);
+
+alter table addresses
+   add constraint FKhrpf5e8dwasvdc5cticysrt2k
+   foreign key (customer_id)
+   references customers (id);
+
+alter table availabilities
+   add constraint FKs4tbp8ctr2evttcvfjxrd6bnf
+   foreign key (professional_id)
+   references professionals (id);
+
+alter table booking_addons
+   add constraint FKa431hchuxn9mxskfy19on3mrd
+   foreign key (addon_id)
+   references service_addons (id);
+
+alter table booking_addons
+   add constraint FKfjho8dbfkbf78loy64kx3hgsn
+   foreign key (booking_id)
+   references bookings (id);
+
+alter table bookings
+   add constraint FKahvafjvx0c39omf9qo6ods5yx
+   foreign key (address_id)
+   references addresses (id);
+
+alter table bookings
+   add constraint FKbvfibgflhsb0g2hnjauiv5khs
+   foreign key (customer_id)
+   references customers (id);
+
+alter table bookings
+   add constraint FKr8vsfico48lwjmyqd6je9fjww
+   foreign key (professional_id)
+   references professionals (id);
+
+alter table bookings
+   add constraint FKjcwbou2jlblfwu14uoxs65b25
+   foreign key (service_id)
+   references services (id);
+
+alter table customers
+   add constraint FKpog72rpahj62h7nod9wwc28if
+   foreign key (id)
+   references users (id);
+
+alter table professional_documents
+   add constraint FKa3ewusbxohvp71xv6e7fyrrwk
+   foreign key (professional_id)
+   references professionals (id);
+
+alter table professional_services
+   add constraint FKgtoskrp622bk7e4ueps9hrws
+   foreign key (service_id)
+   references services (id);
+
+alter table professional_services
+   add constraint FK2ggiuyua1jmcuaknhrtqtkbkj
+   foreign key (professional_id)
+   references professionals (id);
+
+alter table professionals
+   add constraint FK3rxcegqquckcdpv3lhxgmolqg
+   foreign key (address_id)
+   references addresses (id);
+
+alter table professionals
+   add constraint FK5c1xlfjdj9ar5hd6999eoiwxa
+   foreign key (id)
+   references users (id);
+
+alter table reviews
+   add constraint FK28an517hrxtt2bsg93uefugrm
+   foreign key (booking_id)
+   references bookings (id);
+
+alter table reviews
+   add constraint FK4sm0k8kw740iyuex3vwwv1etu
+   foreign key (customer_id)
+   references customers (id);
+
+alter table reviews
+   add constraint FKavfn1tshygiol8oopimv5tgmu
+   foreign key (professional_id)
+   references professionals (id);
+
+alter table reviews
+   add constraint FKmobnphh6ln84v2omwl8n1fj9f
+   foreign key (service_id)
+   references services (id);
+
+alter table service_addons
+   add constraint FK82cu0x5dbsuk9888fh1ssmdd0
+   foreign key (service_id)
+   references services (id);
+
+alter table services
+   add constraint FKfffr4emayc2n4uq3yv618d9j0
+   foreign key (category_id)
+   references service_categories (id);
@@ -0,0 +1,182 @@
+-- Schema changes that came with stored rating summaries, sequence ids, token revocation, the
+-- email outbox, job leases and nearby searches.
+
+-- Ids come from pooled sequences, kept in one single-row table per entity on MySQL; each starts
+-- past the ids already in use. The identity columns stay, they are just no longer relied on.
+
+create table addresses_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into addresses_seq select coalesce(max(id), 0) + 1 from addresses;
+
+create table availabilities_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into availabilities_seq select coalesce(max(id), 0) + 1 from availabilities;
+
+create table booking_addons_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into booking_addons_seq select coalesce(max(id), 0) + 1 from booking_addons;
+
+create table bookings_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into bookings_seq select coalesce(max(id), 0) + 1 from bookings;
+
+create table professional_documents_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into professional_documents_seq select coalesce(max(id), 0) + 1 from professional_documents;
+
+create table reviews_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into reviews_seq select coalesce(max(id), 0) + 1 from reviews;
+
+create table service_addons_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into service_addons_seq select coalesce(max(id), 0) + 1 from service_addons;
+
+create table service_categories_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into service_categories_seq select coalesce(max(id), 0) + 1 from service_categories;
+
+create table services_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into services_seq select coalesce(max(id), 0) + 1 from services;
+
+create table users_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into users_seq select coalesce(max(id), 0) + 1 from users;
+
+-- Access tokens issued before a password change are rejected
+alter table users
+   add column password_changed_at datetime(6);
+
+-- Locations for nearby searches
+
+alter table addresses
+   add column (
+       latitude float(53),
+       longitude float(53)
+   );
+
+alter table professionals
+   add column (
+       latitude float(53),
+       longitude float(53)
+   );
+
+create index idx_professionals_location
+   on professionals (latitude, longitude);
+
+-- Stored rating summaries, filled from the existing reviews; from here on the review write path
+-- keeps them up to date and the nightly reconciliation repairs any drift
+
+alter table professionals
+   add column (
+       rating_five_star integer not null default 0,
+       rating_four_star integer not null default 0,
+       rating_one_star integer not null default 0,
+       rating_count integer not null default 0,
+       rating_sum bigint not null default 0,
+       rating_three_star integer not null default 0,
+       rating_two_star integer not null default 0
+   );
+
+alter table services
+   add column (
+       rating_five_star integer not null default 0,
+       rating_four_star integer not null default 0,
+       rating_one_star integer not null default 0,
+       rating_count integer not null default 0,
+       rating_sum bigint not null default 0,
+       rating_three_star integer not null default 0,
+       rating_two_star integer not null default 0
+   );
+
+update professionals set
+    rating_one_star = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating = 1),
+    rating_two_star = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating = 2),
+    rating_three_star = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating = 3),
+    rating_four_star = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating = 4),
+    rating_five_star = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating = 5),
+    rating_count = (select count(*) from reviews r where r.professional_id = professionals.id and r.rating between 1 and 5),
+    rating_sum = (select coalesce(sum(r.rating), 0) from reviews r where r.professional_id = professionals.id and r.rating between 1 and 5);
+
+update services set
+    rating_one_star = (select count(*) from reviews r where r.service_id = services.id and r.rating = 1),
+    rating_two_star = (select count(*) from reviews r where r.service_id = services.id and r.rating = 2),
+    rating_three_star = (select count(*) from reviews r where r.service_id = services.id and r.rating = 3),
+    rating_four_star = (select count(*) from reviews r where r.service_id = services.id and r.rating = 4),
+    rating_five_star = (select count(*) from reviews r where r.service_id = services.id and r.rating = 5),
+    rating_count = (select count(*) from reviews r where r.service_id = services.id and r.rating between 1 and 5),
+    rating_sum = (select coalesce(sum(r.rating), 0) from reviews r where r.service_id = services.id and r.rating between 1 and 5);
+
+-- Emails written with the change they report and delivered by the outbox dispatcher
+create table outbox_messages (
+    id bigint not null,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    attempts integer not null,
+    content TEXT not null,
+    html bit not null,
+    idempotency_key varchar(191) not null,
+    last_error varchar(1000),
+    next_attempt_at datetime(6) not null,
+    recipient varchar(255) not null,
+    sent_at datetime(6),
+    status enum ('FAILED','PENDING','SENT') not null,
+    subject varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table outbox_messages_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into outbox_messages_seq values ( 1 );
+
+alter table outbox_messages
+   add constraint uk_outbox_idempotency_key unique (idempotency_key);
+
+create index idx_outbox_status_next_attempt
+   on outbox_messages (status, next_attempt_at);
+
+-- Leases and checkpoints of the scheduled jobs that run on several nodes
+create table job_leases (
+    id bigint not null,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    completed_at datetime(6),
+    job_key varchar(191) not null,
+    last_processed_id bigint not null,
+    lease_until datetime(6),
+    owner varchar(100),
+    processed_count bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table job_leases_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into job_leases_seq values ( 1 );
+
+alter table job_leases
+   add constraint uk_job_leases_job_key unique (job_key);
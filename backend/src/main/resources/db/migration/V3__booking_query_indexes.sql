@@ -0,0 +1,27 @@
+-- Composite indexes for the booking and review queries. Each leads with the equality column of
+-- the query and ends with its range or ordering column; InnoDB appends the primary key, so
+-- (booking_date, id) and (created_at, id) keyset pages are read in index order.
+
+-- A professional's listings, date windows and keyset pages
+create index idx_bookings_professional_date
+   on bookings (professional_id, booking_date);
+
+-- Conflict checks and busy intervals: the range end_date > start reaches only bookings that
+-- have not ended before the requested time, however long the professional's history
+create index idx_bookings_professional_end
+   on bookings (professional_id, end_date);
+
+-- A customer's listings and keyset pages
+create index idx_bookings_customer_date
+   on bookings (customer_id, booking_date);
+
+-- Listings by status and the reminder window (status IN ... AND booking_date range)
+create index idx_bookings_status_date
+   on bookings (status, booking_date);
+
+-- Latest reviews and keyset pages per professional and per service
+create index idx_reviews_professional_created
+   on reviews (professional_id, created_at);
+
+create index idx_reviews_service_created
+   on reviews (service_id, created_at);
@@ -0,0 +1,123 @@
+package com.urbanservices.booking.availability;
+
+import com.urbanservices.booking.repository.AvailabilityRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilityScheduleCacheTest {
+
+    // A Monday
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 3);
+
+    private AvailabilityRepository availabilityRepository;
+    private List<Object[]> storedRows;
+
+    @BeforeEach
+    void setUp() {
+        storedRows = new ArrayList<>();
+        storedRows.add(recurring(1L, 10, 14));
+        availabilityRepository = mock(AvailabilityRepository.class);
+        when(availabilityRepository.findScheduleRows(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] row : storedRows) {
+                if (ids.contains(row[0])) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        });
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesCachedSchedulesWithoutQuerying() {
+        AvailabilityScheduleCache cache = cache(100, 60);
+
+        assertArrayEquals(minutes(10, 14), cache.getSchedule(1L).windowsFor(DATE));
+        assertArrayEquals(minutes(9, 17), cache.getSchedule(2L).windowsFor(DATE));
+        storedRows.clear();
+
+        assertArrayEquals(minutes(10, 14), cache.getSchedule(1L).windowsFor(DATE));
+        verify(availabilityRepository, times(2)).findScheduleRows(anyCollection());
+    }
+
+    @Test
+    void reloadsSchedulesOlderThanTheMaxAge() throws InterruptedException {
+        AvailabilityScheduleCache cache = cache(100, 1);
+        cache.getSchedule(1L);
+
+        // Changed through another instance, so no listener drops the entry
+        storedRows.set(0, recurring(1L, 12, 18));
+        Thread.sleep(1100);
+
+        assertArrayEquals(minutes(12, 18), cache.getSchedule(1L).windowsFor(DATE));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedPastTheMaxSize() {
+        AvailabilityScheduleCache cache = cache(2, 60);
+        cache.getSchedules(List.of(1L, 2L));
+        cache.getSchedule(1L);
+        cache.getSchedule(3L);
+
+        cache.getSchedule(1L);
+        cache.getSchedule(2L);
+
+        verify(availabilityRepository, times(1)).findScheduleRows(eq(List.of(2L)));
+    }
+
+    @Test
+    void dropsTheScheduleAgainAfterCommit() {
+        AvailabilityScheduleCache cache = cache(100, 60);
+        cache.getSchedule(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L);
+        // A read racing with the writing transaction caches the old windows again
+        cache.getSchedule(1L);
+        storedRows.set(0, recurring(1L, 12, 18));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertArrayEquals(minutes(12, 18), cache.getSchedule(1L).windowsFor(DATE));
+    }
+
+    private AvailabilityScheduleCache cache(int maxSize, long maxAgeSeconds) {
+        return new AvailabilityScheduleCache(availabilityRepository, "09:00", "17:00", maxSize, maxAgeSeconds);
+    }
+
+    private static Object[] recurring(long professionalId, int startHour, int endHour) {
+        return new Object[] {professionalId, DayOfWeek.MONDAY, LocalTime.of(startHour, 0), LocalTime.of(endHour, 0),
+                true, null};
+    }
+
+    private static int[] minutes(int startHour, int endHour) {
+        return new int[] {startHour * 60, endHour * 60};
+    }
+}
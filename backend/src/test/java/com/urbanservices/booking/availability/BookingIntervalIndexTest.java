@@ -0,0 +1,142 @@
+package com.urbanservices.booking.availability;
+
+import com.urbanservices.booking.model.Booking;
+import com.urbanservices.booking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIntervalIndexTest {
+
+    private static final long PROFESSIONAL_ID = 7L;
+    private static final LocalDateTime TEN = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex index;
+    private List<Object[]> storedIntervals;
+
+    @BeforeEach
+    void setUp() {
+        storedIntervals = new ArrayList<>();
+        storedIntervals.add(new Object[] {1L, TEN, TEN.plusHours(1)});
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findBookingIntervals(eq(PROFESSIONAL_ID), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(storedIntervals));
+
+        index = new BookingIntervalIndex(bookingRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "historyHours", 24);
+        ReflectionTestUtils.setField(index, "maxAgeSeconds", 3600);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void answersOverlapsFromTheLoadedTimeline() {
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusMinutes(30), TEN.plusMinutes(90), null));
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(1), TEN.plusHours(2), null));
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.minusHours(1), TEN, null));
+        // The booking being rescheduled does not conflict with itself
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusMinutes(30), TEN.plusMinutes(90), 1L));
+
+        verify(bookingRepository, times(1)).findBookingIntervals(eq(PROFESSIONAL_ID), any(), any());
+    }
+
+    @Test
+    void appliesRecordedAndRemovedBookings() {
+        index.isAvailable(PROFESSIONAL_ID, TEN, TEN.plusHours(1), null);
+
+        index.recordBooking(PROFESSIONAL_ID, 2L, TEN.plusHours(2), TEN.plusHours(3));
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        index.removeBooking(PROFESSIONAL_ID, 1L);
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN, TEN.plusHours(1), null));
+    }
+
+    @Test
+    void appliesChangesOnlyAfterCommit() {
+        index.isAvailable(PROFESSIONAL_ID, TEN, TEN.plusHours(1), null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        index.recordBooking(PROFESSIONAL_ID, 2L, TEN.plusHours(2), TEN.plusHours(3));
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+    }
+
+    @Test
+    void reloadsAfterInvalidation() {
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        // Booked through another instance: invisible until the timeline is dropped
+        storedIntervals.add(new Object[] {2L, TEN.plusHours(2), TEN.plusHours(3)});
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        index.invalidate(PROFESSIONAL_ID);
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        storedIntervals.add(new Object[] {3L, TEN.plusHours(4), TEN.plusHours(5)});
+        index.invalidateAll();
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(4), TEN.plusHours(5), null));
+    }
+
+    @Test
+    void reloadsTimelinesOlderThanTheMaximumAge() {
+        ReflectionTestUtils.setField(index, "maxAgeSeconds", 0);
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        storedIntervals.add(new Object[] {2L, TEN.plusHours(2), TEN.plusHours(3)});
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+    }
+
+    @Test
+    void databaseConflictDropsTheStaleTimeline() {
+        assertTrue(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+
+        Booking other = new Booking();
+        other.setId(2L);
+        List<Booking> conflicts = new ArrayList<>(List.of(other));
+        when(bookingRepository.findConflictingBookings(eq(PROFESSIONAL_ID), any(), any(), any())).thenReturn(conflicts);
+        storedIntervals.add(new Object[] {2L, TEN.plusHours(2), TEN.plusHours(3)});
+
+        assertFalse(index.isAvailableInDatabase(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+        assertFalse(index.isAvailable(PROFESSIONAL_ID, TEN.plusHours(2), TEN.plusHours(3), null));
+    }
+
+    @Test
+    void databaseCheckIgnoresTheExcludedBooking() {
+        Booking self = new Booking();
+        self.setId(1L);
+        when(bookingRepository.findConflictingBookings(eq(PROFESSIONAL_ID), any(), any(), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(self)));
+
+        assertTrue(index.isAvailableInDatabase(PROFESSIONAL_ID, TEN, TEN.plusHours(1), 1L));
+        assertFalse(index.isAvailableInDatabase(PROFESSIONAL_ID, TEN, TEN.plusHours(1), null));
+        verify(bookingRepository, times(2)).findConflictingBookings(eq(PROFESSIONAL_ID), any(), any(), any());
+    }
+}
@@ -0,0 +1,126 @@
+package com.urbanservices.booking.location;
+
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProfessionalLocationIndexTest {
+
+    private static final long CLEANING = 1L;
+    private static final long PLUMBING = 2L;
+    private static final double LATITUDE = 19.0760;
+    private static final double LONGITUDE = 72.8777;
+
+    private ProfessionalRepository professionalRepository;
+    private ProfessionalLocationIndex index;
+    private List<Object[]> storedLocations;
+
+    @BeforeEach
+    void setUp() {
+        storedLocations = new ArrayList<>();
+        storedLocations.add(new Object[] {1L, CLEANING, LATITUDE, LONGITUDE});
+        storedLocations.add(new Object[] {2L, CLEANING, LATITUDE + 0.01, LONGITUDE});
+        storedLocations.add(new Object[] {2L, PLUMBING, LATITUDE + 0.01, LONGITUDE});
+        storedLocations.add(new Object[] {3L, PLUMBING, LATITUDE, LONGITUDE + 0.01});
+
+        professionalRepository = mock(ProfessionalRepository.class);
+        when(professionalRepository.findServiceLocations()).thenAnswer(invocation -> new ArrayList<>(storedLocations));
+        when(professionalRepository.findServiceLocationsByProfessionalIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<?> ids = invocation.getArgument(0);
+            List<Object[]> rows = new ArrayList<>();
+            for (Object[] row : storedLocations) {
+                if (ids.contains(row[0])) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        });
+
+        index = new ProfessionalLocationIndex(professionalRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "indexEnabled", true);
+        ReflectionTestUtils.setField(index, "cellDegrees", 0.05);
+        ReflectionTestUtils.setField(index, "maxNearestRadiusKm", 100.0);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rereadsOnlyTheChangedProfessionals() {
+        assertEquals(List.of(1L, 2L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+
+        // Professional 1 moves out of town and starts plumbing
+        storedLocations.removeIf(row -> row[0].equals(1L));
+        storedLocations.add(new Object[] {1L, CLEANING, LATITUDE + 1.0, LONGITUDE});
+        storedLocations.add(new Object[] {1L, PLUMBING, LATITUDE + 1.0, LONGITUDE});
+        index.professionalChanged(1L);
+
+        assertEquals(List.of(2L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+        assertEquals(List.of(3L, 2L), index.within(PLUMBING, LATITUDE, LONGITUDE, 5));
+        assertEquals(List.of(1L), index.within(PLUMBING, LATITUDE + 1.0, LONGITUDE, 5));
+        verify(professionalRepository, times(1)).findServiceLocations();
+        verify(professionalRepository, times(1)).findServiceLocationsByProfessionalIds(List.of(1L));
+    }
+
+    @Test
+    void dropsProfessionalsWithoutLocations() {
+        index.within(CLEANING, LATITUDE, LONGITUDE, 5);
+        int locations = index.refresh().size();
+
+        storedLocations.removeIf(row -> row[0].equals(2L));
+        index.professionalChanged(2L);
+
+        assertEquals(List.of(1L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+        assertEquals(List.of(3L), index.nearest(PLUMBING, LATITUDE, LONGITUDE, 5));
+        assertEquals(locations - 2, index.refresh().size());
+    }
+
+    @Test
+    void appliesChangesOnlyAfterCommit() {
+        index.within(CLEANING, LATITUDE, LONGITUDE, 5);
+
+        TransactionSynchronizationManager.initSynchronization();
+        storedLocations.removeIf(row -> row[0].equals(1L));
+        index.professionalChanged(1L);
+        verify(professionalRepository, never()).findServiceLocationsByProfessionalIds(anyCollection());
+        assertEquals(List.of(1L, 2L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(2L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+    }
+
+    @Test
+    void changesBeforeFirstUseAreLoadedWithTheGrid() {
+        index.professionalChanged(1L);
+
+        verify(professionalRepository, never()).findServiceLocationsByProfessionalIds(anyCollection());
+        assertTrue(index.within(PLUMBING, LATITUDE + 1.0, LONGITUDE, 5).isEmpty());
+        assertEquals(List.of(1L, 2L), index.within(CLEANING, LATITUDE, LONGITUDE, 5));
+    }
+}
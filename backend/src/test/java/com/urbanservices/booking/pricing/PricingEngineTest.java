@@ -0,0 +1,166 @@
+package com.urbanservices.booking.pricing;
+
+import com.urbanservices.booking.catalog.CatalogCache;
+import com.urbanservices.booking.dto.BookingAddonDto;
+import com.urbanservices.booking.dto.BookingDto;
+import com.urbanservices.booking.exception.ResourceNotFoundException;
+import com.urbanservices.booking.repository.ServiceCategoryRepository;
+import com.urbanservices.booking.repository.ServiceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PricingEngineTest {
+
+    private static final long CLEANING = 1L;
+    private static final long PLUMBING = 2L;
+    private static final long DEEP_CLEAN = 11L;
+    private static final long BALCONY = 12L;
+    private static final long PIPE_FITTING = 21L;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 1, 10, 0);
+
+    private List<Object[]> addonRows;
+    private CatalogCache catalogCache;
+    private PricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> serviceRows = new ArrayList<>();
+        serviceRows.add(new Object[] {CLEANING, "Cleaning", null, 1L, new BigDecimal("499.00"), 60, null, true});
+        serviceRows.add(new Object[] {PLUMBING, "Plumbing", null, 1L, new BigDecimal("299.50"), 60, null, true});
+        addonRows = new ArrayList<>();
+        addonRows.add(new Object[] {DEEP_CLEAN, CLEANING, "Deep clean", null, new BigDecimal("150.25"), 30, true});
+        addonRows.add(new Object[] {BALCONY, CLEANING, "Balcony", null, new BigDecimal("99.00"), 15, true});
+        addonRows.add(new Object[] {PIPE_FITTING, PLUMBING, "Pipe fitting", null, new BigDecimal("200.00"), 30, true});
+
+        ServiceRepository serviceRepository = mock(ServiceRepository.class);
+        when(serviceRepository.findCatalogRows()).thenAnswer(invocation -> new ArrayList<>(serviceRows));
+        when(serviceRepository.findCatalogAddonRows()).thenAnswer(invocation -> new ArrayList<>(addonRows));
+        catalogCache = new CatalogCache(serviceRepository, mock(ServiceCategoryRepository.class),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(catalogCache, "missRefreshIntervalMs", 10_000L);
+        pricingEngine = new PricingEngine(catalogCache);
+    }
+
+    @Test
+    void pricesTheBasePriceForAnHourOrLess() throws ResourceNotFoundException {
+        assertEquals(new BigDecimal("499.00"), pricingEngine.quote(booking(CLEANING, 60)));
+        assertEquals(new BigDecimal("499.00"), pricingEngine.quote(booking(CLEANING, 30)));
+        assertEquals(new BigDecimal("499.00"), pricingEngine.quote(booking(CLEANING, null)));
+    }
+
+    @Test
+    void multipliesByWholeHoursPastTheFirst() throws ResourceNotFoundException {
+        assertEquals(new BigDecimal("998.00"), pricingEngine.quote(booking(CLEANING, 120)));
+        // A started hour is not charged
+        assertEquals(new BigDecimal("998.00"), pricingEngine.quote(booking(CLEANING, 179)));
+        assertEquals(new BigDecimal("1497.00"), pricingEngine.quote(booking(CLEANING, 180)));
+    }
+
+    @Test
+    void multipliesAddonsByQuantity() throws ResourceNotFoundException {
+        BookingDto booking = booking(CLEANING, 60, addon(DEEP_CLEAN, null, 3), addon(BALCONY, null, null));
+
+        // 499.00 + 3 x 150.25 + 99.00
+        assertEquals(new BigDecimal("1048.75"), pricingEngine.quote(booking));
+    }
+
+    @Test
+    void appliesTheDurationToAddonsToo() throws ResourceNotFoundException {
+        BookingDto booking = booking(CLEANING, 120, addon(DEEP_CLEAN, null, 2));
+
+        assertEquals(new BigDecimal("1599.00"), pricingEngine.quote(booking));
+    }
+
+    @Test
+    void matchesAddonsByIdWhenAddonIdIsMissing() throws ResourceNotFoundException {
+        BookingDto booking = booking(CLEANING, 60, addon(null, BALCONY, 1));
+
+        assertEquals(new BigDecimal("598.00"), pricingEngine.quote(booking));
+    }
+
+    @Test
+    void prefersAddonIdOverId() throws ResourceNotFoundException {
+        BookingDto booking = booking(CLEANING, 60, addon(BALCONY, DEEP_CLEAN, 1));
+
+        assertEquals(new BigDecimal("598.00"), pricingEngine.quote(booking));
+    }
+
+    @Test
+    void rejectsAddonsTheServiceDoesNotOffer() {
+        BookingDto booking = booking(CLEANING, 60, addon(PIPE_FITTING, null, 1));
+
+        assertThrows(ResourceNotFoundException.class, () -> pricingEngine.quote(booking));
+    }
+
+    @Test
+    void rejectsUnknownAddons() {
+        BookingDto booking = booking(CLEANING, 60, addon(99L, null, 1));
+
+        assertThrows(ResourceNotFoundException.class, () -> pricingEngine.quote(booking));
+    }
+
+    @Test
+    void rejectsAddonsWithoutAnId() {
+        BookingDto booking = booking(CLEANING, 60, addon(null, null, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> pricingEngine.quote(booking));
+    }
+
+    @Test
+    void rejectsQuantitiesBelowOne() {
+        BookingDto booking = booking(CLEANING, 60, addon(DEEP_CLEAN, null, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> pricingEngine.quote(booking));
+    }
+
+    @Test
+    void pricesAddonsCreatedAfterTheTableWasCompiled() throws ResourceNotFoundException {
+        pricingEngine.quote(booking(PLUMBING, 60));
+        addonRows.add(new Object[] {22L, PLUMBING, "Leak check", null, new BigDecimal("50.00"), 15, true});
+        ReflectionTestUtils.setField(catalogCache, "missRefreshIntervalMs", -1L);
+
+        assertEquals(new BigDecimal("349.50"), pricingEngine.quote(booking(PLUMBING, 60, addon(22L, null, 1))));
+    }
+
+    @Test
+    void quotesEveryRequestInOrder() throws ResourceNotFoundException {
+        List<BigDecimal> totals = pricingEngine.quoteAll(List.of(
+                booking(PLUMBING, 60, addon(PIPE_FITTING, null, 1)),
+                booking(CLEANING, 120)));
+
+        assertEquals(List.of(new BigDecimal("499.50"), new BigDecimal("998.00")), totals);
+    }
+
+    private static BookingDto booking(long serviceId, Integer minutes, BookingAddonDto... addons) {
+        BookingDto booking = new BookingDto();
+        booking.setServiceId(serviceId);
+        booking.setBookingDate(START);
+        booking.setEndDate(minutes != null ? START.plusMinutes(minutes) : null);
+        Set<BookingAddonDto> selected = new LinkedHashSet<>(List.of(addons));
+        booking.setAddons(selected);
+        return booking;
+    }
+
+    private static BookingAddonDto addon(Long addonId, Long id, Integer quantity) {
+        BookingAddonDto addon = new BookingAddonDto();
+        addon.setAddonId(addonId);
+        addon.setId(id);
+        addon.setQuantity(quantity);
+        return addon;
+    }
+}
@@ -0,0 +1,185 @@
+package com.urbanservices.booking.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the versioned scripts in db/migration on an H2 database in MySQL mode: a database of the
+ * first release upgraded from V1, and the query plans of the hot booking queries on the indexes
+ * V3 adds.
+ */
+class MigrationScriptsTest {
+
+    private static final String V1 = "db/migration/V1__baseline_schema.sql";
+    private static final String V2 = "db/migration/V2__ratings_sequences_outbox_and_locations.sql";
+    private static final String V3 = "db/migration/V3__booking_query_indexes.sql";
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "COMPLETED", "CANCELLED", "RESCHEDULED"};
+
+    private SimpleDriverDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:migration_" + DATABASES.incrementAndGet() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void upgradesAFirstReleaseDatabase() {
+        migrate(V1);
+        insertCatalog(2);
+        insertUsers(2, 1);
+        // Professional 1 offers service 1 and has ratings 5, 4 and 4; professional 2 has a 1
+        insertBooking(101, 1, 3, 1, "COMPLETED", NOW.minusDays(3));
+        insertBooking(102, 1, 3, 1, "COMPLETED", NOW.minusDays(2));
+        insertBooking(103, 1, 3, 2, "COMPLETED", NOW.minusDays(1));
+        insertBooking(104, 2, 3, 2, "COMPLETED", NOW.minusDays(1));
+        insertReview(201, 101, 5);
+        insertReview(202, 102, 4);
+        insertReview(203, 103, 4);
+        insertReview(204, 104, 1);
+
+        migrate(V2, V3);
+
+        assertEquals(105L, jdbc.queryForObject("SELECT next_val FROM bookings_seq", Long.class));
+        assertEquals(205L, jdbc.queryForObject("SELECT next_val FROM reviews_seq", Long.class));
+        assertEquals(4L, jdbc.queryForObject("SELECT next_val FROM users_seq", Long.class));
+        assertEquals(1L, jdbc.queryForObject("SELECT next_val FROM outbox_messages_seq", Long.class));
+
+        Map<String, Object> first = jdbc.queryForMap("SELECT * FROM professionals WHERE id = 1");
+        assertEquals(13L, ((Number) first.get("rating_sum")).longValue());
+        assertEquals(3, ((Number) first.get("rating_count")).intValue());
+        assertEquals(2, ((Number) first.get("rating_four_star")).intValue());
+        assertEquals(1, ((Number) first.get("rating_five_star")).intValue());
+        Map<String, Object> second = jdbc.queryForMap("SELECT * FROM professionals WHERE id = 2");
+        assertEquals(1L, ((Number) second.get("rating_sum")).longValue());
+        assertEquals(1, ((Number) second.get("rating_one_star")).intValue());
+        Map<String, Object> service = jdbc.queryForMap("SELECT * FROM services WHERE id = 2");
+        assertEquals(5L, ((Number) service.get("rating_sum")).longValue());
+        assertEquals(2, ((Number) service.get("rating_count")).intValue());
+
+        // The columns and tables the current mappings read
+        jdbc.queryForList("SELECT password_changed_at FROM users");
+        jdbc.queryForList("SELECT latitude, longitude FROM addresses");
+        jdbc.queryForList("SELECT latitude, longitude FROM professionals");
+        jdbc.queryForList("SELECT job_key, lease_until, last_processed_id FROM job_leases");
+        jdbc.queryForList("SELECT idempotency_key, status, next_attempt_at FROM outbox_messages");
+    }
+
+    @Test
+    void conflictCheckReadsAProfessionalIndex() {
+        migrateAndSeed();
+
+        String plan = explain("SELECT b.id FROM bookings b WHERE b.professional_id = 3 "
+                + "AND b.status IN ('PENDING', 'CONFIRMED', 'IN_PROGRESS', 'RESCHEDULED') "
+                + "AND b.booking_date < TIMESTAMP '2024-06-10 12:00:00' AND b.end_date > TIMESTAMP '2024-06-10 10:00:00'");
+
+        assertTrue(plan.contains("idx_bookings_professional_date") || plan.contains("idx_bookings_professional_end"), plan);
+    }
+
+    @Test
+    void upcomingListingReadsTheProfessionalDateIndex() {
+        migrateAndSeed();
+
+        String plan = explain("SELECT b.id FROM bookings b WHERE b.professional_id = 3 "
+                + "AND b.booking_date >= TIMESTAMP '2024-06-01 12:00:00' ORDER BY b.booking_date, b.id LIMIT 21");
+
+        assertTrue(plan.contains("idx_bookings_professional_date"), plan);
+    }
+
+    @Test
+    void reminderWindowReadsTheStatusDateIndex() {
+        migrateAndSeed();
+
+        String plan = explain("SELECT b.id, b.customer_id, b.service_id, b.booking_date FROM bookings b "
+                + "WHERE b.booking_date >= TIMESTAMP '2024-06-02 00:00:00' AND b.booking_date < TIMESTAMP '2024-06-03 00:00:00' "
+                + "AND b.status IN ('PENDING', 'CONFIRMED') AND b.id > 0 AND MOD(b.id, 4) = 1 ORDER BY b.id LIMIT 500");
+
+        assertTrue(plan.contains("idx_bookings_status_date"), plan);
+    }
+
+    private void migrate(String... scripts) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        for (String script : scripts) {
+            populator.addScript(new ClassPathResource(script));
+        }
+        populator.execute(dataSource);
+    }
+
+    /**
+     * All migrations and a year of bookings for 20 professionals, then fresh statistics so the
+     * planner sees the real selectivity of each column.
+     */
+    private void migrateAndSeed() {
+        migrate(V1, V2, V3);
+        insertCatalog(4);
+        insertUsers(20, 50);
+        List<Object[]> bookings = new ArrayList<>();
+        for (int i = 0; i < 8000; i++) {
+            LocalDateTime start = NOW.minusDays(300).plusHours(i);
+            bookings.add(new Object[] {i + 1000L, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)),
+                    STATUSES[i % STATUSES.length], 1L + i % 20, 21L + i % 50, 1L + i % 4});
+        }
+        jdbc.batchUpdate("INSERT INTO bookings (id, created_at, booking_date, end_date, status, total_amount, "
+                + "professional_id, customer_id, service_id) VALUES (?, CURRENT_TIMESTAMP, ?, ?, ?, 999.00, ?, ?, ?)", bookings);
+        jdbc.execute("ANALYZE");
+    }
+
+    private String explain(String query) {
+        return jdbc.queryForObject("EXPLAIN " + query, String.class).toLowerCase();
+    }
+
+    private void insertCatalog(int services) {
+        jdbc.update("INSERT INTO service_categories (id, created_at, active, name) VALUES (1, CURRENT_TIMESTAMP, TRUE, 'Cleaning')");
+        for (int id = 1; id <= services; id++) {
+            jdbc.update("INSERT INTO services (id, created_at, base_price, is_active, name, category_id) "
+                    + "VALUES (?, CURRENT_TIMESTAMP, 1499.00, TRUE, ?, 1)", id, "Service " + id);
+        }
+    }
+
+    /**
+     * Professionals get ids 1..professionals, customers the ids after them.
+     */
+    private void insertUsers(int professionals, int customers) {
+        for (long id = 1; id <= professionals + customers; id++) {
+            boolean professional = id <= professionals;
+            jdbc.update("INSERT INTO users (id, created_at, email, enabled, name, password, phone, role) "
+                    + "VALUES (?, CURRENT_TIMESTAMP, ?, TRUE, ?, 'secret', ?, ?)",
+                    id, "user" + id + "@example.com", "User " + id, "98450" + String.format("%05d", id),
+                    professional ? "ROLE_PROFESSIONAL" : "ROLE_CUSTOMER");
+            jdbc.update(professional ? "INSERT INTO professionals (id) VALUES (?)" : "INSERT INTO customers (id) VALUES (?)", id);
+        }
+    }
+
+    private void insertBooking(long id, long professionalId, long customerId, long serviceId, String status,
+                               LocalDateTime start) {
+        jdbc.update("INSERT INTO bookings (id, created_at, booking_date, end_date, status, total_amount, "
+                + "professional_id, customer_id, service_id) VALUES (?, CURRENT_TIMESTAMP, ?, ?, ?, 999.00, ?, ?, ?)",
+                id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(2)), status,
+                professionalId, customerId, serviceId);
+    }
+
+    private void insertReview(long id, long bookingId, int rating) {
+        jdbc.update("INSERT INTO reviews (id, created_at, rating, booking_id, customer_id, professional_id, service_id) "
+                + "SELECT ?, CURRENT_TIMESTAMP, ?, id, customer_id, professional_id, service_id FROM bookings WHERE id = ?",
+                id, rating, bookingId);
+    }
+}
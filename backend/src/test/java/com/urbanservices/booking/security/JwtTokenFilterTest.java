@@ -0,0 +1,140 @@
+package com.urbanservices.booking.security;
+
+import com.urbanservices.booking.model.enums.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JwtTokenFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+    private static final String EMAIL = "asha@example.com";
+    private static final Date ISSUED_AT = new Date(1_717_243_230_000L);
+
+    private JwtTokenProvider tokenProvider;
+    private CustomUserDetailsService userDetailsService;
+    private UserSecurityStateCache userSecurityStateCache;
+    private JwtTokenFilter filter;
+    private MockFilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = mock(JwtTokenProvider.class);
+        userDetailsService = mock(CustomUserDetailsService.class);
+        userSecurityStateCache = mock(UserSecurityStateCache.class);
+        filter = new JwtTokenFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "userSecurityStateCache", userSecurityStateCache);
+        ReflectionTestUtils.setField(filter, "principalFromClaims", true);
+        filterChain = new MockFilterChain();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromClaimsTheCacheStillAccepts() throws Exception {
+        when(tokenProvider.parseValidClaims(TOKEN)).thenReturn(claims(7L, "ROLE_PROFESSIONAL"));
+        when(userSecurityStateCache.isValid(7L, EMAIL, UserRole.ROLE_PROFESSIONAL, ISSUED_AT)).thenReturn(true);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("Asha", principal.getName());
+        assertEquals(EMAIL, principal.getEmail());
+        assertEquals(UserRole.ROLE_PROFESSIONAL, principal.getRole());
+        assertEquals("ROLE_PROFESSIONAL", authentication.getAuthorities().iterator().next().getAuthority());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        assertNotNull(filterChain.getRequest());
+    }
+
+    @Test
+    void leavesRevokedTokensUnauthenticated() throws Exception {
+        when(tokenProvider.parseValidClaims(TOKEN)).thenReturn(claims(7L, "ROLE_PROFESSIONAL"));
+        when(userSecurityStateCache.isValid(7L, EMAIL, UserRole.ROLE_PROFESSIONAL, ISSUED_AT)).thenReturn(false);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        assertNotNull(filterChain.getRequest());
+    }
+
+    @Test
+    void loadsTheUserForTokensWithoutIdAndRoleClaims() throws Exception {
+        UserPrincipal loaded = UserPrincipal.fromClaims(7L, "Asha", EMAIL, UserRole.ROLE_CUSTOMER);
+        when(tokenProvider.parseValidClaims(TOKEN)).thenReturn(claims(null, null));
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(loaded);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), filterChain);
+
+        assertSame(loaded, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userSecurityStateCache, never()).isValid(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void loadsTheUserWhenPrincipalsFromClaimsAreDisabled() throws Exception {
+        ReflectionTestUtils.setField(filter, "principalFromClaims", false);
+        UserPrincipal loaded = UserPrincipal.fromClaims(7L, "Asha", EMAIL, UserRole.ROLE_CUSTOMER);
+        when(tokenProvider.parseValidClaims(TOKEN)).thenReturn(claims(7L, "ROLE_CUSTOMER"));
+        when(userDetailsService.loadUserByUsername(EMAIL)).thenReturn(loaded);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), filterChain);
+
+        assertSame(loaded, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userSecurityStateCache, never()).isValid(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void leavesInvalidTokensUnauthenticated() throws Exception {
+        when(tokenProvider.parseValidClaims(TOKEN)).thenReturn(null);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertNotNull(filterChain.getRequest());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        return request;
+    }
+
+    private static Claims claims(Long userId, String role) {
+        Claims claims = Jwts.claims().setSubject(EMAIL).setIssuedAt(ISSUED_AT);
+        if (userId != null) {
+            claims.put(JwtTokenProvider.CLAIM_USER_ID, userId);
+            claims.put(JwtTokenProvider.CLAIM_ROLE, role);
+            claims.put(JwtTokenProvider.CLAIM_NAME, "Asha");
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,141 @@
+package com.urbanservices.booking.security;
+
+import com.urbanservices.booking.model.enums.UserRole;
+import com.urbanservices.booking.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSecurityStateCacheTest {
+
+    private static final long USER_ID = 7L;
+    private static final String EMAIL = "asha@example.com";
+    private static final LocalDateTime PASSWORD_CHANGED_AT = LocalDateTime.of(2024, 6, 1, 12, 0, 30, 900_000_000);
+
+    private UserRepository userRepository;
+    private UserSecurityStateCache cache;
+    private List<Object[]> storedRows;
+
+    @BeforeEach
+    void setUp() {
+        storedRows = new ArrayList<>();
+        storedRows.add(new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, true, null});
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findSecurityState(USER_ID)).thenAnswer(invocation -> new ArrayList<>(storedRows));
+        cache = new UserSecurityStateCache(userRepository, 100, 60);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void acceptsClaimsMatchingTheUser() {
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+        // Emails compare case-insensitively, as logins do
+        assertTrue(cache.isValid(USER_ID, "Asha@Example.com", UserRole.ROLE_CUSTOMER, null));
+        verify(userRepository, times(1)).findSecurityState(USER_ID);
+    }
+
+    @Test
+    void rejectsMissingUsers() {
+        storedRows.clear();
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+        verify(userRepository, times(1)).findSecurityState(USER_ID);
+    }
+
+    @Test
+    void rejectsInactiveUsers() {
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, false, null});
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+    }
+
+    @Test
+    void rejectsARoleThatNoLongerMatches() {
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_PROFESSIONAL, true, null});
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_ADMIN, issuedAt(PASSWORD_CHANGED_AT)));
+    }
+
+    @Test
+    void rejectsAnEmailThatNoLongerMatches() {
+        storedRows.set(0, new Object[] {"asha.new@example.com", UserRole.ROLE_CUSTOMER, true, null});
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT)));
+    }
+
+    @Test
+    void rejectsTokensIssuedBeforeThePasswordChange() {
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, true, PASSWORD_CHANGED_AT});
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT.minusSeconds(1))));
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, issuedAt(PASSWORD_CHANGED_AT.plusSeconds(1))));
+    }
+
+    @Test
+    void acceptsTokensIssuedInTheSecondOfThePasswordChange() {
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, true, PASSWORD_CHANGED_AT});
+
+        // Token iat has whole seconds only, so a token minted right after the change may carry
+        // an earlier instant than the stored change time within the same second
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER,
+                issuedAt(PASSWORD_CHANGED_AT.withNano(0))));
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER,
+                issuedAt(PASSWORD_CHANGED_AT.withNano(100_000_000))));
+    }
+
+    @Test
+    void reloadsAfterInvalidate() {
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, false, null});
+
+        cache.invalidate(USER_ID);
+
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+    }
+
+    @Test
+    void evictsAgainAfterCommit() {
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(USER_ID);
+        // A request reading the row before the writing transaction commits caches the old state
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+        storedRows.set(0, new Object[] {EMAIL, UserRole.ROLE_CUSTOMER, false, null});
+        assertTrue(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        assertFalse(cache.isValid(USER_ID, EMAIL, UserRole.ROLE_CUSTOMER, null));
+        verify(userRepository, times(3)).findSecurityState(USER_ID);
+    }
+
+    private static Date issuedAt(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,118 @@
+package com.urbanservices.booking.service;
+
+import com.urbanservices.booking.availability.AvailabilityScheduleCache;
+import com.urbanservices.booking.availability.WeeklySchedule;
+import com.urbanservices.booking.dto.ProfessionalAvailabilityDto;
+import com.urbanservices.booking.repository.BookingRepository;
+import com.urbanservices.booking.repository.ProfessionalRepository;
+import com.urbanservices.booking.service.impl.BookingServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilitySearchTest {
+
+    private static final long SERVICE_ID = 1L;
+    private static final int PAGE_SIZE = 2;
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2024, 6, 3, 9, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2024, 6, 3, 17, 0);
+
+    private ProfessionalRepository professionalRepository;
+    private BookingRepository bookingRepository;
+    private BookingServiceImpl bookingService;
+    private List<Object[]> bookedIntervals;
+
+    @BeforeEach
+    void setUp() {
+        // Professionals 1..5 offer the service; all but 5 are booked for the whole day
+        List<Object[]> professionals = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            professionals.add(new Object[] {id, "Professional " + id});
+        }
+        bookedIntervals = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            bookedIntervals.add(new Object[] {id, WINDOW_START, WINDOW_END});
+        }
+
+        professionalRepository = mock(ProfessionalRepository.class);
+        when(professionalRepository.findAvailableProfessionalSummariesByService(eq(SERVICE_ID), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return professionals.stream()
+                            .filter(row -> (Long) row[0] > afterId)
+                            .limit(pageable.getPageSize())
+                            .collect(Collectors.toList());
+                });
+
+        bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findBookingIntervalsForProfessionals(anyList(), any(), any(), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<?> ids = invocation.getArgument(0);
+                    return bookedIntervals.stream().filter(row -> ids.contains(row[0])).collect(Collectors.toList());
+                });
+
+        WeeklySchedule workingHours = WeeklySchedule.everyDay(LocalTime.of(9, 0), LocalTime.of(17, 0));
+        AvailabilityScheduleCache scheduleCache = mock(AvailabilityScheduleCache.class);
+        when(scheduleCache.getSchedules(anyCollection())).thenAnswer(invocation -> {
+            Map<Long, WeeklySchedule> schedules = new HashMap<>();
+            for (Object id : (Collection<?>) invocation.getArgument(0)) {
+                schedules.put((Long) id, workingHours);
+            }
+            return schedules;
+        });
+
+        bookingService = new BookingServiceImpl(bookingRepository, professionalRepository, null, null,
+                scheduleCache, null, null, null, null, null);
+        ReflectionTestUtils.setField(bookingService, "slotGranularityMinutes", 5);
+        ReflectionTestUtils.setField(bookingService, "searchCandidatePageSize", PAGE_SIZE);
+    }
+
+    @Test
+    void evaluatesProfessionalsPastTheFirstPage() {
+        List<ProfessionalAvailabilityDto> results =
+                bookingService.searchAvailableProfessionals(SERVICE_ID, WINDOW_START, WINDOW_END, 60, 3);
+
+        assertEquals(1, results.size());
+        assertEquals(5L, results.get(0).getProfessionalId());
+        assertEquals(List.of(WINDOW_START, WINDOW_START.plusMinutes(30), WINDOW_START.plusMinutes(60)),
+                results.get(0).getAvailableSlots());
+        // Pages after 0, 2 and 4, each with one booking query
+        verify(professionalRepository, times(3))
+                .findAvailableProfessionalSummariesByService(eq(SERVICE_ID), anyLong(), any(Pageable.class));
+        verify(bookingRepository, times(3)).findBookingIntervalsForProfessionals(anyList(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void collectsAvailableProfessionalsFromEveryPage() {
+        bookedIntervals.removeIf(row -> row[0].equals(2L));
+
+        List<ProfessionalAvailabilityDto> results =
+                bookingService.searchAvailableProfessionals(SERVICE_ID, WINDOW_START, WINDOW_END.minusHours(7), 60, 1);
+
+        assertEquals(List.of(2L, 5L), results.stream().map(ProfessionalAvailabilityDto::getProfessionalId)
+                .collect(Collectors.toList()));
+        verify(bookingRepository, times(3)).findBookingIntervalsForProfessionals(anyList(), any(), any(), anyCollection());
+    }
+}
@@ -0,0 +1,71 @@
+package com.urbanservices.booking.service;
+
+import com.urbanservices.booking.dto.ProfessionalDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Professional listings load ratings, booking totals and offered services per page, not per
+ * professional, so a page of 50 takes as many statements as a page of 5.
+ */
+@SpringBootTest(properties = {
+        "app.seed.exit-when-done=false",
+        "app.seed.categories=3",
+        "app.seed.services-per-category=4",
+        "app.seed.professionals=400",
+        "app.seed.customers=200",
+        "app.seed.bookings=2000",
+        "app.seed.days-back=30",
+        "app.seed.days-ahead=7"
+})
+@ActiveProfiles({"test", "seed"})
+class ProfessionalListingStatementsTest {
+
+    @Autowired
+    private ProfessionalService professionalService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void availableProfessionalsPageTakesConstantStatements() {
+        assertConstantStatements(size -> professionalService.findAvailableProfessionals(PageRequest.of(0, size)));
+    }
+
+    @Test
+    void professionalsByServicePageTakesConstantStatements() {
+        Long serviceId = professionalService.findAvailableProfessionals(PageRequest.of(0, 1))
+                .getContent().get(0).getServices().iterator().next().getId();
+        assertConstantStatements(size -> professionalService.findByServiceId(serviceId, PageRequest.of(0, size)));
+    }
+
+    private void assertConstantStatements(IntFunction<Page<ProfessionalDto>> listing) {
+        long small = statementsFor(listing, 5);
+        long large = statementsFor(listing, 50);
+        assertEquals(small, large, "statements for a page of 5 and a page of 50");
+    }
+
+    private long statementsFor(IntFunction<Page<ProfessionalDto>> listing, int size) {
+        // Start cold, including collection regions, so cache hits from an earlier page neither
+        // hide statements nor turn cached collections into per-professional entity loads
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        Page<ProfessionalDto> page = listing.apply(size);
+        long statements = statistics.getPrepareStatementCount();
+        assertEquals(size, page.getNumberOfElements(), "page size");
+        return statements;
+    }
+}